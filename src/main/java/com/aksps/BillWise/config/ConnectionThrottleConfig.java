@@ -0,0 +1,38 @@
+package com.aksps.BillWise.config;
+
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+/**
+ * Active only when spring.threads.virtual.enabled=true.
+ * Platform threads are naturally limited by Tomcat's pool, but virtual threads are not: thousands of
+ * requests can ask Hikari for a connection at the same moment. Wrapping the DataSource in a
+ * ThrottledDataSource makes the excess park cheaply, in arrival order, before they reach the pool.
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class ConnectionThrottleConfig {
+
+    // static: post-processors must be created before the beans they process
+    @Bean
+    public static BeanPostProcessor connectionThrottlePostProcessor(
+            @Value("${billwise.datasource.connection-permits:10}") int permits,
+            @Value("${billwise.datasource.connection-wait-ms:30000}") long waitMillis) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ThrottledDataSource)) {
+                    return new ThrottledDataSource(dataSource, permits, waitMillis);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,54 @@
+package com.aksps.BillWise.config;
+
+import com.aksps.BillWise.service.DataAggregationScheduler;
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.List;
+
+/**
+ * Moves sales_data.sale_month to a DATE column. Before YearMonthConverter the month was stored in
+ * whatever form Hibernate chose for YearMonth, which SQL cannot group by, and schema updates never
+ * change an existing column's type. The table only holds derived totals, so it is emptied and the
+ * aggregation watermark reset; the next aggregation run rebuilds it from the invoices.
+ */
+@Component
+public class SalesDataSchemaInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesDataSchemaInitializer.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+
+    // Depending on the EntityManagerFactory guarantees Hibernate has already created or updated the tables
+    public SalesDataSchemaInitializer(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                      EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @PostConstruct
+    public void convertSaleMonthColumn() {
+        List<String> types = jdbcTemplate.queryForList("""
+                SELECT data_type FROM information_schema.columns
+                WHERE table_schema = current_schema() AND table_name = 'sales_data' AND column_name = 'sale_month'
+                """, String.class);
+        if (types.isEmpty() || types.get(0).equals("date")) {
+            return;
+        }
+
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("TRUNCATE sales_data");
+            jdbcTemplate.update("ALTER TABLE sales_data ALTER COLUMN sale_month TYPE date USING NULL");
+            jdbcTemplate.update("DELETE FROM aggregation_watermarks WHERE name = ?", DataAggregationScheduler.WATERMARK);
+        });
+        logger.info("Converted sales_data.sale_month from {} to date; sales totals will be rebuilt by the next aggregation run.",
+                types.get(0));
+    }
+}
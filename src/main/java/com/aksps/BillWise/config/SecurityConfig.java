@@ -81,7 +81,7 @@ public class SecurityConfig {
         // Allow all origins, methods, and headers for development
         config.setAllowCredentials(true);
         config.setAllowedOriginPatterns(Collections.singletonList("*")); // Allows any origin
-        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept"));
+        config.setAllowedHeaders(Arrays.asList("Authorization", "Content-Type", "Accept", "Idempotency-Key"));
         config.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "OPTIONS"));
         config.setMaxAge(3600L);
 
@@ -112,7 +112,9 @@ public class SecurityConfig {
                 // 5. Define access rules for endpoints
                 .authorizeHttpRequests(auth -> auth
                         // CRUCIAL FIX: Ensure these public paths are allowed
-                        .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**", "/actuator/**").permitAll()
+                        .requestMatchers("/api/auth/**", "/swagger-ui/**", "/v3/api-docs/**", "/actuator/health/**").permitAll()
+                        // Metrics reveal traffic and cache behaviour; keep them to administrators
+                        .requestMatchers("/actuator/**").hasRole("ADMIN")
                         // All other requests must be authenticated (require a JWT)
                         .anyRequest().authenticated()
                 )
@@ -0,0 +1,50 @@
+package com.aksps.BillWise.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Aligns the pooled id sequences with rows that were inserted while these tables still used IDENTITY columns.
+ * Hibernate creates the sequences starting at 1, which would collide with existing ids,
+ * so each sequence is moved past the current maximum id before the application serves requests.
+ */
+@Component
+public class SequenceInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(SequenceInitializer.class);
+
+    // table -> sequence; must match the @SequenceGenerator declarations on the entities
+    private static final Map<String, String> SEQUENCES = Map.of(
+            "invoices", "invoices_seq",
+            "invoice_items", "invoice_items_seq",
+            "sales_data", "sales_data_seq",
+            "customers", "customers_seq"
+    );
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Depending on the EntityManagerFactory guarantees Hibernate has already created the sequences
+    public SequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void alignSequences() {
+        SEQUENCES.forEach((table, sequence) -> {
+            Long maxId = jdbcTemplate.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+            Long lastValue = jdbcTemplate.queryForObject("SELECT last_value FROM " + sequence, Long.class);
+
+            if (maxId != null && lastValue != null && lastValue <= maxId) {
+                // The next nextval returns maxId + increment, so the pooled block starts right after maxId
+                jdbcTemplate.queryForObject("SELECT setval('" + sequence + "', ?)", Long.class, maxId);
+                logger.info("Moved sequence {} past existing {} ids (max id {}).", sequence, table, maxId);
+            }
+        });
+    }
+}
@@ -0,0 +1,59 @@
+package com.aksps.BillWise.controller;
+
+import com.aksps.BillWise.service.LiveSalesCounters;
+import com.aksps.BillWise.service.SalesSeriesService;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+/**
+ * Sales figures for managers.
+ */
+@RestController
+@RequestMapping("/api/analytics")
+public class AnalyticsController {
+
+    private final LiveSalesCounters liveSalesCounters;
+    private final SalesSeriesService salesSeriesService;
+
+    public AnalyticsController(LiveSalesCounters liveSalesCounters, SalesSeriesService salesSeriesService) {
+        this.liveSalesCounters = liveSalesCounters;
+        this.salesSeriesService = salesSeriesService;
+    }
+
+    /**
+     * Today's units and revenue, overall and for the top products by revenue. Answered from memory;
+     * sales made on other nodes are included once they have been flushed.
+     */
+    @GetMapping("/live")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> getLiveSales(@RequestParam(defaultValue = "20") int limit) {
+        try {
+            return ResponseEntity.ok(liveSalesCounters.today(limit));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    /**
+     * Units, revenue, discount and invoice count per product between two dates, both included.
+     * Example: {@code GET /api/analytics/sales?from=2024-04-01&to=2025-03-31}
+     */
+    @GetMapping("/sales")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> getSalesTotals(@RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                            @RequestParam(required = false) Long productId) {
+        try {
+            return ResponseEntity.ok(salesSeriesService.totals(from, to, productId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+}
@@ -2,15 +2,16 @@ package com.aksps.BillWise.controller;
 
 import com.aksps.BillWise.dto.request.CustomerRequest;
 import com.aksps.BillWise.dto.response.CustomerResponse;
+import com.aksps.BillWise.dto.response.KeysetPage;
 import com.aksps.BillWise.service.CustomerService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/customers")
 public class CustomerController {
@@ -34,12 +35,15 @@ public class CustomerController {
     }
 
     /**
-     * Retrieves all customer records (secured).
+     * Retrieves one page of customer records (secured), e.g. {@code ?after=5000&limit=100&namePrefix=sha}.
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<List<CustomerResponse>> getAllCustomers() {
-        return ResponseEntity.ok(customerService.getAllCustomers());
+    public ResponseEntity<KeysetPage<CustomerResponse>> getCustomers(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+            @RequestParam(required = false) String namePrefix) {
+        return ResponseEntity.ok(customerService.getCustomersPage(after, limit, namePrefix));
     }
 
     /**
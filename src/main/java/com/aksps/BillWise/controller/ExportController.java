@@ -0,0 +1,71 @@
+package com.aksps.BillWise.controller;
+
+import com.aksps.BillWise.service.ExportService;
+import com.aksps.BillWise.service.ExportService.Format;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.OutputStream;
+import java.util.function.BiConsumer;
+
+/**
+ * Bulk exports for back-office reporting, streamed as NDJSON (default) or CSV.
+ * Example: {@code GET /api/export/invoices?format=csv}
+ */
+@RestController
+@RequestMapping("/api/export")
+public class ExportController {
+
+    private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+    private static final MediaType CSV = MediaType.parseMediaType("text/csv;charset=UTF-8");
+
+    private final ExportService exportService;
+
+    public ExportController(ExportService exportService) {
+        this.exportService = exportService;
+    }
+
+    @GetMapping("/products")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> exportProducts(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("products", format, exportService::exportProducts);
+    }
+
+    @GetMapping("/customers")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> exportCustomers(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("customers", format, exportService::exportCustomers);
+    }
+
+    @GetMapping("/invoices")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> exportInvoices(@RequestParam(defaultValue = "ndjson") String format) {
+        return stream("invoices", format, exportService::exportInvoices);
+    }
+
+    /**
+     * The body is written after the handler returns, on an async thread, so nothing is buffered in the controller.
+     */
+    private ResponseEntity<?> stream(String name, String formatParam, BiConsumer<Format, OutputStream> export) {
+        Format format;
+        try {
+            format = Format.parse(formatParam);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        StreamingResponseBody body = out -> export.accept(format, out);
+        String fileName = name + (format == Format.CSV ? ".csv" : ".ndjson");
+        return ResponseEntity.ok()
+                .contentType(format == Format.CSV ? CSV : NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .body(body);
+    }
+}
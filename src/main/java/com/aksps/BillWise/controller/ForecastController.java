@@ -0,0 +1,42 @@
+package com.aksps.BillWise.controller;
+
+import com.aksps.BillWise.dto.response.ForecastResponse;
+import com.aksps.BillWise.service.ForecastService;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Demand forecasts per product, for reordering decisions.
+ */
+@RestController
+@RequestMapping("/api/forecast")
+public class ForecastController {
+
+    private final ForecastService forecastService;
+
+    public ForecastController(ForecastService forecastService) {
+        this.forecastService = forecastService;
+    }
+
+    /**
+     * Forecast units for each of the coming weeks, from the product's weekly sales up to last week.
+     * Example: {@code GET /api/forecast/SUGAR-LOOSE?weeks=4}
+     */
+    @GetMapping("/{sku}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<ForecastResponse> getForecast(@PathVariable String sku,
+                                                        @RequestParam(defaultValue = "8") @Min(1) @Max(52) int weeks) {
+        try {
+            return ResponseEntity.ok(forecastService.forecast(sku, weeks));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
@@ -1,13 +1,29 @@
 package com.aksps.BillWise.controller;
 
 import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.dto.response.InvoiceBatchResult;
 import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.dto.response.InvoiceSummaryResponse;
+import com.aksps.BillWise.dto.response.KeysetPage;
+import com.aksps.BillWise.service.InvoiceBatchService;
+import com.aksps.BillWise.service.InvoiceIdempotencyService;
 import com.aksps.BillWise.service.InvoiceService;
+import com.aksps.BillWise.service.ReceiptService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.security.Principal;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * REST Controller for managing Invoice/Sales Transactions.
@@ -17,22 +33,44 @@ import org.springframework.web.bind.annotation.*;
 @RequestMapping("/api/invoices")
 public class InvoiceController {
 
+    private static final MediaType ESC_POS = MediaType.APPLICATION_OCTET_STREAM;
+    private static final MediaType TEXT = MediaType.parseMediaType("text/plain;charset=UTF-8");
+    private static final MediaType HTML = MediaType.parseMediaType("text/html;charset=UTF-8");
+
     private final InvoiceService invoiceService;
+    private final InvoiceBatchService invoiceBatchService;
+    private final InvoiceIdempotencyService invoiceIdempotencyService;
+    private final ReceiptService receiptService;
 
-    public InvoiceController(InvoiceService invoiceService) {
+    public InvoiceController(InvoiceService invoiceService, InvoiceBatchService invoiceBatchService,
+                             InvoiceIdempotencyService invoiceIdempotencyService, ReceiptService receiptService) {
         this.invoiceService = invoiceService;
+        this.invoiceBatchService = invoiceBatchService;
+        this.invoiceIdempotencyService = invoiceIdempotencyService;
+        this.receiptService = receiptService;
     }
 
     /**
      * Processes a new sale transaction (CREATE operation).
      * This is the core billing endpoint.
      * Accessible by ADMIN and MANAGER roles, or potentially a specific 'CASHIER' role.
+     * Terminals should send an Idempotency-Key header so that network retries replay the
+     * original invoice instead of billing (and deducting stock) twice. Keys are per user, and a
+     * key reused with a different request body is refused with 409.
      */
     @PostMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
-    public ResponseEntity<?> createInvoice(@Valid @RequestBody InvoiceRequest invoiceRequest) {
+    public ResponseEntity<?> createInvoice(@Valid @RequestBody InvoiceRequest invoiceRequest,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                           Principal principal) {
+        if (idempotencyKey != null && (idempotencyKey.isBlank() || idempotencyKey.length() > 100)) {
+            return ResponseEntity.badRequest().body("Error in Request: Idempotency-Key must be 1 to 100 characters.");
+        }
+
         try {
-            InvoiceResponse processedInvoice = invoiceService.createInvoice(invoiceRequest);
+            InvoiceResponse processedInvoice = idempotencyKey != null
+                    ? invoiceIdempotencyService.createInvoice(principal.getName(), idempotencyKey, invoiceRequest)
+                    : invoiceService.createInvoice(invoiceRequest);
             return new ResponseEntity<>(processedInvoice, HttpStatus.CREATED);
         } catch (IllegalArgumentException e) {
             // Handles errors like "Product not found"
@@ -46,8 +84,42 @@ public class InvoiceController {
         }
     }
 
-    // Optional: Add GET endpoints for retrieving invoice history for auditing/printing
+    /**
+     * Bulk ingestion for offline POS terminals replaying a queued backlog of sales.
+     * Each invoice is created (and its stock deducted) atomically on its own; the response
+     * lists a result per invoice in submission order instead of failing the whole batch.
+     */
+    @PostMapping("/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<InvoiceBatchResult>> createInvoices(@RequestBody @NotEmpty List<@Valid InvoiceRequest> invoiceRequests) {
+        return ResponseEntity.ok(invoiceBatchService.createInvoices(invoiceRequests));
+    }
+
+    /**
+     * Retrieves one page of invoice history, e.g. {@code ?from=2025-04-01&to=2025-04-30&customer=42}.
+     * Dates are inclusive; customer is the customer's id. Follow nextCursor for the next page.
+     */
+    @GetMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> getInvoices(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long customer) {
+        try {
+            KeysetPage<InvoiceSummaryResponse> page = invoiceService.getInvoicesPage(after, limit, from, to, customer);
+            return ResponseEntity.ok(page);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body("Error in Request: " + e.getMessage());
+        }
+    }
 
+    /**
+     * Retrieves a complete invoice for auditing or reprinting.
+     */
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
     public ResponseEntity<InvoiceResponse> getInvoiceById(@PathVariable Long id) {
         try {
             InvoiceResponse invoice = invoiceService.getInvoiceResponseById(id);
@@ -57,4 +129,48 @@ public class InvoiceController {
             return ResponseEntity.notFound().build();
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Retrieves a complete invoice by the number printed on it, e.g. {@code /number/INV-01-2526-000123}.
+     */
+    @GetMapping("/number/{invoiceNumber}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<InvoiceResponse> getInvoiceByNumber(@PathVariable String invoiceNumber) {
+        try {
+            return ResponseEntity.ok(invoiceService.getInvoiceResponseByNumber(invoiceNumber));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Printable receipt for an invoice: {@code ?format=text} (default) for plain fixed-width text,
+     * {@code escpos} for raw thermal-printer bytes, or {@code html}. Layout and shop details come
+     * from the billwise.receipt.* settings.
+     */
+    @GetMapping("/{id}/receipt")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> getReceipt(@PathVariable Long id, @RequestParam(defaultValue = "text") String format) {
+        ReceiptService.Format receiptFormat;
+        try {
+            receiptFormat = ReceiptService.Format.parse(format);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+
+        InvoiceResponse invoice;
+        try {
+            invoice = invoiceService.getInvoiceResponseById(id);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+
+        StreamingResponseBody body = out -> receiptService.render(invoice, receiptFormat, out);
+        MediaType contentType = switch (receiptFormat) {
+            case TEXT -> TEXT;
+            case ESCPOS -> ESC_POS;
+            case HTML -> HTML;
+        };
+        return ResponseEntity.ok().contentType(contentType).body(body);
+    }
+}
@@ -0,0 +1,86 @@
+package com.aksps.BillWise.controller;
+
+import com.aksps.BillWise.dto.request.PromotionRequest;
+import com.aksps.BillWise.dto.request.TaxRateRequest;
+import com.aksps.BillWise.dto.response.PromotionResponse;
+import com.aksps.BillWise.dto.response.TaxRateResponse;
+import com.aksps.BillWise.service.PricingRuleService;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * Management of GST slabs (by HSN prefix) and product promotions.
+ * Changes take effect for new invoices as soon as they commit.
+ */
+@RestController
+@RequestMapping("/api/pricing")
+public class PricingRuleController {
+
+    private final PricingRuleService pricingRuleService;
+
+    public PricingRuleController(PricingRuleService pricingRuleService) {
+        this.pricingRuleService = pricingRuleService;
+    }
+
+    @GetMapping("/tax-rates")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<TaxRateResponse>> getAllTaxRates() {
+        return ResponseEntity.ok(pricingRuleService.getAllTaxRates());
+    }
+
+    @PostMapping("/tax-rates")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> createTaxRate(@Valid @RequestBody TaxRateRequest request) {
+        try {
+            return new ResponseEntity<>(pricingRuleService.createTaxRate(request), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/tax-rates/{id}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> deleteTaxRate(@PathVariable Long id) {
+        try {
+            pricingRuleService.deleteTaxRate(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
+    /**
+     * Lists promotions that are running or scheduled.
+     */
+    @GetMapping("/promotions")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<List<PromotionResponse>> getActivePromotions() {
+        return ResponseEntity.ok(pricingRuleService.getActivePromotions());
+    }
+
+    @PostMapping("/promotions")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<?> createPromotion(@Valid @RequestBody PromotionRequest request) {
+        try {
+            return new ResponseEntity<>(pricingRuleService.createPromotion(request), HttpStatus.CREATED);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    @DeleteMapping("/promotions/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER')")
+    public ResponseEntity<Void> deletePromotion(@PathVariable Long id) {
+        try {
+            pricingRuleService.deletePromotion(id);
+            return ResponseEntity.noContent().build();
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+}
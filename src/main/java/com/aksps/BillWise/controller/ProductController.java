@@ -1,13 +1,21 @@
 package com.aksps.BillWise.controller;
 
 import com.aksps.BillWise.dto.request.ProductRequest;
+import com.aksps.BillWise.dto.response.KeysetPage;
+import com.aksps.BillWise.dto.response.ProductChangesResponse;
 import com.aksps.BillWise.dto.response.ProductResponse;
+import com.aksps.BillWise.dto.response.ProductSuggestion;
+import com.aksps.BillWise.model.UnitType;
 import com.aksps.BillWise.service.ProductService;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -26,26 +34,71 @@ public class ProductController {
     }
 
     /**
-     * Retrieves a list of all products (READ operation).
+     * Retrieves one page of products (READ operation), e.g. {@code ?after=1200&limit=100&lowStock=true}.
+     * Follow nextCursor in the response to walk the whole inventory.
+     * Pollers should send back the ETag as If-None-Match: while nothing in the catalog has changed
+     * the answer is a 304, decided without a database query.
      * Accessible by any authenticated user.
      */
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'MANAGER', 'USER')")
-    public ResponseEntity<List<ProductResponse>> getAllProducts() {
-        List<ProductResponse> products = productService.getAllProducts();
-        return ResponseEntity.ok(products);
+    public ResponseEntity<KeysetPage<ProductResponse>> getProducts(
+            @RequestParam(required = false) Long after,
+            @RequestParam(defaultValue = "50") @Min(1) @Max(500) int limit,
+            @RequestParam(required = false) UnitType unitType,
+            @RequestParam(defaultValue = "false") boolean lowStock,
+            @RequestParam(required = false) String namePrefix,
+            WebRequest request) {
+        String eTag = productService.getCatalogETag();
+        if (request.checkNotModified(eTag)) {
+            // 304 and the ETag header are already set on the response
+            return null;
+        }
+        return ResponseEntity.ok()
+                .eTag(eTag)
+                .cacheControl(CacheControl.noCache())
+                .body(productService.getProductsPage(after, limit, unitType, lowStock, namePrefix));
+    }
+
+    /**
+     * Delta sync for POS terminals: products created, updated, sold or deleted since the cursor,
+     * e.g. {@code ?since=81234567}. Start with since=0 and keep the returned nextSince.
+     * Accessible by any authenticated user.
+     */
+    @GetMapping("/changes")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<ProductChangesResponse> getChanges(
+            @RequestParam(defaultValue = "0") @Min(0) long since,
+            @RequestParam(defaultValue = "1000") @Min(1) @Max(5000) int limit) {
+        return ResponseEntity.ok(productService.getChangesSince(since, limit));
     }
 
     /**
-     * Retrieves a single product by its ID.
+     * Type-ahead search by name or SKU, e.g. {@code ?q=sug&limit=10}. Tolerates small typos.
+     * Accessible by any authenticated user.
+     */
+    @GetMapping("/search")
+    @PreAuthorize("isAuthenticated()")
+    public ResponseEntity<List<ProductSuggestion>> searchProducts(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "10") @Min(1) @Max(50) int limit) {
+        return ResponseEntity.ok(productService.searchProducts(q, limit));
+    }
+
+    /**
+     * Retrieves a single product by its ID, with a per-product ETag for conditional requests.
      * Accessible by any authenticated user.
      */
     @GetMapping("/{id}")
     @PreAuthorize("isAuthenticated()")
-    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id) {
+    public ResponseEntity<ProductResponse> getProductById(@PathVariable Long id, WebRequest request) {
+        String eTag = productService.getProductETag(id);
+        if (request.checkNotModified(eTag)) {
+            return null;
+        }
         try {
             ProductResponse product = productService.getProductById(id);
-            return ResponseEntity.ok(product);
+            return ResponseEntity.ok().eTag(eTag).cacheControl(CacheControl.noCache()).body(product);
         } catch (IllegalArgumentException e) {
             return ResponseEntity.notFound().build();
         }
@@ -1,12 +1,16 @@
 package com.aksps.BillWise.dto.request;
 
 import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Digits;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import com.aksps.BillWise.model.UnitType;
 import lombok.Data;
 
+import java.math.BigDecimal;
+
 @Data
 public class ProductRequest {
     @NotBlank(message = "Product name is required.")
@@ -17,7 +21,8 @@ public class ProductRequest {
 
     @NotNull(message = "Price per base unit is required.")
     @DecimalMin(value = "0.01", message = "Price per base unit must be greater than zero.")
-    private Double sellingPricePerBaseUnit;
+    @Digits(integer = 10, fraction = 4, message = "Price per base unit supports at most 4 decimal places.")
+    private BigDecimal sellingPricePerBaseUnit;
 
     @NotNull(message = "Unit type (WEIGHT, LIQUID, COUNT) is required.")
     private UnitType unitType;
@@ -32,4 +37,8 @@ public class ProductRequest {
     @NotNull(message = "Minimum stock level for alerts is required.")
     @Min(value = 0, message = "Minimum stock level cannot be negative.")
     private Integer minStockLevel;
+
+    // Optional; determines the tax slab applied at checkout
+    @Pattern(regexp = "^[0-9]{4,8}$", message = "HSN code must be 4 to 8 digits.")
+    private String hsnCode;
 }
@@ -0,0 +1,31 @@
+package com.aksps.BillWise.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+public class PromotionRequest {
+    @Size(max = 100)
+    private String name;
+
+    @NotBlank(message = "Product SKU is required.")
+    private String productSku;
+
+    @NotNull(message = "Discount percentage is required.")
+    @DecimalMin(value = "0.01", message = "Discount percentage must be greater than zero.")
+    @DecimalMax(value = "100.00", message = "Discount percentage cannot exceed 100.")
+    private BigDecimal discountPercentage;
+
+    @NotNull(message = "Promotion start is required.")
+    private LocalDateTime startsAt;
+
+    @NotNull(message = "Promotion end is required.")
+    private LocalDateTime endsAt;
+}
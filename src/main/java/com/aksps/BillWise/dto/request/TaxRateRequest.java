@@ -0,0 +1,26 @@
+package com.aksps.BillWise.dto.request;
+
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.math.BigDecimal;
+
+@Data
+public class TaxRateRequest {
+    @NotNull(message = "HSN prefix is required.")
+    @Pattern(regexp = "^[0-9]{2,8}$", message = "HSN prefix must be 2 to 8 digits.")
+    private String hsnPrefix;
+
+    // GST percentage, e.g. 5, 12, 18 or 28
+    @NotNull(message = "Rate percentage is required.")
+    @DecimalMin(value = "0.00", message = "Rate percentage cannot be negative.")
+    @DecimalMax(value = "100.00", message = "Rate percentage cannot exceed 100.")
+    private BigDecimal ratePercentage;
+
+    @Size(max = 255)
+    private String description;
+}
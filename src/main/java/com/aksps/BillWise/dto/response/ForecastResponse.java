@@ -0,0 +1,21 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Weekly demand forecast for one product, with the model it was made with.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastResponse {
+    private Long productId;
+    private String sku;
+    private String name;
+    private String method;
+    private List<ForecastWeekResponse> weeks;
+}
@@ -0,0 +1,18 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Forecast units, in the product's base unit, for the week starting on the given Monday.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ForecastWeekResponse {
+    private LocalDate weekStart;
+    private double units;
+}
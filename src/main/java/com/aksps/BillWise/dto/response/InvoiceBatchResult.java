@@ -0,0 +1,25 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome of a single invoice inside a bulk ingestion request.
+ * The status mirrors what POST /api/invoices would have answered for the same invoice
+ * (201 created, 400 bad request, 409 insufficient stock, 500 system error).
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceBatchResult {
+    // Position of the invoice in the submitted list, so terminals can match results to their queue
+    private int index;
+    private int status;
+
+    // Set on success
+    private InvoiceResponse invoice;
+
+    // Set on failure
+    private String error;
+}
@@ -6,6 +6,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 /**
  * DTO representing a single line item's details in the final Invoice response.
  * Separated for cleaner code organization.
@@ -17,6 +19,10 @@ public class InvoiceItemResponse {
     private String productName;
     private String productSku;
     private Integer quantitySold;
-    private Double unitPriceAtSale;
-    private Double lineTotal;
+    private BigDecimal unitPriceAtSale;
+    private BigDecimal lineTotal;
+    private BigDecimal itemDiscount;
+    private BigDecimal lineTax;
+    // GST rate charged on this line, in basis points (1800 = 18%)
+    private Integer taxRateBasisPoints;
 }
@@ -7,6 +7,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 
@@ -24,8 +25,8 @@ public class InvoiceResponse {
     private List<InvoiceItemResponse> items;
 
     // Financial Totals
-    private Double subTotal;
-    private Double totalDiscount;
-    private Double totalTax;
-    private Double grandTotal;
+    private BigDecimal subTotal;
+    private BigDecimal totalDiscount;
+    private BigDecimal totalTax;
+    private BigDecimal grandTotal;
 }
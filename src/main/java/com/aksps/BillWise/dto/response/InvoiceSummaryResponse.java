@@ -0,0 +1,28 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One row of the invoice history listing: the invoice header without its line items.
+ * Filled directly by a JPQL constructor expression, so no entities are loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class InvoiceSummaryResponse {
+    private Long id;
+    private String invoiceNumber;
+    private LocalDateTime invoiceDate;
+    private String customerName;
+    private String customerContactNumber;
+
+    private BigDecimal subTotal;
+    private BigDecimal totalDiscount;
+    private BigDecimal totalTax;
+    private BigDecimal grandTotal;
+}
@@ -0,0 +1,30 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * One page of a keyset-paginated listing, ordered by id.
+ * Pass nextCursor back as {@code ?after=} to fetch the following page; it is null on the last page.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class KeysetPage<T> {
+    private List<T> items;
+    private Long nextCursor;
+
+    /**
+     * Builds a page from rows fetched with limit + 1, where the extra row only signals that more follow.
+     */
+    public static <E, T> KeysetPage<T> of(List<E> rows, int limit, Function<E, Long> idOf, Function<E, T> mapper) {
+        boolean hasMore = rows.size() > limit;
+        List<E> pageRows = hasMore ? rows.subList(0, limit) : rows;
+        Long nextCursor = hasMore ? idOf.apply(pageRows.get(limit - 1)) : null;
+        return new KeysetPage<>(pageRows.stream().map(mapper).toList(), nextCursor);
+    }
+}
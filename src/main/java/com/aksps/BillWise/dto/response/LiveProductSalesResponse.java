@@ -0,0 +1,22 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One product's sales today. Name and SKU are null if the product has since been deleted.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveProductSalesResponse {
+    private Long productId;
+    private String sku;
+    private String name;
+    private long unitsSold;
+    private BigDecimal revenue;
+    private long invoiceCount;
+}
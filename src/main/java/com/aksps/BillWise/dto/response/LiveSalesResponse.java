@@ -0,0 +1,24 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Today's sales so far, from the in-memory counters. Revenue is after discounts, before tax.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LiveSalesResponse {
+    private LocalDate date;
+    private long unitsSold;
+    private BigDecimal revenue;
+    // Number of products sold today; products lists only the top ones by revenue
+    private int productCount;
+    private List<LiveProductSalesResponse> products;
+}
@@ -0,0 +1,20 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * The current state of one changed product: an upsert carrying the product, or a tombstone.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangeResponse {
+    private Long version;
+    private Long productId;
+    private boolean deleted;
+
+    // Null for a tombstone
+    private ProductResponse product;
+}
@@ -0,0 +1,20 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A delta of the catalog since a terminal's last sync, in version order.
+ * Pass nextSince back as {@code ?since=}; when hasMore is true, call again straight away.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChangesResponse {
+    private List<ProductChangeResponse> changes;
+    private Long nextSince;
+    private boolean hasMore;
+}
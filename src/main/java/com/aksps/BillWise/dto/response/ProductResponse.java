@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 /**
  * DTO for responding with Product details to the client.
  * Provides necessary display information while hiding sensitive internal fields.
@@ -18,11 +20,13 @@ public class ProductResponse {
     private String sku;
 
     // Price details for client display
-    private Double sellingPricePerBaseUnit;
+    private BigDecimal sellingPricePerBaseUnit;
     private UnitType unitType;
     private String baseUnit;
 
     // Inventory status
     private Integer currentStock;
+
+    private String hsnCode;
 }
 
@@ -0,0 +1,24 @@
+package com.aksps.BillWise.dto.response;
+
+import com.aksps.BillWise.model.UnitType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One type-ahead search result. Carries what the till shows in the drop-down; stock is
+ * left out because the search index does not follow sales.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductSuggestion {
+    private Long id;
+    private String name;
+    private String sku;
+    private BigDecimal sellingPricePerBaseUnit;
+    private UnitType unitType;
+    private String baseUnit;
+}
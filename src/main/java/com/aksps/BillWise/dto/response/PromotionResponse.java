@@ -0,0 +1,20 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PromotionResponse {
+    private Long id;
+    private String name;
+    private String productSku;
+    private BigDecimal discountPercentage;
+    private LocalDateTime startsAt;
+    private LocalDateTime endsAt;
+}
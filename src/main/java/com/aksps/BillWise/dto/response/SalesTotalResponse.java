@@ -0,0 +1,21 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * One product's sales over a date range. Revenue is after discounts, before tax.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesTotalResponse {
+    private Long productId;
+    private long unitsSold;
+    private BigDecimal revenue;
+    private BigDecimal discount;
+    private long invoiceCount;
+}
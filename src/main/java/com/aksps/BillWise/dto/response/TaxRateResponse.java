@@ -0,0 +1,17 @@
+package com.aksps.BillWise.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxRateResponse {
+    private Long id;
+    private String hsnPrefix;
+    private BigDecimal ratePercentage;
+    private String description;
+}
@@ -0,0 +1,28 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * How far an incremental aggregation job has got. Invoices dated before processedUntil have been
+ * added to the job's totals; the next run starts there.
+ */
+@Entity
+@Table(name = "aggregation_watermarks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AggregationWatermark {
+
+    // Name of the job, e.g. "sales_data"
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private LocalDateTime processedUntil;
+}
@@ -0,0 +1,49 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales of one product on one day. Written in batches by LiveSalesCounters, which adds the sales it
+ * counted in memory since its last flush; several nodes can add to the same row.
+ */
+@Entity
+@Table(name = "daily_sales", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"product_id", "sale_date"})
+}, indexes = {
+        @Index(name = "idx_daily_sales_date", columnList = "sale_date")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySales {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_sales_seq")
+    @SequenceGenerator(name = "daily_sales_seq", sequenceName = "daily_sales_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Column(nullable = false)
+    private LocalDate saleDate;
+
+    // In the product's base unit, like InvoiceItem.quantitySold
+    @Column(nullable = false)
+    private Long unitsSold;
+
+    // Line totals after discounts, before tax
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    // Invoices with a line for the product
+    @Column(nullable = false)
+    private Long invoiceCount;
+}
@@ -0,0 +1,12 @@
+package com.aksps.BillWise.model;
+
+/**
+ * Model a demand forecast was made with, chosen per product from the shape of its sales history.
+ */
+public enum ForecastMethod {
+    NO_SALES,               // nothing sold in the history window; forecast is zero
+    SES,                    // simple exponential smoothing, for very short histories
+    HOLT,                   // damped trend, for histories shorter than two seasons
+    HOLT_WINTERS,           // damped trend with additive seasonality
+    CROSTON                 // intermittent demand (Syntetos-Boylan approximation)
+}
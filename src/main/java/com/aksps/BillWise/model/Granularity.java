@@ -0,0 +1,10 @@
+package com.aksps.BillWise.model;
+
+/**
+ * Period length of a SalesSeries row. Weeks start on Monday.
+ */
+public enum Granularity {
+    DAY,
+    WEEK,
+    MONTH
+}
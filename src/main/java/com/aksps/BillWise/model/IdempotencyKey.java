@@ -0,0 +1,69 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.domain.Persistable;
+
+import java.time.LocalDateTime;
+
+/**
+ * Records the outcome of an invoice request made with an Idempotency-Key header.
+ * A retried request with the same key is answered from the stored response
+ * instead of creating a second invoice and deducting stock twice. The hash of the
+ * original request is kept so a key reused for a different sale is refused.
+ */
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+        @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+@Data
+@NoArgsConstructor
+public class IdempotencyKey implements Persistable<IdempotencyKeyId> {
+
+    @EmbeddedId
+    private IdempotencyKeyId key;
+
+    // SHA-256 of the request body as JSON, hex encoded
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(nullable = false)
+    private Long invoiceId;
+
+    // The original InvoiceResponse as JSON, replayed verbatim on retries
+    @Column(nullable = false, columnDefinition = "text")
+    private String responseJson;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Keys are assigned by the client, so tell Spring Data to INSERT (and fail on duplicates) rather than merge
+    @Transient
+    private boolean newKey = true;
+
+    public IdempotencyKey(IdempotencyKeyId key, String requestHash, Long invoiceId, String responseJson,
+                          LocalDateTime createdAt) {
+        this.key = key;
+        this.requestHash = requestHash;
+        this.invoiceId = invoiceId;
+        this.responseJson = responseJson;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public IdempotencyKeyId getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return newKey;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.newKey = false;
+    }
+}
@@ -0,0 +1,26 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+/**
+ * An Idempotency-Key as seen by the server: the client's key within the namespace of the user who
+ * sent it, so two terminals that happen to generate the same key never replay each other's invoices.
+ */
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdempotencyKeyId implements Serializable {
+
+    @Column(name = "principal")
+    private String principal;
+
+    @Column(name = "idempotency_key", length = 100)
+    private String key;
+}
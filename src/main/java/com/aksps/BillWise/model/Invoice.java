@@ -8,22 +8,30 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        // Back the history listing's customer and date filters
+        @Index(name = "idx_invoices_customer", columnList = "customer_id, id"),
+        @Index(name = "idx_invoices_date", columnList = "invoice_date")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 
 public class Invoice {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Pooled sequence (not IDENTITY) so Hibernate can batch inserts; 50 ids are reserved per round trip
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_seq")
+    @SequenceGenerator(name = "invoice_seq", sequenceName = "invoices_seq", allocationSize = 50)
     private Long id;
 
-    private String invoiceNumber; // Auto-generated/Sequence number
+    @Column(unique = true)
+    private String invoiceNumber; // Allocated by InvoiceNumberAllocator (INV-<store>-<FY>-<number>)
 
     private LocalDateTime invoiceDate = LocalDateTime.now();
 
@@ -40,9 +48,13 @@ public class Invoice {
     @OneToMany(mappedBy = "invoice", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<InvoiceItem> items = new ArrayList<>();
 
-    // Financial Totals
-    private Double subTotal;
-    private Double totalDiscount;
-    private Double totalTax;
-    private Double grandTotal;
+    // Financial Totals (exact to the paisa, computed by PricingEngine)
+    @Column(precision = 14, scale = 2)
+    private BigDecimal subTotal;
+    @Column(precision = 14, scale = 2)
+    private BigDecimal totalDiscount;
+    @Column(precision = 14, scale = 2)
+    private BigDecimal totalTax;
+    @Column(precision = 14, scale = 2)
+    private BigDecimal grandTotal;
 }
@@ -0,0 +1,25 @@
+package com.aksps.BillWise.model;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Published when an invoice is created. Carries what sales counters need from each line, so
+ * listeners running after the commit do not touch the (by then detached) entities.
+ */
+public record InvoiceCreatedEvent(LocalDateTime invoiceDate, List<Line> lines) {
+
+    /**
+     * One invoice line; netAmount is the line total after its item discount and its share of the
+     * invoice discount, before tax.
+     */
+    public record Line(Long productId, int quantity, BigDecimal netAmount) { }
+
+    public static InvoiceCreatedEvent of(Invoice invoice) {
+        return new InvoiceCreatedEvent(invoice.getInvoiceDate(), invoice.getItems().stream()
+                .map(item -> new Line(item.getProduct().getId(), item.getQuantitySold(),
+                        item.getLineTotal().subtract(item.getLineDiscount())))
+                .toList());
+    }
+}
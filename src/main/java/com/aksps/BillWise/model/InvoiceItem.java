@@ -1,29 +1,39 @@
 package com.aksps.BillWise.model;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Table;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 import lombok.AllArgsConstructor;
 
+import java.math.BigDecimal;
+
 /**
  * JPA Entity representing a single line item within an Invoice.
  * It links a specific sale quantity to a specific product.
  */
 @Entity
-@Table(name = "invoice_items")
+// Lets invoice exports and lookups walk an invoice's items in order without sorting the whole table
+@Table(name = "invoice_items", indexes = {
+        @Index(name = "idx_invoice_items_invoice", columnList = "invoice_id, id")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 public class InvoiceItem {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    // Sequence ids let all line items of an invoice go out as one JDBC insert batch
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "invoice_item_seq")
+    @SequenceGenerator(name = "invoice_item_seq", sequenceName = "invoice_items_seq", allocationSize = 50)
     private Long id;
 
     // Link back to the parent invoice
@@ -40,10 +50,26 @@ public class InvoiceItem {
     private Integer quantitySold;
 
     // The price per base unit *at the time of sale* (CRUCIAL for audit)
-    private Double unitPriceAtSale;
+    @Column(precision = 14, scale = 4)
+    private BigDecimal unitPriceAtSale;
+
+    // The total price for this line item (quantity * unitPriceAtSale, rounded to the paisa)
+    @Column(precision = 14, scale = 2)
+    private BigDecimal lineTotal;
+
+    // Promotion discount applied to this line
+    @Column(precision = 14, scale = 2)
+    private BigDecimal itemDiscount;
+
+    // All discount on this line: the item discount plus its share of the invoice discount.
+    // lineTotal - lineDiscount is the line's taxable amount, i.e. the revenue it brought in.
+    // Null on lines saved before this was recorded.
+    @Column(precision = 14, scale = 2)
+    private BigDecimal lineDiscount;
 
-    // The total price for this line item (quantity * unitPriceAtSale)
-    private Double lineTotal;
+    // Tax rate and amount charged on this line, kept for audit like the unit price
+    private Integer taxRateBasisPoints;
 
-    private Double itemDiscount;
+    @Column(precision = 14, scale = 2)
+    private BigDecimal lineTax;
 }
\ No newline at end of file
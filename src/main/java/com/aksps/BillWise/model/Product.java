@@ -9,8 +9,11 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.math.BigDecimal;
+
 @Entity
 @Table(name = "products")
+@EntityListeners(ProductChangeListener.class)
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -23,7 +26,9 @@ public class Product {
     private String name;
     private String sku;
 
-    private Double sellingPricePerBaseUnit;
+    // Four decimals, because a price per gram or millilitre is often a fraction of a paisa
+    @Column(precision = 14, scale = 4)
+    private BigDecimal sellingPricePerBaseUnit;
 
     @Enumerated(EnumType.STRING)
     private UnitType unitType;
@@ -33,7 +38,11 @@ public class Product {
     private Integer currentStock;
     private Integer minStockLevel;
 
-    public Product(String name, String sku, Double sellingPricePerBaseUnit, UnitType unitType, String baseUnit, Integer currentStock, Integer minStockLevel) {
+    // HSN code used to look up the product's GST slab; null falls back to the default rate
+    @Column(length = 8)
+    private String hsnCode;
+
+    public Product(String name, String sku, BigDecimal sellingPricePerBaseUnit, UnitType unitType, String baseUnit, Integer currentStock, Integer minStockLevel) {
         this.name = name;
         this.sku = sku;
         this.sellingPricePerBaseUnit = sellingPricePerBaseUnit;
@@ -0,0 +1,37 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the product change log that POS terminals sync from.
+ * Rows are written with plain JDBC by ProductChangeLog; the entity only defines the table.
+ * No foreign key to products: the entry of a deleted product is its tombstone.
+ */
+@Entity
+@Table(name = "product_changes", indexes = {
+        @Index(name = "idx_product_changes_tx", columnList = "tx_id"),
+        @Index(name = "idx_product_changes_product", columnList = "product_id, tx_id")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductChange {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "product_id", nullable = false)
+    private Long productId;
+
+    // PostgreSQL id of the writing transaction; the sync cursor is expressed in these
+    @Column(name = "tx_id", nullable = false)
+    private Long txId;
+
+    @Column(nullable = false)
+    private LocalDateTime changedAt;
+}
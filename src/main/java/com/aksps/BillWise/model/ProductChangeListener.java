@@ -0,0 +1,31 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * JPA listener that turns every write to a Product into a ProductChangedEvent, so caches
+ * hear about changes no matter which service made them. Created by Spring through Hibernate's
+ * bean container; it only needs the event publisher, which keeps it free of repository cycles.
+ */
+public class ProductChangeListener {
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public ProductChangeListener(ApplicationEventPublisher eventPublisher) {
+        this.eventPublisher = eventPublisher;
+    }
+
+    @PostPersist
+    @PostUpdate
+    public void productSaved(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.of(product, false));
+    }
+
+    @PostRemove
+    public void productRemoved(Product product) {
+        eventPublisher.publishEvent(ProductChangedEvent.of(product, true));
+    }
+}
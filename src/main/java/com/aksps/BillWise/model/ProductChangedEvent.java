@@ -0,0 +1,16 @@
+package com.aksps.BillWise.model;
+
+import java.math.BigDecimal;
+
+/**
+ * Published whenever a Product entity is inserted, updated or deleted.
+ * Carries the fields in-memory indexes need, so listeners do not have to read the row back.
+ */
+public record ProductChangedEvent(Long productId, String sku, String name, BigDecimal sellingPricePerBaseUnit,
+                                  UnitType unitType, String baseUnit, boolean removed) {
+
+    public static ProductChangedEvent of(Product product, boolean removed) {
+        return new ProductChangedEvent(product.getId(), product.getSku(), product.getName(),
+                product.getSellingPricePerBaseUnit(), product.getUnitType(), product.getBaseUnit(), removed);
+    }
+}
@@ -22,7 +22,8 @@ import java.time.YearMonth;
 public class SalesData {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_data_seq")
+    @SequenceGenerator(name = "sales_data_seq", sequenceName = "sales_data_seq", allocationSize = 50)
     private Long id;
 
     // FIX: Link to the product being tracked
@@ -30,8 +31,9 @@ public class SalesData {
     @JoinColumn(name = "product_id", nullable = false)
     private Product product;
 
-    // FIX: Use YearMonth for monthly aggregation time dimension
+    // FIX: Use YearMonth for monthly aggregation time dimension (stored as the first day of the month)
     @Column(name = "sale_month", nullable = false)
+    @Convert(converter = YearMonthConverter.class)
     private YearMonth month;
 
     // FIX: Track physical volume (units), not monetary sales
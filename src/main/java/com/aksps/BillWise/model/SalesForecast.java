@@ -0,0 +1,47 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * Forecast units for one product in one upcoming week, as written by the nightly forecast batch.
+ * The whole table is replaced on every run.
+ */
+@Entity
+@Table(name = "sales_forecasts", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"product_id", "period_start"})
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesForecast {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_forecasts_seq")
+    @SequenceGenerator(name = "sales_forecasts_seq", sequenceName = "sales_forecasts_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    // Monday of the forecast week
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    // In the product's base unit
+    @Column(nullable = false)
+    private Double units;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private ForecastMethod method;
+
+    @Column(nullable = false)
+    private LocalDateTime generatedAt;
+}
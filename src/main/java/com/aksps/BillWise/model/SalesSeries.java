@@ -0,0 +1,59 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Sales of one product in one day, week or month, built from the invoices by DataAggregationScheduler.
+ * The week and month rows are rollups of the day rows, kept up to date by adding the same chunk of
+ * sales to all three in one statement, so a period's row always equals the sum of its days.
+ */
+@Entity
+@Table(name = "sales_series", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"product_id", "granularity", "period_start"})
+}, indexes = {
+        // Range queries read every product's rows of one granularity
+        @Index(name = "idx_sales_series_period", columnList = "granularity, period_start")
+})
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SalesSeries {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "sales_series_seq")
+    @SequenceGenerator(name = "sales_series_seq", sequenceName = "sales_series_seq", allocationSize = 50)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "product_id", nullable = false)
+    private Product product;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 5)
+    private Granularity granularity;
+
+    // First day of the period: the day itself, a Monday, or the first of the month
+    @Column(nullable = false)
+    private LocalDate periodStart;
+
+    // In the product's base unit, like InvoiceItem.quantitySold
+    @Column(nullable = false)
+    private Long unitsSold;
+
+    // Line totals after discounts, before tax
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false, precision = 14, scale = 2)
+    private BigDecimal discount;
+
+    // Invoices with a line for the product
+    @Column(nullable = false)
+    private Long invoiceCount;
+}
@@ -0,0 +1,30 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * GST slab for an HSN category. The prefix can be a 2-digit chapter, or a 4, 6 or 8 digit code;
+ * a product gets the rate of the longest prefix that matches its HSN code.
+ */
+@Entity
+@Table(name = "tax_rates")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaxRate {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 8)
+    private String hsnPrefix;
+
+    // Rate in basis points (500 = 5%, 1800 = 18%)
+    @Column(nullable = false)
+    private Integer rateBasisPoints;
+
+    private String description;
+}
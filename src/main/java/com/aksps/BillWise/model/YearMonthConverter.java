@@ -0,0 +1,25 @@
+package com.aksps.BillWise.model;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+
+/**
+ * Stores a YearMonth as the DATE of the first day of the month, so SQL can group and compare
+ * months (e.g. {@code date_trunc('month', invoice_date)::date}).
+ */
+@Converter
+public class YearMonthConverter implements AttributeConverter<YearMonth, LocalDate> {
+
+    @Override
+    public LocalDate convertToDatabaseColumn(YearMonth month) {
+        return month != null ? month.atDay(1) : null;
+    }
+
+    @Override
+    public YearMonth convertToEntityAttribute(LocalDate date) {
+        return date != null ? YearMonth.from(date) : null;
+    }
+}
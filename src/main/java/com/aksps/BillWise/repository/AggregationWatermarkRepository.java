@@ -0,0 +1,20 @@
+package com.aksps.BillWise.repository;
+
+import com.aksps.BillWise.model.AggregationWatermark;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface AggregationWatermarkRepository extends JpaRepository<AggregationWatermark, String> {
+
+    // Row lock held until commit, so two nodes never add the same invoices to the totals
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT w FROM AggregationWatermark w WHERE w.name = :name")
+    Optional<AggregationWatermark> findForUpdate(@Param("name") String name);
+}
@@ -1,12 +1,33 @@
 package com.aksps.BillWise.repository;
 
+import com.aksps.BillWise.dto.response.CustomerResponse;
 import com.aksps.BillWise.model.Customer;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface CustomerRepository extends JpaRepository<Customer, Long> {
     Optional<Customer> findByContactNumber(String contactNumber);
+
+    // Resolves all customers of an invoice batch in a single round trip
+    List<Customer> findByContactNumberIn(Collection<String> contactNumbers);
+
+    // Keyset page in id order, selected straight into the response DTO; the name filter is skipped when namePattern is null
+    @Query("""
+            SELECT new com.aksps.BillWise.dto.response.CustomerResponse(c.id, c.name, c.contactNumber, c.email, c.gstNumber)
+            FROM Customer c
+            WHERE c.id > :afterId
+              AND (:namePattern IS NULL OR LOWER(c.name) LIKE :namePattern ESCAPE '\\')
+            ORDER BY c.id
+            """)
+    List<CustomerResponse> findPageAfter(@Param("afterId") long afterId,
+                                         @Param("namePattern") String namePattern,
+                                         Limit limit);
 }
@@ -0,0 +1,16 @@
+package com.aksps.BillWise.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * One line item of an invoice, flattened together with the invoice header, customer and product
+ * columns the response needs. The header columns repeat on every row of the same invoice.
+ */
+public record InvoiceLineRow(Long invoiceId, String invoiceNumber, LocalDateTime invoiceDate,
+                             String customerName, String customerContactNumber,
+                             BigDecimal subTotal, BigDecimal totalDiscount, BigDecimal totalTax, BigDecimal grandTotal,
+                             String productName, String productSku, Integer quantitySold, BigDecimal unitPriceAtSale,
+                             BigDecimal lineTotal, BigDecimal itemDiscount, BigDecimal lineTax,
+                             Integer taxRateBasisPoints) {
+}
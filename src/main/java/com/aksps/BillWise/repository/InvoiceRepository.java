@@ -1,12 +1,66 @@
 package com.aksps.BillWise.repository;
 
+import com.aksps.BillWise.dto.response.InvoiceSummaryResponse;
 import com.aksps.BillWise.model.Invoice;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, Long> {
     Optional<Invoice> findByInvoiceNumber(String invoiceNumber);
+
+    // Invoice, customer, items and their products in one joined query, one row per line item in line order.
+    // Selected as plain rows, so rendering an invoice creates no managed entities.
+    @Query("""
+            SELECT new com.aksps.BillWise.repository.InvoiceLineRow(
+                       i.id, i.invoiceNumber, i.invoiceDate, COALESCE(c.name, 'Anonymous'), c.contactNumber,
+                       i.subTotal, i.totalDiscount, i.totalTax, i.grandTotal,
+                       p.name, p.sku, ii.quantitySold, ii.unitPriceAtSale, ii.lineTotal, ii.itemDiscount, ii.lineTax,
+                       ii.taxRateBasisPoints)
+            FROM Invoice i LEFT JOIN i.customer c LEFT JOIN i.items ii LEFT JOIN ii.product p
+            WHERE i.id = :id
+            ORDER BY ii.id
+            """)
+    List<InvoiceLineRow> findLinesById(@Param("id") Long id);
+
+    @Query("""
+            SELECT new com.aksps.BillWise.repository.InvoiceLineRow(
+                       i.id, i.invoiceNumber, i.invoiceDate, COALESCE(c.name, 'Anonymous'), c.contactNumber,
+                       i.subTotal, i.totalDiscount, i.totalTax, i.grandTotal,
+                       p.name, p.sku, ii.quantitySold, ii.unitPriceAtSale, ii.lineTotal, ii.itemDiscount, ii.lineTax,
+                       ii.taxRateBasisPoints)
+            FROM Invoice i LEFT JOIN i.customer c LEFT JOIN i.items ii LEFT JOIN ii.product p
+            WHERE i.invoiceNumber = :invoiceNumber
+            ORDER BY ii.id
+            """)
+    List<InvoiceLineRow> findLinesByInvoiceNumber(@Param("invoiceNumber") String invoiceNumber);
+
+    // Where the sales aggregation starts when it has no watermark yet
+    @Query("SELECT MIN(i.invoiceDate) FROM Invoice i")
+    Optional<LocalDateTime> findFirstInvoiceDate();
+
+    // Keyset page of invoice headers in id order; each filter is skipped when its parameter is null
+    @Query("""
+            SELECT new com.aksps.BillWise.dto.response.InvoiceSummaryResponse(
+                       i.id, i.invoiceNumber, i.invoiceDate, COALESCE(c.name, 'Anonymous'), c.contactNumber,
+                       i.subTotal, i.totalDiscount, i.totalTax, i.grandTotal)
+            FROM Invoice i LEFT JOIN i.customer c
+            WHERE i.id > :afterId
+              AND (:from IS NULL OR i.invoiceDate >= :from)
+              AND (:to IS NULL OR i.invoiceDate < :to)
+              AND (:customerId IS NULL OR c.id = :customerId)
+            ORDER BY i.id
+            """)
+    List<InvoiceSummaryResponse> findSummariesAfter(@Param("afterId") long afterId,
+                                                    @Param("from") LocalDateTime from,
+                                                    @Param("to") LocalDateTime to,
+                                                    @Param("customerId") Long customerId,
+                                                    Limit limit);
 }
@@ -1,13 +1,61 @@
 package com.aksps.BillWise.repository;
 
+import com.aksps.BillWise.dto.response.ProductResponse;
 import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Long> {
+public interface ProductRepository extends JpaRepository<Product, Long>, ProductStockRepository {
     boolean existsBySku(String sku);
     Optional<Product> findBySku(String sku);
+
+    // Snapshot loads for ProductCatalogCache, read straight from the columns without creating managed entities.
+    // The SKU variant resolves every SKU of a basket in a single round trip at checkout.
+    @Query("""
+            SELECT new com.aksps.BillWise.repository.ProductSnapshot(p.id, p.name, p.sku, p.sellingPricePerBaseUnit,
+                       p.unitType, p.baseUnit, p.currentStock, p.minStockLevel, p.hsnCode)
+            FROM Product p WHERE p.id = :id
+            """)
+    Optional<ProductSnapshot> findSnapshotById(@Param("id") Long id);
+
+    @Query("""
+            SELECT new com.aksps.BillWise.repository.ProductSnapshot(p.id, p.name, p.sku, p.sellingPricePerBaseUnit,
+                       p.unitType, p.baseUnit, p.currentStock, p.minStockLevel, p.hsnCode)
+            FROM Product p WHERE p.sku IN :skus
+            """)
+    List<ProductSnapshot> findSnapshotsBySkuIn(@Param("skus") Collection<String> skus);
+
+    // Every HSN code in the catalog, so PricingRuleService can pre-resolve its tax slab
+    @Query("SELECT DISTINCT p.hsnCode FROM Product p WHERE p.hsnCode IS NOT NULL")
+    List<String> findDistinctHsnCodes();
+
+    /**
+     * Keyset page of products after the given id, in id order. Each filter is skipped when null (or false).
+     * Seeks on the primary key, so every page costs the same however deep the client has scrolled.
+     * Rows are selected straight into the response DTO, so no entities are loaded or tracked.
+     */
+    @Query("""
+            SELECT new com.aksps.BillWise.dto.response.ProductResponse(p.id, p.name, p.sku, p.sellingPricePerBaseUnit,
+                       p.unitType, p.baseUnit, p.currentStock, p.hsnCode)
+            FROM Product p
+            WHERE p.id > :afterId
+              AND (:unitType IS NULL OR p.unitType = :unitType)
+              AND (:lowStockOnly = false OR p.currentStock <= p.minStockLevel)
+              AND (:namePattern IS NULL OR LOWER(p.name) LIKE :namePattern ESCAPE '\\')
+            ORDER BY p.id
+            """)
+    List<ProductResponse> findPageAfter(@Param("afterId") long afterId,
+                                        @Param("unitType") UnitType unitType,
+                                        @Param("lowStockOnly") boolean lowStockOnly,
+                                        @Param("namePattern") String namePattern,
+                                        Limit limit);
 }
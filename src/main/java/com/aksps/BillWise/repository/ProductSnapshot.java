@@ -0,0 +1,21 @@
+package com.aksps.BillWise.repository;
+
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+
+import java.math.BigDecimal;
+
+/**
+ * Immutable copy of a product row, safe to share between threads through the catalog cache.
+ * Also the projection ProductRepository reads snapshots into without loading entities.
+ */
+public record ProductSnapshot(Long id, String name, String sku, BigDecimal sellingPricePerBaseUnit,
+                              UnitType unitType, String baseUnit, Integer currentStock, Integer minStockLevel,
+                              String hsnCode) {
+
+    public static ProductSnapshot of(Product product) {
+        return new ProductSnapshot(product.getId(), product.getName(), product.getSku(),
+                product.getSellingPricePerBaseUnit(), product.getUnitType(), product.getBaseUnit(),
+                product.getCurrentStock(), product.getMinStockLevel(), product.getHsnCode());
+    }
+}
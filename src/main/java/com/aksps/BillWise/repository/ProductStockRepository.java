@@ -0,0 +1,26 @@
+package com.aksps.BillWise.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Custom repository fragment for stock movements that must be atomic at the database level.
+ * Implemented with plain JDBC so that all lines of an invoice go out as a single batch.
+ */
+public interface ProductStockRepository {
+
+    /**
+     * Deducts stock for every requested product, but only where enough stock is left.
+     * Each row is updated with a conditional {@code current_stock - qty ... WHERE current_stock >= qty},
+     * so concurrent tills can never oversell.
+     *
+     * @param decrements The quantity to deduct per product.
+     * @return The ids of products whose stock was insufficient (empty when every deduction succeeded).
+     */
+    List<Long> decrementStockIfAvailable(Collection<StockDecrement> decrements);
+
+    /**
+     * A single stock deduction for one product.
+     */
+    record StockDecrement(Long productId, int quantity) { }
+}
@@ -0,0 +1,57 @@
+package com.aksps.BillWise.repository;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * JDBC implementation of {@link ProductStockRepository}, picked up by Spring Data through the Impl suffix.
+ * Runs on the connection of the surrounding JPA transaction.
+ */
+public class ProductStockRepositoryImpl implements ProductStockRepository {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE products SET current_stock = current_stock - ? WHERE id = ? AND current_stock >= ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductStockRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public List<Long> decrementStockIfAvailable(Collection<StockDecrement> decrements) {
+        // Always lock rows in id order so two tills selling the same products cannot deadlock
+        List<StockDecrement> ordered = new ArrayList<>(decrements);
+        ordered.sort(Comparator.comparing(StockDecrement::productId));
+
+        int[] updatedRows = jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                StockDecrement decrement = ordered.get(i);
+                ps.setInt(1, decrement.quantity());
+                ps.setLong(2, decrement.productId());
+                ps.setInt(3, decrement.quantity());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return ordered.size();
+            }
+        });
+
+        List<Long> insufficient = new ArrayList<>();
+        for (int i = 0; i < updatedRows.length; i++) {
+            if (updatedRows[i] == 0) {
+                insufficient.add(ordered.get(i).productId());
+            }
+        }
+        return insufficient;
+    }
+}
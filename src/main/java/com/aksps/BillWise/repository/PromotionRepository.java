@@ -0,0 +1,21 @@
+package com.aksps.BillWise.repository;
+
+import com.aksps.BillWise.model.Promotion;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PromotionRepository extends JpaRepository<Promotion, Long> {
+
+    /**
+     * Promotions that are running now or start later; expired ones are not compiled into the rule table.
+     * The product is fetched with them so the rule compiler can read its id and SKU without extra queries.
+     */
+    @Query("SELECT p FROM Promotion p JOIN FETCH p.product WHERE p.endsAt > :now")
+    List<Promotion> findNotEndedBefore(@Param("now") LocalDateTime now);
+}
@@ -1,7 +1,6 @@
 package com.aksps.BillWise.repository;
 
 import com.aksps.BillWise.model.SalesData;
-import com.aksps.BillWise.model.Product;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
@@ -16,13 +15,13 @@ import java.util.Optional;
 public interface SalesDataRepository extends JpaRepository<SalesData, Long> {
 
     /**
-     * Finds a specific aggregated record based on the product entity and the YearMonth.
+     * Finds a specific aggregated record based on the product id and the YearMonth.
      * This method is critical for the DataAggregationScheduler to prevent duplicate entries
      * and update existing monthly sales records.
      *
-     * @param product The Product entity.
+     * @param productId The product's id.
      * @param month The aggregation period.
      * @return An Optional containing the SalesData record, if found.
      */
-    Optional<SalesData> findByProductAndMonth(Product product, YearMonth month);
+    Optional<SalesData> findByProductIdAndMonth(Long productId, YearMonth month);
 }
\ No newline at end of file
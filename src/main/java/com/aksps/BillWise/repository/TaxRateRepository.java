@@ -0,0 +1,10 @@
+package com.aksps.BillWise.repository;
+
+import com.aksps.BillWise.model.TaxRate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface TaxRateRepository extends JpaRepository<TaxRate, Long> {
+    boolean existsByHsnPrefix(String hsnPrefix);
+}
@@ -0,0 +1,81 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.ProductChangedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monotonic version numbers for the product catalog, the basis of the ETags on product reads.
+ * The catalog version moves on every committed product change and every sale's stock deduction;
+ * each product also remembers the catalog version of its own latest change.
+ * <p>
+ * Versions live in memory, so ETags also carry the process start time (they never repeat across
+ * restarts) and a time window as long as the product cache expiry: changes made on other nodes or
+ * directly in the database reach polling clients within the same bound as they reach the cache.
+ */
+@Service
+public class CatalogVersion {
+
+    /**
+     * A product's version before and after one change.
+     */
+    public record Change(long previous, long current) { }
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final long windowMillis;
+
+    private final AtomicLong version = new AtomicLong();
+    private final ConcurrentHashMap<Long, Long> productVersions = new ConcurrentHashMap<>();
+
+    public CatalogVersion(@Value("${billwise.cache.products.expire-after-write:10m}") Duration window) {
+        this.windowMillis = Math.max(1, window.toMillis());
+    }
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * The catalog version at the product's latest change, or 0 if it has not changed since startup.
+     */
+    public long productVersion(Long productId) {
+        return productVersions.getOrDefault(productId, 0L);
+    }
+
+    public String catalogETag() {
+        return eTag(current());
+    }
+
+    public String productETag(Long productId) {
+        return eTag(productVersion(productId));
+    }
+
+    /**
+     * Records a committed change to a product, moving both the catalog and the product version.
+     */
+    public Change productChanged(Long productId) {
+        long next = version.incrementAndGet();
+        long[] previous = new long[1];
+        // Two changes can draw their numbers in one order and record them in the other; never go backwards
+        long current = productVersions.merge(productId, next, (old, proposed) -> {
+            previous[0] = old;
+            return Math.max(old, proposed);
+        });
+        return new Change(previous[0], current);
+    }
+
+    // Runs after commit when published inside a transaction, immediately otherwise
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        productChanged(event.productId());
+    }
+
+    private String eTag(long value) {
+        return "\"" + epoch + "-" + (System.currentTimeMillis() / windowMillis) + "-" + value + "\"";
+    }
+}
@@ -0,0 +1,104 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.Customer;
+import com.aksps.BillWise.repository.CustomerRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.Optional;
+
+/**
+ * Contact number to customer cache for checkout pre-fill, where every keystroke can trigger a lookup.
+ * Known customers are kept for a long TTL; unknown numbers are cached as absent for a short window,
+ * so a cashier typing a new number does not query the database on each key. Creating a customer
+ * replaces a cached "absent" entry as soon as the creation commits.
+ * Hit and miss counts are published as the "cache.*" metrics under the name customers.by-contact.
+ */
+@Service
+public class CustomerLookupCache {
+
+    private final CustomerRepository customerRepository;
+
+    private final Cache<String, Optional<CustomerSnapshot>> byContactNumber;
+
+    public CustomerLookupCache(CustomerRepository customerRepository, MeterRegistry meterRegistry,
+                               @Value("${billwise.cache.customers.max-size:50000}") long maxSize,
+                               @Value("${billwise.cache.customers.ttl:30m}") Duration ttl,
+                               @Value("${billwise.cache.customers.negative-ttl:30s}") Duration negativeTtl) {
+        this.customerRepository = customerRepository;
+        this.byContactNumber = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfter(new PresenceBasedExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byContactNumber, "customers.by-contact");
+    }
+
+    /**
+     * Looks up a customer by contact number, from the cache when possible.
+     */
+    public Optional<CustomerSnapshot> findByContactNumber(String contactNumber) {
+        Optional<CustomerSnapshot> cached = byContactNumber.getIfPresent(contactNumber);
+        if (cached != null) {
+            return cached;
+        }
+
+        Optional<CustomerSnapshot> loaded = customerRepository.findByContactNumber(contactNumber).map(CustomerSnapshot::of);
+        // What a read-write transaction sees may still roll back, so it is only cached once committed.
+        // putIfAbsent: a customer created meanwhile must not be overwritten by an older "absent".
+        runAfterCommit(() -> byContactNumber.asMap().putIfAbsent(contactNumber, loaded));
+        return loaded;
+    }
+
+    /**
+     * Caches a newly created customer once its transaction commits, replacing any "absent" entry.
+     */
+    public void customerCreated(Customer customer) {
+        CustomerSnapshot snapshot = CustomerSnapshot.of(customer);
+        runAfterCommit(() -> byContactNumber.put(snapshot.contactNumber(), Optional.of(snapshot)));
+    }
+
+    private static void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Found customers live for the TTL, unknown numbers only for the negative TTL.
+     */
+    private record PresenceBasedExpiry(long ttlNanos, long negativeTtlNanos)
+            implements Expiry<String, Optional<CustomerSnapshot>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<CustomerSnapshot> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<CustomerSnapshot> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<CustomerSnapshot> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
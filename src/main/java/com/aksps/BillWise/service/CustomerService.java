@@ -2,22 +2,25 @@ package com.aksps.BillWise.service;
 
 import com.aksps.BillWise.dto.request.CustomerRequest;
 import com.aksps.BillWise.dto.response.CustomerResponse;
+import com.aksps.BillWise.dto.response.KeysetPage;
 import com.aksps.BillWise.model.Customer;
 import com.aksps.BillWise.repository.CustomerRepository;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 @Service
 public class CustomerService {
 
     private final CustomerRepository customerRepository;
+    private final CustomerLookupCache customerLookupCache;
 
-    public CustomerService(CustomerRepository customerRepository) {
+    public CustomerService(CustomerRepository customerRepository, CustomerLookupCache customerLookupCache) {
         this.customerRepository = customerRepository;
+        this.customerLookupCache = customerLookupCache;
     }
 
     private CustomerResponse mapToResponse(Customer customer) {
@@ -32,11 +35,18 @@ public class CustomerService {
 
     /**
      * Fetches a customer by their contact number for automatic pre-filling at checkout.
-     * This is the "extraordinary" lookup feature.
+     * This is the "extraordinary" lookup feature. Served from the lookup cache, including
+     * recently looked-up numbers that do not exist.
      */
     public Optional<CustomerResponse> getCustomerByContactNumber(String contactNumber) {
-        return customerRepository.findByContactNumber(contactNumber)
-                .map(this::mapToResponse);
+        return customerLookupCache.findByContactNumber(contactNumber)
+                .map(customer -> new CustomerResponse(
+                        customer.id(),
+                        customer.name(),
+                        customer.contactNumber(),
+                        customer.email(),
+                        customer.gstNumber()
+                ));
     }
 
     @Transactional
@@ -53,12 +63,19 @@ public class CustomerService {
         customer.setGstNumber(request.getGstNumber());
 
         Customer savedCustomer = customerRepository.save(customer);
+        customerLookupCache.customerCreated(savedCustomer);
         return mapToResponse(savedCustomer);
     }
 
-    public List<CustomerResponse> getAllCustomers() {
-        return customerRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    /**
+     * Fetches one page of customers in id order, optionally filtered by a case-insensitive name prefix.
+     *
+     * @param afterId Cursor from the previous page, or null for the first page.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<CustomerResponse> getCustomersPage(Long afterId, int limit, String namePrefix) {
+        List<CustomerResponse> rows = customerRepository.findPageAfter(afterId != null ? afterId : 0L,
+                QueryPatterns.startsWith(namePrefix), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, CustomerResponse::getId, row -> row);
     }
 }
@@ -0,0 +1,22 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.Customer;
+
+/**
+ * Immutable copy of a customer row, as held by the customer lookup cache.
+ */
+public record CustomerSnapshot(Long id, String name, String contactNumber, String email, String gstNumber) {
+
+    public static CustomerSnapshot of(Customer customer) {
+        return new CustomerSnapshot(customer.getId(), customer.getName(), customer.getContactNumber(),
+                customer.getEmail(), customer.getGstNumber());
+    }
+
+    /**
+     * A detached Customer carrying this snapshot's id and details. Enough to link an invoice to
+     * the customer (only the id is written) without loading the row again.
+     */
+    public Customer toDetachedCustomer() {
+        return new Customer(id, name, contactNumber, email, gstNumber);
+    }
+}
@@ -0,0 +1,306 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.ForecastMethod;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Exponential smoothing forecasts for weekly demand, on plain double arrays.
+ * <p>
+ * The model is picked per series: Croston (with the Syntetos-Boylan bias correction) when demand is
+ * intermittent, additive Holt-Winters with a damped trend when there are two full seasons of history,
+ * Holt's damped trend when there are fewer, and simple exponential smoothing for a handful of points.
+ * Weeks before the first sale are ignored, so a new product is not mistaken for a slow one. Smoothing
+ * parameters are chosen per series from a small grid by one-step-ahead squared error.
+ * <p>
+ * Instances are immutable and safe to share between threads.
+ */
+final class DemandForecaster {
+
+    // Average weeks between sales above which demand counts as intermittent (Syntetos-Boylan)
+    static final double INTERMITTENT_INTERVAL = 1.32;
+
+    // Trend damping, so a trend flattens out over the horizon instead of running away
+    private static final double PHI = 0.98;
+
+    private static final double[] ALPHAS = {0.05, 0.1, 0.2, 0.3, 0.5, 0.7};
+    private static final double[] BETAS = {0.01, 0.05, 0.15};
+    private static final double[] GAMMAS = {0.05, 0.15, 0.3};
+    private static final double[] CROSTON_ALPHAS = {0.05, 0.1, 0.2, 0.3};
+
+    // Series per fork-join task; each takes well under a millisecond
+    private static final int BATCH_THRESHOLD = 64;
+
+    /**
+     * Forecast units for each week of the horizon, never negative.
+     */
+    record Forecast(ForecastMethod method, double[] values) { }
+
+    private final int seasonLength;
+
+    DemandForecaster(int seasonLength) {
+        if (seasonLength < 2) {
+            throw new IllegalArgumentException("Season length must be at least 2 periods.");
+        }
+        this.seasonLength = seasonLength;
+    }
+
+    /**
+     * Forecasts the periods following the history, oldest first in the array.
+     */
+    Forecast forecast(double[] history, int horizon) {
+        int to = history.length;
+        int from = 0;
+        while (from < to && history[from] <= 0) {
+            from++;
+        }
+        double[] out = new double[horizon];
+        if (from == to) {
+            return new Forecast(ForecastMethod.NO_SALES, out);
+        }
+
+        int demands = 0;
+        for (int t = from; t < to; t++) {
+            if (history[t] > 0) {
+                demands++;
+            }
+        }
+        double meanInterval = (double) (to - from) / demands;
+
+        if (meanInterval > INTERMITTENT_INTERVAL) {
+            double best = bestCroston(history, from, to, meanInterval);
+            croston(history, from, to, meanInterval, best, out);
+            return new Forecast(ForecastMethod.CROSTON, out);
+        }
+        if (to - from >= 2 * seasonLength) {
+            double[] best = bestHoltWinters(history, from, to);
+            holtWinters(history, from, to, best[0], best[1], best[2], out);
+            return new Forecast(ForecastMethod.HOLT_WINTERS, out);
+        }
+        if (to - from >= 4) {
+            double[] best = bestHolt(history, from, to);
+            holt(history, from, to, best[0], best[1], out);
+            return new Forecast(ForecastMethod.HOLT, out);
+        }
+        double best = bestSes(history, from, to);
+        ses(history, from, to, best, out);
+        return new Forecast(ForecastMethod.SES, out);
+    }
+
+    /**
+     * Forecasts every series on the pool, writing forecasts[i] for histories[i].
+     */
+    void forecastAll(double[][] histories, int horizon, Forecast[] forecasts, ForkJoinPool pool) {
+        pool.invoke(new Batch(histories, horizon, forecasts, 0, histories.length));
+    }
+
+    private final class Batch extends RecursiveAction {
+
+        private final double[][] histories;
+        private final int horizon;
+        private final Forecast[] forecasts;
+        private final int from;
+        private final int to;
+
+        Batch(double[][] histories, int horizon, Forecast[] forecasts, int from, int to) {
+            this.histories = histories;
+            this.horizon = horizon;
+            this.forecasts = forecasts;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= BATCH_THRESHOLD) {
+                for (int i = from; i < to; i++) {
+                    forecasts[i] = forecast(histories[i], horizon);
+                }
+                return;
+            }
+            int middle = (from + to) >>> 1;
+            invokeAll(new Batch(histories, horizon, forecasts, from, middle),
+                    new Batch(histories, horizon, forecasts, middle, to));
+        }
+    }
+
+    // --- Parameter search: one-step-ahead squared error over the history ---
+
+    private static double bestSes(double[] y, int from, int to) {
+        double bestAlpha = ALPHAS[0];
+        double bestError = Double.MAX_VALUE;
+        for (double alpha : ALPHAS) {
+            double error = ses(y, from, to, alpha, null);
+            if (error < bestError) {
+                bestError = error;
+                bestAlpha = alpha;
+            }
+        }
+        return bestAlpha;
+    }
+
+    private static double[] bestHolt(double[] y, int from, int to) {
+        double[] best = {ALPHAS[0], BETAS[0]};
+        double bestError = Double.MAX_VALUE;
+        for (double alpha : ALPHAS) {
+            for (double beta : BETAS) {
+                double error = holt(y, from, to, alpha, beta, null);
+                if (error < bestError) {
+                    bestError = error;
+                    best[0] = alpha;
+                    best[1] = beta;
+                }
+            }
+        }
+        return best;
+    }
+
+    private double[] bestHoltWinters(double[] y, int from, int to) {
+        double[] best = {ALPHAS[0], BETAS[0], GAMMAS[0]};
+        double bestError = Double.MAX_VALUE;
+        double[] seasonal = new double[seasonLength];
+        for (double alpha : ALPHAS) {
+            for (double beta : BETAS) {
+                for (double gamma : GAMMAS) {
+                    // Outside 0 <= gamma <= 1 - alpha the seasonal update is not a proper smoothing
+                    if (gamma > 1 - alpha) {
+                        continue;
+                    }
+                    double error = holtWinters(y, from, to, alpha, beta, gamma, seasonal, null);
+                    if (error < bestError) {
+                        bestError = error;
+                        best[0] = alpha;
+                        best[1] = beta;
+                        best[2] = gamma;
+                    }
+                }
+            }
+        }
+        return best;
+    }
+
+    private static double bestCroston(double[] y, int from, int to, double meanInterval) {
+        double bestAlpha = CROSTON_ALPHAS[0];
+        double bestError = Double.MAX_VALUE;
+        for (double alpha : CROSTON_ALPHAS) {
+            double error = croston(y, from, to, meanInterval, alpha, null);
+            if (error < bestError) {
+                bestError = error;
+                bestAlpha = alpha;
+            }
+        }
+        return bestAlpha;
+    }
+
+    // --- Models: each returns its squared error and, given an output array, fills the forecast ---
+
+    private static double ses(double[] y, int from, int to, double alpha, double[] out) {
+        double level = y[from];
+        double error = 0;
+        for (int t = from + 1; t < to; t++) {
+            double e = y[t] - level;
+            error += e * e;
+            level += alpha * e;
+        }
+        if (out != null) {
+            Arrays.fill(out, Math.max(0, level));
+        }
+        return error;
+    }
+
+    private static double holt(double[] y, int from, int to, double alpha, double beta, double[] out) {
+        double level = y[from];
+        double trend = y[from + 1] - y[from];
+        double error = 0;
+        for (int t = from + 1; t < to; t++) {
+            double fitted = level + PHI * trend;
+            double e = y[t] - fitted;
+            error += e * e;
+            level = fitted + alpha * e;
+            trend = PHI * trend + alpha * beta * e;
+        }
+        if (out != null) {
+            double damping = 0;
+            double phi = 1;
+            for (int k = 0; k < out.length; k++) {
+                phi *= PHI;
+                damping += phi;
+                out[k] = Math.max(0, level + damping * trend);
+            }
+        }
+        return error;
+    }
+
+    private void holtWinters(double[] y, int from, int to, double alpha, double beta, double gamma, double[] out) {
+        holtWinters(y, from, to, alpha, beta, gamma, new double[seasonLength], out);
+    }
+
+    // Initialised from the first two seasons; the fit and its error start with the second
+    private double holtWinters(double[] y, int from, int to, double alpha, double beta, double gamma,
+                               double[] seasonal, double[] out) {
+        int m = seasonLength;
+        double firstMean = 0;
+        double secondMean = 0;
+        for (int i = 0; i < m; i++) {
+            firstMean += y[from + i];
+            secondMean += y[from + m + i];
+        }
+        firstMean /= m;
+        secondMean /= m;
+        for (int i = 0; i < m; i++) {
+            seasonal[i] = y[from + i] - firstMean;
+        }
+        double level = firstMean;
+        double trend = (secondMean - firstMean) / m;
+
+        double error = 0;
+        int season = 0;
+        for (int t = from + m; t < to; t++) {
+            double fitted = level + PHI * trend + seasonal[season];
+            double e = y[t] - fitted;
+            error += e * e;
+            level = level + PHI * trend + alpha * e;
+            trend = PHI * trend + alpha * beta * e;
+            seasonal[season] += gamma * e;
+            if (++season == m) {
+                season = 0;
+            }
+        }
+        if (out != null) {
+            double damping = 0;
+            double phi = 1;
+            for (int k = 0; k < out.length; k++) {
+                phi *= PHI;
+                damping += phi;
+                out[k] = Math.max(0, level + damping * trend + seasonal[(season + k) % m]);
+            }
+        }
+        return error;
+    }
+
+    // Smooths demand size and the interval between demands separately, updating both only on demand
+    private static double croston(double[] y, int from, int to, double meanInterval, double alpha, double[] out) {
+        double size = y[from];
+        double interval = meanInterval;
+        int sinceDemand = 1;
+        double bias = 1 - alpha / 2;
+        double error = 0;
+        for (int t = from + 1; t < to; t++) {
+            double e = y[t] - bias * size / interval;
+            error += e * e;
+            if (y[t] > 0) {
+                size += alpha * (y[t] - size);
+                interval += alpha * (sinceDemand - interval);
+                sinceDemand = 1;
+            } else {
+                sinceDemand++;
+            }
+        }
+        if (out != null) {
+            Arrays.fill(out, bias * size / interval);
+        }
+        return error;
+    }
+}
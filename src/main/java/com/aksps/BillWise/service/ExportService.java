@@ -0,0 +1,299 @@
+package com.aksps.BillWise.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Streams the catalog, customers and invoices to an OutputStream as NDJSON or CSV.
+ * Rows are read with a forward-only JDBC cursor and written as they arrive; no entities are
+ * created and no result list is built, so heap use is the same for a hundred rows or ten million.
+ */
+@Service
+public class ExportService {
+
+    public enum Format {
+        NDJSON, CSV;
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported export format '" + value + "'. Use ndjson or csv.");
+            }
+        }
+    }
+
+    private static final String PRODUCTS_SQL = """
+            SELECT id, sku, name, unit_type, base_unit, selling_price_per_base_unit,
+                   current_stock, min_stock_level, hsn_code
+            FROM products
+            ORDER BY id
+            """;
+    private static final List<String> PRODUCT_COLUMNS = List.of(
+            "id", "sku", "name", "unitType", "baseUnit", "sellingPricePerBaseUnit",
+            "currentStock", "minStockLevel", "hsnCode");
+
+    private static final String CUSTOMERS_SQL = """
+            SELECT id, name, contact_number, email, gst_number
+            FROM customers
+            ORDER BY id
+            """;
+    private static final List<String> CUSTOMER_COLUMNS = List.of(
+            "id", "name", "contactNumber", "email", "gstNumber");
+
+    // One pass over invoices and their items; rows of an invoice arrive together thanks to the ordering.
+    // Outer joins keep invoices without items (one row, item columns null) and items whose product is gone.
+    // The trailing item id is not exported; it tells an empty invoice's row from a real item.
+    private static final String INVOICES_SQL = """
+            SELECT i.id, i.invoice_number, i.invoice_date, c.name, c.contact_number,
+                   i.sub_total, i.total_discount, i.total_tax, i.grand_total,
+                   p.sku, p.name, ii.quantity_sold, ii.unit_price_at_sale, ii.item_discount, ii.line_tax, ii.line_total,
+                   ii.id
+            FROM invoices i
+            LEFT JOIN customers c ON c.id = i.customer_id
+            LEFT JOIN invoice_items ii ON ii.invoice_id = i.id
+            LEFT JOIN products p ON p.id = ii.product_id
+            ORDER BY i.id, ii.id
+            """;
+    private static final List<String> INVOICE_COLUMNS = List.of(
+            "id", "invoiceNumber", "invoiceDate", "customerName", "customerContactNumber",
+            "subTotal", "totalDiscount", "totalTax", "grandTotal");
+    private static final List<String> INVOICE_ITEM_COLUMNS = List.of(
+            "productSku", "productName", "quantitySold", "unitPriceAtSale", "itemDiscount", "lineTax", "lineTotal");
+    private static final int INVOICE_ITEM_ID_INDEX = INVOICE_COLUMNS.size() + INVOICE_ITEM_COLUMNS.size() + 1;
+
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ObjectMapper objectMapper;
+
+    public ExportService(DataSource dataSource, PlatformTransactionManager transactionManager, ObjectMapper objectMapper,
+                         @Value("${billwise.export.fetch-size:1000}") int fetchSize) {
+        // PostgreSQL only streams with a fetch size when autocommit is off, hence the (read-only) transaction
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(fetchSize);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.objectMapper = objectMapper;
+    }
+
+    public void exportProducts(Format format, OutputStream out) {
+        exportFlat(PRODUCTS_SQL, PRODUCT_COLUMNS, format, out);
+    }
+
+    public void exportCustomers(Format format, OutputStream out) {
+        exportFlat(CUSTOMERS_SQL, CUSTOMER_COLUMNS, format, out);
+    }
+
+    /**
+     * Exports invoices with their line items. NDJSON writes one invoice per line with an "items" array;
+     * CSV writes one row per line item, repeating the invoice columns. An invoice without items is still
+     * exported: with an empty "items" array, or as one CSV row with empty item columns.
+     */
+    public void exportInvoices(Format format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                if (format == Format.CSV) {
+                    try (CsvWriter csv = new CsvWriter(out)) {
+                        csv.writeHeader(INVOICE_COLUMNS, INVOICE_ITEM_COLUMNS);
+                        cursorTemplate.query(INVOICES_SQL, rs -> csv.writeRow(rs, INVOICE_COLUMNS.size() + INVOICE_ITEM_COLUMNS.size()));
+                    }
+                } else {
+                    try (JsonGenerator json = newGenerator(out)) {
+                        InvoiceGrouper grouper = new InvoiceGrouper(json);
+                        cursorTemplate.query(INVOICES_SQL, grouper::writeRow);
+                        grouper.finish();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private void exportFlat(String sql, List<String> columns, Format format, OutputStream out) {
+        readOnlyTransaction.executeWithoutResult(status -> {
+            try {
+                if (format == Format.CSV) {
+                    try (CsvWriter csv = new CsvWriter(out)) {
+                        csv.writeHeader(columns, List.of());
+                        cursorTemplate.query(sql, rs -> csv.writeRow(rs, columns.size()));
+                    }
+                } else {
+                    try (JsonGenerator json = newGenerator(out)) {
+                        cursorTemplate.query(sql, rs -> {
+                            writeJson(() -> {
+                                json.writeStartObject();
+                                writeFields(json, rs, columns, 1);
+                                json.writeEndObject();
+                                json.writeRaw('\n');
+                            });
+                        });
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private JsonGenerator newGenerator(OutputStream out) throws IOException {
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // NDJSON: each value is followed by a newline we write ourselves, not separated by a space
+        generator.setRootValueSeparator(null);
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        return generator;
+    }
+
+    /**
+     * Writes the columns starting at firstIndex (1-based) as fields of the current JSON object.
+     */
+    private static void writeFields(JsonGenerator json, ResultSet rs, List<String> names, int firstIndex) throws IOException, SQLException {
+        for (int i = 0; i < names.size(); i++) {
+            json.writeFieldName(names.get(i));
+            Object value = columnValue(rs, firstIndex + i);
+            if (value == null) {
+                json.writeNull();
+            } else if (value instanceof BigDecimal decimal) {
+                json.writeNumber(decimal);
+            } else if (value instanceof Number number) {
+                json.writeNumber(number.longValue());
+            } else {
+                json.writeString(value.toString());
+            }
+        }
+    }
+
+    private static Object columnValue(ResultSet rs, int index) throws SQLException {
+        Object value = rs.getObject(index);
+        if (value instanceof Timestamp timestamp) {
+            return timestamp.toLocalDateTime();
+        }
+        return value;
+    }
+
+    /**
+     * Turns the flat invoice/item rows into one JSON line per invoice. Only the current invoice is open at a time.
+     */
+    private static final class InvoiceGrouper {
+        private final JsonGenerator json;
+        private long currentInvoiceId = -1;
+
+        private InvoiceGrouper(JsonGenerator json) {
+            this.json = json;
+        }
+
+        void writeRow(ResultSet rs) throws SQLException {
+            long invoiceId = rs.getLong(1);
+            writeJson(() -> {
+                if (invoiceId != currentInvoiceId) {
+                    closeInvoice();
+                    json.writeStartObject();
+                    writeFields(json, rs, INVOICE_COLUMNS, 1);
+                    json.writeArrayFieldStart("items");
+                    currentInvoiceId = invoiceId;
+                }
+                if (rs.getObject(INVOICE_ITEM_ID_INDEX) != null) {
+                    json.writeStartObject();
+                    writeFields(json, rs, INVOICE_ITEM_COLUMNS, INVOICE_COLUMNS.size() + 1);
+                    json.writeEndObject();
+                }
+            });
+        }
+
+        void finish() throws IOException {
+            closeInvoice();
+        }
+
+        private void closeInvoice() throws IOException {
+            if (currentInvoiceId != -1) {
+                json.writeEndArray();
+                json.writeEndObject();
+                json.writeRaw('\n');
+            }
+        }
+    }
+
+    /**
+     * Minimal RFC 4180 writer: fields containing a comma, quote or line break are quoted.
+     */
+    private static final class CsvWriter implements AutoCloseable {
+        private final Writer writer;
+
+        private CsvWriter(OutputStream out) {
+            this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        }
+
+        void writeHeader(List<String> columns, List<String> moreColumns) throws IOException {
+            writer.write(String.join(",", columns));
+            for (String column : moreColumns) {
+                writer.write(',');
+                writer.write(column);
+            }
+            writer.write("\r\n");
+        }
+
+        void writeRow(ResultSet rs, int columnCount) throws SQLException {
+            try {
+                for (int i = 1; i <= columnCount; i++) {
+                    if (i > 1) {
+                        writer.write(',');
+                    }
+                    Object value = columnValue(rs, i);
+                    if (value != null) {
+                        writer.write(escape(value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString()));
+                    }
+                }
+                writer.write("\r\n");
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        private static String escape(String value) {
+            if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+                return value;
+            }
+            return '"' + value.replace("\"", "\"\"") + '"';
+        }
+
+        @Override
+        public void close() throws IOException {
+            // Flushes without closing the response stream underneath
+            writer.flush();
+        }
+    }
+
+    @FunctionalInterface
+    private interface JsonWrite {
+        void write() throws IOException, SQLException;
+    }
+
+    // Row callbacks may only throw SQLException, so write failures (usually a client hang-up) travel unchecked
+    private static void writeJson(JsonWrite write) throws SQLException {
+        try {
+            write.write();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
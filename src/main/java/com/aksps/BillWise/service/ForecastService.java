@@ -0,0 +1,210 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.ForecastResponse;
+import com.aksps.BillWise.dto.response.ForecastWeekResponse;
+import com.aksps.BillWise.model.AggregationWatermark;
+import com.aksps.BillWise.repository.AggregationWatermarkRepository;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import com.aksps.BillWise.service.DemandForecaster.Forecast;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Weekly demand forecasts from the weekly SalesSeries, computed in process by DemandForecaster.
+ * <p>
+ * A single product is forecast on request from its latest history. Every night all products with
+ * sales in the history window are forecast in parallel on a dedicated fork-join pool and the results
+ * replace the sales_forecasts table. History ends with the last week the sales_series aggregation
+ * has fully processed, and never includes the current week, which is still being sold; a week the
+ * aggregation has not caught up with would otherwise read as a slump.
+ */
+@Service
+public class ForecastService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ForecastService.class);
+
+    private static final String HISTORY_SQL = """
+            SELECT period_start, units_sold FROM sales_series
+            WHERE product_id = ? AND granularity = 'WEEK' AND period_start >= ? AND period_start < ?
+            """;
+
+    private static final String ALL_HISTORY_SQL = """
+            SELECT product_id, period_start, units_sold FROM sales_series
+            WHERE granularity = 'WEEK' AND period_start >= ? AND period_start < ?
+            """;
+
+    private static final String INSERT_SQL = """
+            INSERT INTO sales_forecasts (id, product_id, period_start, units, method, generated_at)
+            VALUES (nextval('sales_forecasts_seq'), ?, ?, ?, ?, ?)
+            """;
+
+    // Weekly rows of 50,000 products over three years are several million; read them in slices
+    private static final int FETCH_SIZE = 10_000;
+
+    // Forecast rows per JDBC batch; 50,000 products over an 8 week horizon are 400,000 rows
+    private static final int INSERT_BATCH_SIZE = 1_000;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final AggregationWatermarkRepository watermarkRepository;
+    private final JdbcTemplate cursorTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate readOnlyTransaction;
+    private final ProductCatalogCache productCatalogCache;
+    private final DemandForecaster forecaster;
+    private final ForkJoinPool pool;
+    private final int historyWeeks;
+    private final int horizonWeeks;
+
+    public ForecastService(JdbcTemplate jdbcTemplate, DataSource dataSource, PlatformTransactionManager transactionManager,
+                           ProductCatalogCache productCatalogCache, AggregationWatermarkRepository watermarkRepository,
+                           @Value("${billwise.forecast.history-weeks:156}") int historyWeeks,
+                           @Value("${billwise.forecast.horizon-weeks:8}") int horizonWeeks,
+                           @Value("${billwise.forecast.season-weeks:52}") int seasonWeeks,
+                           @Value("${billwise.forecast.parallelism:0}") int parallelism) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.watermarkRepository = watermarkRepository;
+        // PostgreSQL only streams with a fetch size when autocommit is off, hence the (read-only) transaction
+        this.cursorTemplate = new JdbcTemplate(dataSource);
+        this.cursorTemplate.setFetchSize(FETCH_SIZE);
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.productCatalogCache = productCatalogCache;
+        this.forecaster = new DemandForecaster(seasonWeeks);
+        this.pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+        this.historyWeeks = historyWeeks;
+        this.horizonWeeks = horizonWeeks;
+    }
+
+    /**
+     * Forecasts the weeks following the aggregated history (normally from this week on) for one product.
+     */
+    public ForecastResponse forecast(String sku, int weeks) {
+        ProductSnapshot product = productCatalogCache.getBySkus(List.of(sku)).get(sku);
+        if (product == null) {
+            throw new IllegalArgumentException("Product not found with SKU: " + sku);
+        }
+        LocalDate end = historyEnd();
+        LocalDate start = end.minusWeeks(historyWeeks);
+
+        double[] history = new double[historyWeeks];
+        RowCallbackHandler handler = rs -> history[weekIndex(start, rs.getDate(1))] = rs.getLong(2);
+        jdbcTemplate.query(HISTORY_SQL, handler, product.id(), Date.valueOf(start), Date.valueOf(end));
+
+        Forecast forecast = forecaster.forecast(history, weeks);
+        List<ForecastWeekResponse> forecastWeeks = new ArrayList<>(weeks);
+        for (int k = 0; k < weeks; k++) {
+            forecastWeeks.add(new ForecastWeekResponse(end.plusWeeks(k), Math.round(forecast.values()[k] * 100) / 100.0));
+        }
+        return new ForecastResponse(product.id(), product.sku(), product.name(), forecast.method().name(), forecastWeeks);
+    }
+
+    /**
+     * Forecasts every product sold in the history window and replaces the stored forecasts.
+     */
+    @Scheduled(cron = "${billwise.forecast.cron:0 30 2 * * *}")
+    public void forecastAllProducts() {
+        long started = System.nanoTime();
+        LocalDate end = historyEnd();
+        LocalDate start = end.minusWeeks(historyWeeks);
+
+        Map<Long, double[]> historiesById = new HashMap<>();
+        readOnlyTransaction.executeWithoutResult(status -> cursorTemplate.query(ALL_HISTORY_SQL, (RowCallbackHandler) rs ->
+                historiesById.computeIfAbsent(rs.getLong(1), id -> new double[historyWeeks])[weekIndex(start, rs.getDate(2))] = rs.getLong(3),
+                Date.valueOf(start), Date.valueOf(end)));
+        long loaded = System.nanoTime();
+
+        long[] productIds = new long[historiesById.size()];
+        double[][] histories = new double[historiesById.size()][];
+        int i = 0;
+        for (Map.Entry<Long, double[]> entry : historiesById.entrySet()) {
+            productIds[i] = entry.getKey();
+            histories[i++] = entry.getValue();
+        }
+        historiesById.clear();
+
+        Forecast[] forecasts = new Forecast[productIds.length];
+        forecaster.forecastAll(histories, horizonWeeks, forecasts, pool);
+        long computed = System.nanoTime();
+
+        Timestamp generatedAt = Timestamp.valueOf(LocalDateTime.now());
+        int rows = productIds.length * horizonWeeks;
+        transactionTemplate.executeWithoutResult(status -> {
+            jdbcTemplate.update("DELETE FROM sales_forecasts");
+            for (int from = 0; from < rows; from += INSERT_BATCH_SIZE) {
+                int offset = from;
+                int size = Math.min(INSERT_BATCH_SIZE, rows - from);
+                jdbcTemplate.batchUpdate(INSERT_SQL, new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        int row = offset + i;
+                        int product = row / horizonWeeks;
+                        int week = row % horizonWeeks;
+                        ps.setLong(1, productIds[product]);
+                        ps.setDate(2, Date.valueOf(end.plusWeeks(week)));
+                        ps.setDouble(3, forecasts[product].values()[week]);
+                        ps.setString(4, forecasts[product].method().name());
+                        ps.setTimestamp(5, generatedAt);
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return size;
+                    }
+                });
+            }
+        });
+
+        logger.info("Forecast {} products: loaded in {} ms, computed in {} ms on {} threads, saved in {} ms.",
+                productIds.length, (loaded - started) / 1_000_000, (computed - loaded) / 1_000_000,
+                pool.getParallelism(), (System.nanoTime() - computed) / 1_000_000);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    /**
+     * The Monday ending the history and starting the forecast: the current week's, or earlier when
+     * the sales_series aggregation has not yet processed every week before it.
+     */
+    LocalDate historyEnd() {
+        LocalDate currentWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return watermarkRepository.findById(DataAggregationScheduler.SERIES_WATERMARK)
+                .map(AggregationWatermark::getProcessedUntil)
+                // Weeks before the one the watermark falls in are complete
+                .map(processedUntil -> processedUntil.toLocalDate().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)))
+                .filter(aggregatedWeek -> aggregatedWeek.isBefore(currentWeek))
+                .orElse(currentWeek);
+    }
+
+    private static int weekIndex(LocalDate start, Date weekStart) {
+        return (int) ChronoUnit.WEEKS.between(start, weekStart.toLocalDate());
+    }
+}
@@ -0,0 +1,123 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.InvoiceItemResponse;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.service.ReceiptService.GstLines;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Compact, self-contained HTML receipt (inline CSS, no scripts or images) for browsers and
+ * e-mail. All text from the invoice and the shop settings is HTML-escaped.
+ */
+final class HtmlReceiptTemplate extends ReceiptTemplate {
+
+    private static final String STYLE = "body{font:13px/1.35 monospace;max-width:26em;margin:0 auto;padding:4px}"
+            + "h1{font-size:15px;margin:0}h1,.c{text-align:center}p{margin:0}hr{border:0;border-top:1px dashed #000}"
+            + "table{width:100%;border-collapse:collapse}td,th{padding:0 2px;text-align:left}"
+            + "td+td,th+th{text-align:right}.t td{font-weight:bold}";
+
+    private static final byte[] DATE = ascii("<br>Date: ");
+    private static final byte[] CUSTOMER = ascii("<br>Customer: ");
+    private static final byte[] ITEMS = ascii("</p><hr><table><tr><th>Item</th><th>Qty</th><th>Rate</th><th>Amount</th></tr>");
+    private static final byte[] ROW = ascii("<tr><td>");
+    private static final byte[] CELL = ascii("</td><td>");
+    private static final byte[] ROW_END = ascii("</td></tr>");
+    private static final byte[] ITEM_DISCOUNT_ROW = ascii("<tr><td colspan=\"3\">&nbsp;&nbsp;Discount</td><td>");
+    private static final byte[] TOTALS = ascii("</table><hr><table>");
+    private static final byte[] SUBTOTAL_ROW = ascii("<tr><td>Subtotal</td><td>");
+    private static final byte[] DISCOUNT_ROW = ascii("<tr><td>Discount</td><td>");
+    private static final byte[] TOTAL_ROW = ascii("<tr class=\"t\"><td>TOTAL</td><td>");
+    private static final byte[] RATE_SEPARATOR = ascii(" @ ");
+
+    private final byte[] header;
+    private final byte[] footer;
+
+    HtmlReceiptTemplate(Shop shop, GstLines gstLines) {
+        super(gstLines, ReceiptWriter.Encoding.HTML);
+        this.header = compile(ReceiptWriter.Encoding.HTML, out -> {
+            out.raw(ascii("<!DOCTYPE html><html><head><meta charset=\"utf-8\">"
+                    + "<meta name=\"viewport\" content=\"width=device-width\"><title>Receipt</title><style>"
+                    + STYLE + "</style></head><body><h1>"));
+            out.text(shop.name());
+            out.raw(ascii("</h1>"));
+            for (String line : shop.headerLines()) {
+                paragraph(out, line);
+            }
+            if (!shop.gstin().isBlank()) {
+                paragraph(out, "GSTIN: " + shop.gstin());
+            }
+            out.raw(ascii("<hr><p>Invoice: "));
+        });
+        this.footer = compile(ReceiptWriter.Encoding.HTML, out -> {
+            out.raw(ascii("</table><hr>"));
+            for (String line : shop.footerLines()) {
+                paragraph(out, line);
+            }
+            out.raw(ascii("</body></html>"));
+        });
+    }
+
+    @Override
+    protected void write(InvoiceResponse invoice, ReceiptWriter out) throws IOException {
+        out.raw(header);
+        out.text(invoice.getInvoiceNumber());
+        out.raw(DATE);
+        out.dateTime(invoice.getInvoiceDate());
+        if (invoice.getCustomerContactNumber() != null) {
+            out.raw(CUSTOMER);
+            out.text(invoice.getCustomerName());
+            out.raw(' ');
+            out.text(invoice.getCustomerContactNumber());
+        }
+
+        out.raw(ITEMS);
+        for (InvoiceItemResponse item : invoice.getItems()) {
+            out.raw(ROW);
+            out.text(item.getProductName());
+            out.raw(CELL);
+            out.number(item.getQuantitySold(), 0);
+            out.raw(CELL);
+            out.decimal(item.getUnitPriceAtSale(), 2, 0);
+            out.raw(CELL);
+            out.decimal(item.getLineTotal(), 2, 0);
+            out.raw(ROW_END);
+            if (isPositive(item.getItemDiscount())) {
+                amountRow(out, ITEM_DISCOUNT_ROW, item.getItemDiscount().negate());
+            }
+        }
+
+        out.raw(TOTALS);
+        amountRow(out, SUBTOTAL_ROW, invoice.getSubTotal());
+        if (isPositive(invoice.getTotalDiscount())) {
+            amountRow(out, DISCOUNT_ROW, invoice.getTotalDiscount().negate());
+        }
+        taxLines(invoice, (label, rateBasisPoints, amount) -> {
+            out.raw(ROW);
+            out.raw(label);
+            if (rateBasisPoints >= 0) {
+                out.raw(RATE_SEPARATOR);
+                out.decimal(rateBasisPoints, 2, 0, 0);
+                out.raw('%');
+            }
+            out.raw(CELL);
+            out.decimal(amount, 2, 0);
+            out.raw(ROW_END);
+        });
+        amountRow(out, TOTAL_ROW, invoice.getGrandTotal());
+        out.raw(footer);
+    }
+
+    private static void amountRow(ReceiptWriter out, byte[] rowStart, BigDecimal amount) throws IOException {
+        out.raw(rowStart);
+        out.decimal(amount, 2, 0);
+        out.raw(ROW_END);
+    }
+
+    private static void paragraph(ReceiptWriter out, String text) throws IOException {
+        out.raw(ascii("<p class=\"c\">"));
+        out.text(text);
+        out.raw(ascii("</p>"));
+    }
+}
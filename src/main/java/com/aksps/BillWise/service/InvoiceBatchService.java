@@ -0,0 +1,134 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.dto.response.InvoiceBatchResult;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.model.Customer;
+import com.aksps.BillWise.repository.CustomerRepository;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Replays a backlog of sales queued by offline POS terminals.
+ * Products and customers are resolved once per chunk instead of once per invoice,
+ * while every invoice still commits (or rolls back) in its own transaction so that
+ * one failed sale never undoes the stock deductions of the others.
+ */
+@Service
+public class InvoiceBatchService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceBatchService.class);
+
+    private final InvoiceService invoiceService;
+    private final CustomerRepository customerRepository;
+    private final TransactionTemplate invoiceTransaction;
+    private final int chunkSize;
+
+    public InvoiceBatchService(InvoiceService invoiceService, CustomerRepository customerRepository,
+                               PlatformTransactionManager transactionManager,
+                               @Value("${billwise.invoice.batch.chunk-size:200}") int chunkSize) {
+        this.invoiceService = invoiceService;
+        this.customerRepository = customerRepository;
+        this.invoiceTransaction = new TransactionTemplate(transactionManager);
+        this.chunkSize = Math.max(1, chunkSize);
+    }
+
+    /**
+     * Creates all invoices of the batch and reports a result per invoice, in submission order.
+     */
+    public List<InvoiceBatchResult> createInvoices(List<InvoiceRequest> requests) {
+        List<InvoiceBatchResult> results = new ArrayList<>(requests.size());
+
+        for (int from = 0; from < requests.size(); from += chunkSize) {
+            List<InvoiceRequest> chunk = requests.subList(from, Math.min(requests.size(), from + chunkSize));
+
+            // --- Resolve everything the chunk needs with one query per table ---
+            Map<String, ProductSnapshot> productsBySku = invoiceService.resolveProducts(skusOf(chunk));
+            Map<String, Customer> customersByContact = resolveCustomers(chunk);
+
+            for (int i = 0; i < chunk.size(); i++) {
+                results.add(createOne(from + i, chunk.get(i), productsBySku, customersByContact));
+            }
+        }
+
+        long failed = results.stream().filter(result -> result.getInvoice() == null).count();
+        logger.info("Bulk invoice ingestion complete. Invoices: {}, failed: {}", results.size(), failed);
+        return results;
+    }
+
+    /**
+     * Runs a single invoice in its own transaction and converts failures into a result entry.
+     */
+    private InvoiceBatchResult createOne(int index, InvoiceRequest request,
+                                         Map<String, ProductSnapshot> productsBySku, Map<String, Customer> customersByContact) {
+        String contact = request.getCustomerContactNumber();
+        Customer known = contact != null ? customersByContact.get(contact) : null;
+
+        try {
+            Created created = invoiceTransaction.execute(status -> {
+                // Unknown (or anonymous) customer: same lookup-or-create as the single endpoint
+                Customer customer = known != null ? known : invoiceService.handleCustomer(contact, request.getCustomerName());
+                return new Created(invoiceService.createInvoice(request, productsBySku, customer), customer);
+            });
+
+            // Only remember customers created by this invoice once its transaction has committed
+            if (created.customer() != null) {
+                customersByContact.putIfAbsent(contact, created.customer());
+            }
+            return new InvoiceBatchResult(index, 201, created.response(), null);
+        } catch (IllegalArgumentException e) {
+            return new InvoiceBatchResult(index, 400, null, "Error in Request: " + e.getMessage());
+        } catch (IllegalStateException e) {
+            return new InvoiceBatchResult(index, 409, null, "Transaction Failed: " + e.getMessage());
+        } catch (RuntimeException e) {
+            logger.error("Invoice {} of bulk ingestion failed", index, e);
+            return new InvoiceBatchResult(index, 500, null, "System Error during Invoice Creation: " + e.getMessage());
+        }
+    }
+
+    private Set<String> skusOf(List<InvoiceRequest> chunk) {
+        Set<String> skus = new HashSet<>();
+        for (InvoiceRequest request : chunk) {
+            for (InvoiceItemRequest item : request.getItems()) {
+                skus.add(item.getProductSku());
+            }
+        }
+        return skus;
+    }
+
+    private Map<String, Customer> resolveCustomers(List<InvoiceRequest> chunk) {
+        Set<String> contacts = new HashSet<>();
+        for (InvoiceRequest request : chunk) {
+            String contact = request.getCustomerContactNumber();
+            if (contact != null && !contact.trim().isEmpty()) {
+                contacts.add(contact);
+            }
+        }
+
+        Map<String, Customer> customersByContact = new HashMap<>();
+        if (!contacts.isEmpty()) {
+            for (Customer customer : customerRepository.findByContactNumberIn(contacts)) {
+                customersByContact.put(customer.getContactNumber(), customer);
+            }
+        }
+        return customersByContact;
+    }
+
+    /**
+     * A committed invoice and the customer it was billed to.
+     */
+    private record Created(InvoiceResponse response, Customer customer) { }
+}
@@ -0,0 +1,202 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.model.IdempotencyKey;
+import com.aksps.BillWise.model.IdempotencyKeyId;
+import com.aksps.BillWise.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Makes invoice creation safe to retry over flaky POS networks.
+ * A request carrying an Idempotency-Key is executed at most once: the first successful
+ * response is stored in the idempotency_keys table (in the same transaction as the invoice)
+ * and kept in a bounded in-memory LRU, and every retry is answered from there without
+ * touching products or stock. Concurrent requests with the same key share one execution.
+ * <p>
+ * Keys are scoped to the authenticated user, and each is bound to a hash of the request it
+ * first came with: reusing a key for a different request is refused with an
+ * IllegalStateException instead of replaying an unrelated invoice.
+ */
+@Service
+public class InvoiceIdempotencyService {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceIdempotencyService.class);
+
+    private final InvoiceService invoiceService;
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate invoiceTransaction;
+    private final int retentionHours;
+
+    // Fast replay path for recent retries; the table remains the source of truth
+    private final Cache<IdempotencyKeyId, Outcome> recentResponses;
+
+    // Requests currently executing per key, so simultaneous retries wait for the first one
+    private final ConcurrentMap<IdempotencyKeyId, Execution> inFlight = new ConcurrentHashMap<>();
+
+    public InvoiceIdempotencyService(InvoiceService invoiceService, IdempotencyKeyRepository idempotencyKeyRepository,
+                                     ObjectMapper objectMapper, PlatformTransactionManager transactionManager,
+                                     @Value("${billwise.idempotency.cache-size:10000}") long cacheSize,
+                                     @Value("${billwise.idempotency.retention-hours:72}") int retentionHours) {
+        this.invoiceService = invoiceService;
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.objectMapper = objectMapper;
+        this.invoiceTransaction = new TransactionTemplate(transactionManager);
+        this.retentionHours = retentionHours;
+        this.recentResponses = Caffeine.newBuilder()
+                .maximumSize(cacheSize)
+                .build();
+    }
+
+    /**
+     * Creates the invoice once per user and key and replays the original response for every retry.
+     */
+    public InvoiceResponse createInvoice(String principal, String key, InvoiceRequest request) {
+        IdempotencyKeyId id = new IdempotencyKeyId(principal, key);
+        String requestHash = hash(request);
+
+        Outcome recent = recentResponses.getIfPresent(id);
+        if (recent != null) {
+            requireSameRequest(key, recent.requestHash(), requestHash);
+            return recent.response();
+        }
+
+        Execution execution = new Execution(requestHash, new CompletableFuture<>());
+        Execution running = inFlight.putIfAbsent(id, execution);
+        if (running != null) {
+            requireSameRequest(key, running.requestHash(), requestHash);
+            return awaitRunning(running.result());
+        }
+
+        try {
+            InvoiceResponse response = executeOnce(id, requestHash, request);
+            recentResponses.put(id, new Outcome(requestHash, response));
+            execution.result().complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            // Failures are not remembered: the waiting retries see the same error, later ones try again
+            execution.result().completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, execution);
+        }
+    }
+
+    /**
+     * Replays a stored response or creates the invoice and records the key in the same transaction.
+     */
+    private InvoiceResponse executeOnce(IdempotencyKeyId id, String requestHash, InvoiceRequest request) {
+        Optional<IdempotencyKey> stored = idempotencyKeyRepository.findById(id);
+        if (stored.isPresent()) {
+            return replay(stored.get(), requestHash);
+        }
+
+        try {
+            return invoiceTransaction.execute(status -> {
+                InvoiceResponse response = invoiceService.createInvoice(request);
+                idempotencyKeyRepository.saveAndFlush(
+                        new IdempotencyKey(id, requestHash, response.getId(), toJson(response), LocalDateTime.now()));
+                return response;
+            });
+        } catch (DataIntegrityViolationException e) {
+            // Another node committed the same key first; our invoice (and its stock deduction) was rolled back
+            logger.info("Idempotency key {} was completed concurrently on another node; replaying its response.", id.getKey());
+            IdempotencyKey winner = idempotencyKeyRepository.findById(id).orElseThrow(() -> e);
+            return replay(winner, requestHash);
+        }
+    }
+
+    private InvoiceResponse replay(IdempotencyKey stored, String requestHash) {
+        requireSameRequest(stored.getKey().getKey(), stored.getRequestHash(), requestHash);
+        return fromJson(stored.getResponseJson());
+    }
+
+    private static void requireSameRequest(String key, String originalHash, String requestHash) {
+        if (!originalHash.equals(requestHash)) {
+            throw new IllegalStateException("Idempotency-Key '" + key + "' was already used for a different request.");
+        }
+    }
+
+    private InvoiceResponse awaitRunning(CompletableFuture<InvoiceResponse> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            // Surface the original exception so the controller maps it to the same status code
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Removes keys older than the retention window; retries never arrive that late.
+     */
+    @Scheduled(fixedRate = 3600000) // Runs hourly
+    @Transactional
+    public void purgeExpiredKeys() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(LocalDateTime.now().minusHours(retentionHours));
+        if (deleted > 0) {
+            logger.info("Purged {} expired idempotency keys.", deleted);
+        }
+    }
+
+    // Jackson writes the fields in declaration order, so equal requests always hash the same
+    private String hash(InvoiceRequest request) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(request);
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(json));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Failed to hash invoice request for idempotency key.", e);
+        }
+    }
+
+    private String toJson(InvoiceResponse response) {
+        try {
+            return objectMapper.writeValueAsString(response);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to serialise invoice response for idempotency key.", e);
+        }
+    }
+
+    private InvoiceResponse fromJson(String json) {
+        try {
+            return objectMapper.readValue(json, InvoiceResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to read stored invoice response for idempotency key.", e);
+        }
+    }
+
+    /**
+     * A completed request: the response to replay and the hash of the request that produced it.
+     */
+    private record Outcome(String requestHash, InvoiceResponse response) { }
+
+    /**
+     * A request still being executed, which concurrent retries of the same request wait on.
+     */
+    private record Execution(String requestHash, CompletableFuture<InvoiceResponse> result) { }
+}
@@ -0,0 +1,216 @@
+package com.aksps.BillWise.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Hands out invoice numbers of the form {@code INV-<store>-<financial year>-<number>}.
+ * Numbers come from one database sequence per store and financial year. Each call to the
+ * sequence reserves a whole block, so a node serves most numbers from memory and never
+ * competes with other nodes for the same value. Numbers are unique but not gap-free:
+ * the unused part of a block is skipped when the application restarts.
+ * <p>
+ * Blocks are fetched over a dedicated single-connection pool in autocommit mode. A sale asking for a
+ * number already holds a connection from the main pool, so fetching through that pool would need a
+ * second one while every other till waits on the refill lock with theirs; and the sale's own
+ * connection cannot be used, because sequence DDL there would be undone if the sale rolled back.
+ */
+@Service
+public class InvoiceNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(InvoiceNumberAllocator.class);
+
+    private final JdbcTemplate sequenceJdbcTemplate;
+    private final HikariDataSource sequenceDataSource;
+    private final String storeCode;
+    private final int blockSize;
+    private final int financialYearStartMonth;
+
+    // The block currently being handed out; replaced under refillLock when it runs dry
+    private volatile Block currentBlock;
+
+    // Not a synchronized block: the refill does database I/O, which would pin a virtual thread's carrier
+    private final ReentrantLock refillLock = new ReentrantLock();
+
+    // Increment of every sequence this node has created or found; guarded by refillLock
+    private final Map<String, Long> incrementBySequence = new HashMap<>();
+
+    @Autowired
+    public InvoiceNumberAllocator(DataSourceProperties dataSourceProperties,
+                                  @Value("${billwise.invoice.store-code:MAIN}") String storeCode,
+                                  @Value("${billwise.invoice.number-block-size:50}") int blockSize,
+                                  @Value("${billwise.invoice.financial-year-start-month:4}") int financialYearStartMonth) {
+        this(sequenceDataSource(dataSourceProperties), storeCode, blockSize, financialYearStartMonth);
+    }
+
+    InvoiceNumberAllocator(JdbcTemplate sequenceJdbcTemplate, String storeCode, int blockSize, int financialYearStartMonth) {
+        this(sequenceJdbcTemplate, null, storeCode, blockSize, financialYearStartMonth);
+    }
+
+    private InvoiceNumberAllocator(HikariDataSource sequenceDataSource, String storeCode, int blockSize, int financialYearStartMonth) {
+        this(new JdbcTemplate(sequenceDataSource), sequenceDataSource, storeCode, blockSize, financialYearStartMonth);
+    }
+
+    private InvoiceNumberAllocator(JdbcTemplate sequenceJdbcTemplate, HikariDataSource sequenceDataSource,
+                                   String storeCode, int blockSize, int financialYearStartMonth) {
+        if (blockSize < 1) {
+            throw new IllegalArgumentException("Invoice number block size must be at least 1.");
+        }
+        this.sequenceJdbcTemplate = sequenceJdbcTemplate;
+        this.sequenceDataSource = sequenceDataSource;
+        this.storeCode = storeCode.trim().toUpperCase(Locale.ROOT);
+        this.blockSize = blockSize;
+        this.financialYearStartMonth = financialYearStartMonth;
+    }
+
+    // Outside the main pool (and its connection throttle); refills are serialized, so one connection is enough
+    private static HikariDataSource sequenceDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("invoice-numbers");
+        dataSource.setMaximumPoolSize(1);
+        dataSource.setMinimumIdle(0);
+        dataSource.setAutoCommit(true);
+        return dataSource;
+    }
+
+    @PreDestroy
+    public void close() {
+        if (sequenceDataSource != null) {
+            sequenceDataSource.close();
+        }
+    }
+
+    /**
+     * Allocates the next invoice number for today's financial year.
+     */
+    public String nextInvoiceNumber() {
+        String financialYear = financialYearLabel(LocalDate.now());
+        return "INV-" + storeCode + "-" + financialYear + "-" + String.format("%06d", nextNumber(financialYear));
+    }
+
+    /**
+     * Returns the next number of the given financial year series, refilling the block when needed.
+     */
+    long nextNumber(String financialYear) {
+        // Fast path: no locking while the current block still has numbers
+        Block block = currentBlock;
+        if (block != null && block.financialYear.equals(financialYear)) {
+            long number = block.next.getAndIncrement();
+            if (number <= block.last) {
+                return number;
+            }
+        }
+
+        refillLock.lock();
+        try {
+            // Another thread may have refilled the block while we waited for the lock
+            block = currentBlock;
+            if (block != null && block.financialYear.equals(financialYear)) {
+                long number = block.next.getAndIncrement();
+                if (number <= block.last) {
+                    return number;
+                }
+            }
+
+            // Take our number before publishing, so lock-free readers cannot drain the new block first
+            Block freshBlock = fetchBlock(financialYear);
+            long number = freshBlock.next.getAndIncrement();
+            currentBlock = freshBlock;
+            return number;
+        } finally {
+            refillLock.unlock();
+        }
+    }
+
+    /**
+     * Reserves the next block of numbers from the database sequence for the financial year.
+     * Every nextval call owns the range up to the next value, so the block is as long as the
+     * sequence's increment. That is fixed when the sequence is created and may differ from this
+     * node's configured block size (changed settings, or nodes configured differently); the
+     * sequence is never altered, so nodes always agree on the ranges.
+     */
+    private Block fetchBlock(String financialYear) {
+        String sequenceName = sequenceName(financialYear);
+        Long increment = incrementBySequence.get(sequenceName);
+        if (increment == null) {
+            increment = createSequence(sequenceName);
+            incrementBySequence.put(sequenceName, increment);
+        }
+
+        Long first;
+        try {
+            first = sequenceJdbcTemplate.queryForObject("SELECT nextval('" + sequenceName + "')", Long.class);
+        } catch (RuntimeException e) {
+            // E.g. the sequence was dropped with the schema; create it again on the next refill
+            incrementBySequence.remove(sequenceName);
+            throw e;
+        }
+        if (first == null) {
+            throw new IllegalStateException("Invoice number sequence " + sequenceName + " returned no usable value.");
+        }
+
+        logger.debug("Reserved invoice numbers {} to {} from {}", first, first + increment - 1, sequenceName);
+        return new Block(financialYear, first, first + increment - 1);
+    }
+
+    /**
+     * Creates the sequence unless it exists and returns its increment. Runs once per store and financial year.
+     */
+    private long createSequence(String sequenceName) {
+        sequenceJdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + sequenceName
+                + " START WITH 1 INCREMENT BY " + blockSize);
+        Long increment = sequenceJdbcTemplate.queryForObject("SELECT increment_by FROM pg_sequences"
+                + " WHERE schemaname = current_schema() AND sequencename = '" + sequenceName + "'", Long.class);
+        if (increment == null || increment < 1) {
+            throw new IllegalStateException("Invoice number sequence " + sequenceName + " returned no usable value.");
+        }
+        if (increment != blockSize) {
+            logger.warn("Invoice number sequence {} increments by {}, not the configured block size {}; using blocks of {}.",
+                    sequenceName, increment, blockSize, increment);
+        }
+        return increment;
+    }
+
+    /**
+     * Formats the financial year containing the given date as its two two-digit years, e.g. 2526 for FY 2025-26.
+     */
+    String financialYearLabel(LocalDate date) {
+        int startYear = date.getMonthValue() >= financialYearStartMonth ? date.getYear() : date.getYear() - 1;
+        return String.format("%02d%02d", startYear % 100, (startYear + 1) % 100);
+    }
+
+    private String sequenceName(String financialYear) {
+        // Store codes come from configuration; keep only characters that are safe in an identifier
+        String store = storeCode.toLowerCase(Locale.ROOT).replaceAll("[^a-z0-9_]", "_");
+        return "invoice_number_seq_" + store + "_" + financialYear;
+    }
+
+    /**
+     * A contiguous range of reserved numbers for one financial year.
+     */
+    private static final class Block {
+        private final String financialYear;
+        private final AtomicLong next;
+        private final long last;
+
+        private Block(String financialYear, long first, long last) {
+            this.financialYear = financialYear;
+            this.next = new AtomicLong(first);
+            this.last = last;
+        }
+    }
+}
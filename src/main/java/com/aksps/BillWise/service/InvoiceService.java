@@ -8,21 +8,33 @@ import com.aksps.BillWise.dto.request.InvoiceRequest;
 import com.aksps.BillWise.dto.request.CustomerRequest;
 import com.aksps.BillWise.dto.response.InvoiceResponse;
 import com.aksps.BillWise.dto.response.InvoiceItemResponse;
+import com.aksps.BillWise.dto.response.InvoiceSummaryResponse;
+import com.aksps.BillWise.dto.response.KeysetPage;
 import com.aksps.BillWise.model.Customer;
 import com.aksps.BillWise.model.Invoice;
+import com.aksps.BillWise.model.InvoiceCreatedEvent;
 import com.aksps.BillWise.model.InvoiceItem;
-import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.repository.InvoiceLineRow;
 import com.aksps.BillWise.repository.InvoiceRepository;
 import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import com.aksps.BillWise.repository.ProductStockRepository.StockDecrement;
 import com.aksps.BillWise.repository.CustomerRepository;
+import com.aksps.BillWise.service.PricingEngine.InvoiceCalculation;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
 import java.util.stream.Collectors;
 
 /**
@@ -36,16 +48,33 @@ public class InvoiceService {
     private final ProductRepository productRepository;
     private final CustomerService customerService;
     private final CustomerRepository customerRepository;
-
-    // Assuming a simple 18% GST/Tax rate for demonstration
-    private static final double TAX_RATE = 0.18;
+    private final InvoiceNumberAllocator invoiceNumberAllocator;
+    private final PricingEngine pricingEngine;
+    private final PricingRuleService pricingRuleService;
+    private final StockReservationService stockReservationService;
+    private final ProductCatalogCache productCatalogCache;
+    private final CustomerLookupCache customerLookupCache;
+    private final ProductChangeLog productChangeLog;
+    private final ApplicationEventPublisher eventPublisher;
 
     public InvoiceService(InvoiceRepository invoiceRepository, ProductRepository productRepository,
-                          CustomerService customerService, CustomerRepository customerRepository) {
+                          CustomerService customerService, CustomerRepository customerRepository,
+                          InvoiceNumberAllocator invoiceNumberAllocator, PricingEngine pricingEngine,
+                          PricingRuleService pricingRuleService, StockReservationService stockReservationService,
+                          ProductCatalogCache productCatalogCache, CustomerLookupCache customerLookupCache,
+                          ProductChangeLog productChangeLog, ApplicationEventPublisher eventPublisher) {
         this.invoiceRepository = invoiceRepository;
         this.productRepository = productRepository;
         this.customerService = customerService;
         this.customerRepository = customerRepository;
+        this.invoiceNumberAllocator = invoiceNumberAllocator;
+        this.pricingEngine = pricingEngine;
+        this.pricingRuleService = pricingRuleService;
+        this.stockReservationService = stockReservationService;
+        this.productCatalogCache = productCatalogCache;
+        this.customerLookupCache = customerLookupCache;
+        this.productChangeLog = productChangeLog;
+        this.eventPublisher = eventPublisher;
     }
 
     /**
@@ -59,50 +88,82 @@ public class InvoiceService {
         // --- 1. Customer Management: Lookup or Create on Checkout ---
         Customer customer = handleCustomer(request.getCustomerContactNumber(), request.getCustomerName());
 
+        Map<String, ProductSnapshot> productsBySku = resolveProducts(request.getItems().stream()
+                .map(InvoiceItemRequest::getProductSku)
+                .collect(Collectors.toSet()));
+
+        return createInvoice(request, productsBySku, customer);
+    }
+
+    /**
+     * Creates one invoice from products and customer that were already resolved by the caller.
+     * Used by createInvoice and by InvoiceBatchService, which resolves a whole chunk of invoices at once.
+     * Must run inside the caller's transaction.
+     *
+     * @param productsBySku Products indexed by SKU; may contain more products than the request uses.
+     * @param customer The customer to bill, or null for an anonymous sale.
+     */
+    public InvoiceResponse createInvoice(InvoiceRequest request, Map<String, ProductSnapshot> productsBySku, Customer customer) {
         Invoice invoice = new Invoice();
         invoice.setCustomer(customer);
         invoice.setInvoiceDate(LocalDateTime.now());
 
-        // --- 2. Process Items, Check Stock, Deduct Stock, and Calculate Totals ---
-        AtomicReference<Double> subTotalRef = new AtomicReference<>(0.0);
-        List<InvoiceItem> savedItems = processAndSaveItems(invoice, request.getItems(), subTotalRef);
+        // --- 2. Process Items, Reserve Stock, and Calculate Totals ---
+        // The whole-invoice discount percentage is applied per line, before tax
+        InvoiceCalculation calculation = pricingEngine.newInvoice(PricingEngine.toBasisPoints(request.getTotalDiscountPercentage()));
+        // One snapshot of the compiled tax/promotion rules prices the whole basket
+        PricingRuleTable rules = pricingRuleService.currentTable();
+        Map<Long, ProductSnapshot> soldProducts = new HashMap<>();
+        List<InvoiceItem> savedItems = processAndSaveItems(invoice, request.getItems(), productsBySku, soldProducts, rules, calculation);
 
         invoice.setItems(savedItems);
-        invoice.setSubTotal(subTotalRef.get());
 
-        // --- 3. Final Financial Calculation ---
-        // Calculate discount amount based on percentage
-        double totalDiscountRate = request.getTotalDiscountPercentage() != null ? request.getTotalDiscountPercentage() : 0.0;
-        double totalDiscountAmount = invoice.getSubTotal() * (totalDiscountRate / 100.0);
-
-        invoice.setTotalDiscount(totalDiscountAmount);
-
-        double taxableSubtotal = invoice.getSubTotal() - invoice.getTotalDiscount();
-        double totalTax = taxableSubtotal * TAX_RATE;
-        invoice.setTotalTax(totalTax);
-        invoice.setGrandTotal(taxableSubtotal + totalTax);
+        // --- 3. Final Financial Calculation (exact, in paise) ---
+        invoice.setSubTotal(PricingEngine.fromPaise(calculation.getSubTotal()));
+        invoice.setTotalDiscount(PricingEngine.fromPaise(calculation.getTotalDiscount()));
+        invoice.setTotalTax(PricingEngine.fromPaise(calculation.getTotalTax()));
+        invoice.setGrandTotal(PricingEngine.fromPaise(calculation.getGrandTotal()));
 
         // --- 4. Final Persistence ---
-        // Simple sequential number for invoice number
-        String newInvoiceNumber = "INV-" + (invoiceRepository.count() + 1);
-        invoice.setInvoiceNumber(newInvoiceNumber);
-
-        Invoice savedInvoice = invoiceRepository.save(invoice);
-
-        // --- 5. Map and Return Response ---
-        return mapToResponse(savedInvoice);
+        // Sequence-backed number, served from a pre-allocated block in memory
+        invoice.setInvoiceNumber(invoiceNumberAllocator.nextInvoiceNumber());
+
+        // Flush the invoice and its items first, so the stock deduction is the last statement before
+        // commit and the hot product rows stay locked for as short a time as possible
+        Invoice savedInvoice = invoiceRepository.saveAndFlush(invoice);
+
+        // --- 5. Stock Deduction (CRITICAL) ---
+        deductStock(savedItems, soldProducts);
+
+        // Live sales counters pick the sale up once it has committed
+        eventPublisher.publishEvent(InvoiceCreatedEvent.of(savedInvoice));
+
+        // --- 6. Map and Return Response (product details come from the snapshots, not the lazy references) ---
+        return mapToResponse(savedInvoice, savedInvoice.getItems().stream()
+                .map(item -> {
+                    ProductSnapshot product = soldProducts.get(item.getProduct().getId());
+                    return mapToResponse(item, product.name(), product.sku());
+                })
+                .collect(Collectors.toList()));
     }
 
     /**
      * Helper to lookup customer by contact or create a new one if not found.
      * This implements the "auto-save new customer on checkout" feature.
      */
-    private Customer handleCustomer(String contactNumber, String name) {
+    public Customer handleCustomer(String contactNumber, String name) {
         if (contactNumber == null || contactNumber.trim().isEmpty()) {
             return null; // Anonymous sale
         }
 
-        // Use the Repository directly to fetch the entity for transactional linking
+        // Usually already cached by the pre-fill lookup; a detached copy is enough to link the invoice
+        Optional<CustomerSnapshot> cachedCustomer = customerLookupCache.findByContactNumber(contactNumber);
+        if (cachedCustomer.isPresent()) {
+            return cachedCustomer.get().toDetachedCustomer();
+        }
+
+        // Not known to the cache (or cached as absent): confirm with the database before creating,
+        // since the customer may have been added on another node within the negative TTL
         Optional<Customer> existingCustomerEntity = customerRepository.findByContactNumber(contactNumber);
 
         if (existingCustomerEntity.isPresent()) {
@@ -128,63 +189,145 @@ public class InvoiceService {
 
 
     /**
-     * Processes all items in the request: validates stock, deducts inventory, and creates InvoiceItem entities.
+     * Processes all items in the request: validates and reserves stock, and creates InvoiceItem entities.
+     * Duplicate SKUs are merged into a single line. Stock itself is deducted by createInvoice once the
+     * invoice has been written.
+     *
+     * @param soldProducts Filled with the snapshot each line was priced and checked with, by product id.
      */
-    private List<InvoiceItem> processAndSaveItems(Invoice invoice, List<InvoiceItemRequest> itemRequests, AtomicReference<Double> subTotalRef) {
-        List<InvoiceItem> items = new ArrayList<>();
-        double runningSubtotal = 0.0;
-
-        for (InvoiceItemRequest reqItem : itemRequests) {
-            Product product = productRepository.findBySku(reqItem.getProductSku())
-                    .orElseThrow(() -> new IllegalArgumentException("Product not found with SKU: " + reqItem.getProductSku()));
-
-            // --- Inventory Check ---
-            if (product.getCurrentStock() < reqItem.getQuantitySold()) {
-                throw new IllegalStateException("Insufficient stock for product '" + product.getName() + "'. Available: " + product.getCurrentStock());
+    private List<InvoiceItem> processAndSaveItems(Invoice invoice, List<InvoiceItemRequest> itemRequests,
+                                                  Map<String, ProductSnapshot> productsBySku,
+                                                  Map<Long, ProductSnapshot> soldProducts, PricingRuleTable rules,
+                                                  InvoiceCalculation calculation) {
+        Map<String, Integer> quantityBySku = mergeQuantitiesBySku(itemRequests);
+        long saleTime = PricingRuleService.toEpochMillis(invoice.getInvoiceDate());
+
+        List<InvoiceItem> items = new ArrayList<>(quantityBySku.size());
+
+        for (Map.Entry<String, Integer> line : quantityBySku.entrySet()) {
+            ProductSnapshot product = productsBySku.get(line.getKey());
+            if (product == null) {
+                throw new IllegalArgumentException("Product not found with SKU: " + line.getKey());
             }
+            int quantity = line.getValue();
+
+            // --- Inventory Pre-Check (fails fast; the atomic deduction in createInvoice is authoritative) ---
+            // The reservation also counts stock held by other tills' open sales, without touching the product row.
+            // A possibly cached snapshot is only trusted to say yes: a shortfall is re-checked against the database.
+            if (product.currentStock() < quantity || !stockReservationService.tryReserve(product, quantity)) {
+                product = productCatalogCache.refresh(product.id());
+                if (product == null) {
+                    throw new IllegalArgumentException("Product not found with SKU: " + line.getKey());
+                }
+                if (product.currentStock() < quantity) {
+                    throw new IllegalStateException("Insufficient stock for product '" + product.name() + "'. Available: " + product.currentStock());
+                }
+                stockReservationService.reserve(product, quantity);
+            }
+            soldProducts.put(product.id(), product);
 
-            // --- Calculation ---
-            double itemTotal = product.getSellingPricePerBaseUnit() * reqItem.getQuantitySold();
-            runningSubtotal += itemTotal;
-
-            // --- Stock Deduction (CRITICAL) ---
-            product.setCurrentStock(product.getCurrentStock() - reqItem.getQuantitySold());
-            productRepository.save(product); // Save updated stock (part of this transaction)
+            // --- Calculation (rule lookups are plain map reads on the precompiled table) ---
+            long discountBasisPoints = rules.discountBasisPoints(product.id(), saleTime);
+            long taxBasisPoints = rules.taxBasisPoints(product.hsnCode());
+            long lineTotal = calculation.addLine(PricingEngine.toPriceUnits(product.sellingPricePerBaseUnit()),
+                    quantity, discountBasisPoints, taxBasisPoints);
 
             // --- Create Audit Record (InvoiceItem) ---
             InvoiceItem item = new InvoiceItem();
             item.setInvoice(invoice);
-            item.setProduct(product);
-            item.setQuantitySold(reqItem.getQuantitySold());
-            item.setUnitPriceAtSale(product.getSellingPricePerBaseUnit());
-            item.setLineTotal(itemTotal);
-            item.setItemDiscount(0.0);
+            // A reference is enough to write the foreign key; it never loads the product row
+            item.setProduct(productRepository.getReferenceById(product.id()));
+            item.setQuantitySold(quantity);
+            item.setUnitPriceAtSale(product.sellingPricePerBaseUnit());
+            item.setLineTotal(PricingEngine.fromPaise(lineTotal));
+            item.setItemDiscount(PricingEngine.fromPaise(calculation.getLastItemDiscount()));
+            item.setLineDiscount(PricingEngine.fromPaise(calculation.getLastLineDiscount()));
+            item.setTaxRateBasisPoints((int) taxBasisPoints);
+            item.setLineTax(PricingEngine.fromPaise(calculation.getLastLineTax()));
 
             items.add(item);
         }
 
-        subTotalRef.set(runningSubtotal);
         return items;
     }
 
+    /**
+     * Deducts stock for all lines with conditional updates, so a parallel till can never drive stock negative.
+     * A row that was not updated means another sale took the stock after we read it.
+     */
+    private void deductStock(List<InvoiceItem> items, Map<Long, ProductSnapshot> soldProducts) {
+        List<StockDecrement> decrements = items.stream()
+                .map(item -> new StockDecrement(item.getProduct().getId(), item.getQuantitySold()))
+                .collect(Collectors.toList());
+        List<Long> insufficient = productRepository.decrementStockIfAvailable(decrements);
+        if (insufficient.isEmpty()) {
+            // Keep cached stock close to the database without waiting for the entries to expire
+            productCatalogCache.evictSoldProductsAfterCommit(decrements);
+            // Terminals syncing the catalog pick up the new stock levels
+            productChangeLog.record(decrements.stream().map(StockDecrement::productId).toList());
+            return;
+        }
+
+        Long productId = insufficient.get(0);
+        String productName = soldProducts.get(productId).name();
+        throw new IllegalStateException("Insufficient stock for product '" + productName + "'. Stock was sold by another transaction.");
+    }
 
     /**
-     * Maps the final saved Invoice entity to the InvoiceResponse DTO.
+     * Collapses repeated SKUs in a basket into one line, keeping the order in which they were first scanned.
      */
-    private InvoiceResponse mapToResponse(Invoice invoice) {
+    private Map<String, Integer> mergeQuantitiesBySku(List<InvoiceItemRequest> itemRequests) {
+        Map<String, Integer> quantityBySku = new LinkedHashMap<>();
+        for (InvoiceItemRequest reqItem : itemRequests) {
+            quantityBySku.merge(reqItem.getProductSku(), reqItem.getQuantitySold(), Integer::sum);
+        }
+        return quantityBySku;
+    }
+
+    /**
+     * Resolves every SKU of a basket through the catalog cache; misses are loaded in a single query.
+     * Unknown SKUs are simply absent; processAndSaveItems reports them as "Product not found".
+     */
+    public Map<String, ProductSnapshot> resolveProducts(Collection<String> skus) {
+        return productCatalogCache.getBySkus(skus);
+    }
+
+
+    /**
+     * Assembles an InvoiceResponse from the rows of one invoice, as read by the InvoiceRepository line queries.
+     * An invoice without items comes back as a single row with null line columns.
+     */
+    private InvoiceResponse mapToResponse(List<InvoiceLineRow> rows) {
+        InvoiceLineRow header = rows.get(0);
+        List<InvoiceItemResponse> items = new ArrayList<>(rows.size());
+        for (InvoiceLineRow row : rows) {
+            if (row.productSku() != null) {
+                items.add(new InvoiceItemResponse(row.productName(), row.productSku(), row.quantitySold(),
+                        row.unitPriceAtSale(), row.lineTotal(), row.itemDiscount(), row.lineTax(), row.taxRateBasisPoints()));
+            }
+        }
+        return new InvoiceResponse(header.invoiceId(), header.invoiceNumber(), header.invoiceDate(),
+                header.customerName(), header.customerContactNumber(), items,
+                header.subTotal(), header.totalDiscount(), header.totalTax(), header.grandTotal());
+    }
+
+    private InvoiceItemResponse mapToResponse(InvoiceItem item, String productName, String productSku) {
+        return new InvoiceItemResponse(
+                productName,
+                productSku,
+                item.getQuantitySold(),
+                item.getUnitPriceAtSale(),
+                item.getLineTotal(),
+                item.getItemDiscount(),
+                item.getLineTax(),
+                item.getTaxRateBasisPoints()
+        );
+    }
+
+    private InvoiceResponse mapToResponse(Invoice invoice, List<InvoiceItemResponse> itemResponses) {
         String contact = invoice.getCustomer() != null ? invoice.getCustomer().getContactNumber() : null;
         String name = invoice.getCustomer() != null ? invoice.getCustomer().getName() : "Anonymous";
 
-        List<InvoiceItemResponse> itemResponses = invoice.getItems().stream()
-                .map(item -> new InvoiceItemResponse(
-                        item.getProduct().getName(),
-                        item.getProduct().getSku(),
-                        item.getQuantitySold(),
-                        item.getUnitPriceAtSale(),
-                        item.getLineTotal()
-                ))
-                .collect(Collectors.toList());
-
         return new InvoiceResponse(
                 invoice.getId(),
                 invoice.getInvoiceNumber(),
@@ -198,15 +341,44 @@ public class InvoiceService {
                 invoice.getGrandTotal()
         );
     }
+    /**
+     * Reads an invoice with its customer, items and products in a single query, straight into the response.
+     */
+    @Transactional(readOnly = true)
     public InvoiceResponse getInvoiceResponseById(Long id) {
-        Invoice invoice = invoiceRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Invoice not found with ID: " + id));
+        List<InvoiceLineRow> rows = invoiceRepository.findLinesById(id);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Invoice not found with ID: " + id);
+        }
+        return mapToResponse(rows);
+    }
 
-        // Ensure items are loaded before mapping (optional, for safety)
-        if (invoice.getItems() != null && !invoice.getItems().isEmpty()) {
-            invoice.getItems().size();
+    /**
+     * Same as {@link #getInvoiceResponseById}, looked up by the printed invoice number.
+     */
+    @Transactional(readOnly = true)
+    public InvoiceResponse getInvoiceResponseByNumber(String invoiceNumber) {
+        List<InvoiceLineRow> rows = invoiceRepository.findLinesByInvoiceNumber(invoiceNumber);
+        if (rows.isEmpty()) {
+            throw new IllegalArgumentException("Invoice not found with number: " + invoiceNumber);
         }
+        return mapToResponse(rows);
+    }
 
-        return mapToResponse(invoice);
+    /**
+     * Retrieves one page of invoice headers, optionally limited to a date range (both days inclusive)
+     * and to one customer. Rows are projected straight into DTOs; line items are not loaded.
+     */
+    @Transactional(readOnly = true)
+    public KeysetPage<InvoiceSummaryResponse> getInvoicesPage(Long afterId, int limit, LocalDate from, LocalDate to,
+                                                             Long customerId) {
+        if (from != null && to != null && from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'.");
+        }
+        List<InvoiceSummaryResponse> rows = invoiceRepository.findSummariesAfter(afterId != null ? afterId : 0L,
+                from != null ? from.atStartOfDay() : null,
+                to != null ? to.plusDays(1).atStartOfDay() : null,
+                customerId, Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, InvoiceSummaryResponse::getId, row -> row);
     }
 }
\ No newline at end of file
@@ -0,0 +1,218 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.LiveProductSalesResponse;
+import com.aksps.BillWise.dto.response.LiveSalesResponse;
+import com.aksps.BillWise.model.InvoiceCreatedEvent;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-product, per-day sales counted in memory as invoices commit, so today's figures are available
+ * without waiting for the daily aggregation.
+ * <p>
+ * Each counter holds the daily_sales row as last read or written plus what this node sold since, in
+ * LongAdders so concurrent checkouts never contend on one value. A periodic flush adds the unflushed
+ * amounts to daily_sales in one batch and reads today's rows back, which also brings in the sales
+ * of other nodes. On startup today's rows are loaded from the table. Sales counted after the last
+ * flush are lost if the process dies without shutting down; the invoices themselves, and so the
+ * monthly SalesData, are unaffected.
+ */
+@Service
+public class LiveSalesCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(LiveSalesCounters.class);
+
+    private static final String UPSERT_SQL = """
+            INSERT INTO daily_sales (id, product_id, sale_date, units_sold, revenue, invoice_count)
+            VALUES (nextval('daily_sales_seq'), ?, ?, ?, ?, ?)
+            ON CONFLICT (product_id, sale_date) DO UPDATE SET
+                units_sold = daily_sales.units_sold + EXCLUDED.units_sold,
+                revenue = daily_sales.revenue + EXCLUDED.revenue,
+                invoice_count = daily_sales.invoice_count + EXCLUDED.invoice_count
+            """;
+
+    private static final String LOAD_SQL = """
+            SELECT product_id, units_sold, revenue, invoice_count FROM daily_sales WHERE sale_date = ?
+            """;
+
+    private static final int BATCH_SIZE = 500;
+
+    /**
+     * One counter's amounts on a day: what a flush takes from it, or its current totals.
+     */
+    private record Amounts(LocalDate day, Long productId, long units, long revenuePaise, long invoices) { }
+
+    private static final class Counter {
+        // Sold on this node since the last flush
+        final LongAdder units = new LongAdder();
+        final LongAdder revenuePaise = new LongAdder();
+        final LongAdder invoices = new LongAdder();
+        // The daily_sales row as of the last flush or load; only written while holding the flush lock
+        volatile long storedUnits;
+        volatile long storedRevenuePaise;
+        volatile long storedInvoices;
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ProductCatalogCache productCatalogCache;
+
+    private final ConcurrentHashMap<LocalDate, ConcurrentHashMap<Long, Counter>> days = new ConcurrentHashMap<>();
+
+    public LiveSalesCounters(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                             ProductCatalogCache productCatalogCache) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.productCatalogCache = productCatalogCache;
+    }
+
+    // Only committed invoices are counted
+    @TransactionalEventListener
+    public void onInvoiceCreated(InvoiceCreatedEvent event) {
+        LocalDate day = event.invoiceDate().toLocalDate();
+        for (InvoiceCreatedEvent.Line line : event.lines()) {
+            Counter counter = counter(day, line.productId());
+            counter.units.add(line.quantity());
+            counter.revenuePaise.add(PricingEngine.toPaise(line.netAmount()));
+            counter.invoices.increment();
+        }
+    }
+
+    /**
+     * Today's totals and the products with the highest revenue, straight from the counters.
+     */
+    public LiveSalesResponse today(int limit) {
+        if (limit < 1 || limit > 1000) {
+            throw new IllegalArgumentException("limit must be between 1 and 1000.");
+        }
+        LocalDate today = LocalDate.now();
+        Map<Long, Counter> counters = days.getOrDefault(today, new ConcurrentHashMap<>());
+
+        List<Amounts> rows = new ArrayList<>(counters.size());
+        long units = 0;
+        long revenuePaise = 0;
+        for (Map.Entry<Long, Counter> entry : counters.entrySet()) {
+            Counter counter = entry.getValue();
+            Amounts row = new Amounts(today, entry.getKey(), counter.storedUnits + counter.units.sum(),
+                    counter.storedRevenuePaise + counter.revenuePaise.sum(), counter.storedInvoices + counter.invoices.sum());
+            rows.add(row);
+            units += row.units();
+            revenuePaise += row.revenuePaise();
+        }
+
+        List<LiveProductSalesResponse> top = rows.stream()
+                .sorted(Comparator.comparingLong(Amounts::revenuePaise).reversed().thenComparing(Amounts::productId))
+                .limit(limit)
+                .map(row -> {
+                    ProductSnapshot product = productCatalogCache.getById(row.productId()).orElse(null);
+                    return new LiveProductSalesResponse(row.productId(), product != null ? product.sku() : null,
+                            product != null ? product.name() : null, row.units(),
+                            PricingEngine.fromPaise(row.revenuePaise()), row.invoices());
+                })
+                .toList();
+        return new LiveSalesResponse(today, units, PricingEngine.fromPaise(revenuePaise), rows.size(), top);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void loadOnStartup() {
+        load(LocalDate.now());
+    }
+
+    /**
+     * Adds everything counted since the last flush to daily_sales, then refreshes today's counters
+     * from the table. If the write fails, the amounts are put back and go out with the next flush.
+     */
+    @Scheduled(initialDelayString = "${billwise.live-sales.flush-interval-ms:5000}",
+            fixedDelayString = "${billwise.live-sales.flush-interval-ms:5000}")
+    @PreDestroy
+    public synchronized void flush() {
+        List<Amounts> deltas = new ArrayList<>();
+        days.forEach((day, counters) -> counters.forEach((productId, counter) -> {
+            // sumThenReset swaps each cell to zero, so an increment racing with it is either taken or left for next time
+            long units = counter.units.sumThenReset();
+            long revenuePaise = counter.revenuePaise.sumThenReset();
+            long invoices = counter.invoices.sumThenReset();
+            if (units != 0 || revenuePaise != 0 || invoices != 0) {
+                counter.storedUnits += units;
+                counter.storedRevenuePaise += revenuePaise;
+                counter.storedInvoices += invoices;
+                deltas.add(new Amounts(day, productId, units, revenuePaise, invoices));
+            }
+        }));
+
+        if (!deltas.isEmpty()) {
+            try {
+                write(deltas);
+            } catch (RuntimeException e) {
+                for (Amounts delta : deltas) {
+                    Counter counter = counter(delta.day(), delta.productId());
+                    counter.storedUnits -= delta.units();
+                    counter.storedRevenuePaise -= delta.revenuePaise();
+                    counter.storedInvoices -= delta.invoices();
+                    counter.units.add(delta.units());
+                    counter.revenuePaise.add(delta.revenuePaise());
+                    counter.invoices.add(delta.invoices());
+                }
+                logger.warn("Could not flush {} live sales counters; retrying with the next flush.", deltas.size(), e);
+                return;
+            }
+            logger.debug("Flushed {} live sales counters to daily_sales.", deltas.size());
+        }
+
+        LocalDate today = LocalDate.now();
+        load(today);
+        // Invoices are dated when they are created, so nothing more arrives for days before yesterday
+        days.keySet().removeIf(day -> day.isBefore(today.minusDays(1)));
+    }
+
+    private void write(List<Amounts> deltas) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(UPSERT_SQL, deltas, BATCH_SIZE, (ps, delta) -> {
+            ps.setLong(1, delta.productId());
+            ps.setDate(2, Date.valueOf(delta.day()));
+            ps.setLong(3, delta.units());
+            ps.setBigDecimal(4, PricingEngine.fromPaise(delta.revenuePaise()));
+            ps.setLong(5, delta.invoices());
+        }));
+    }
+
+    // Replaces the stored part of each counter for the day with the table row; unflushed sales stay on top
+    private void load(LocalDate day) {
+        RowCallbackHandler handler = rs -> {
+            Counter counter = counter(day, rs.getLong(1));
+            counter.storedUnits = rs.getLong(2);
+            counter.storedRevenuePaise = PricingEngine.toPaise(rs.getBigDecimal(3));
+            counter.storedInvoices = rs.getLong(4);
+        };
+        jdbcTemplate.query(LOAD_SQL, handler, Date.valueOf(day));
+    }
+
+    private Counter counter(LocalDate day, Long productId) {
+        ConcurrentHashMap<Long, Counter> counters = days.get(day);
+        if (counters == null) {
+            counters = days.computeIfAbsent(day, d -> new ConcurrentHashMap<>());
+        }
+        // Plain get first: computeIfAbsent may lock the bin even when the counter exists
+        Counter counter = counters.get(productId);
+        return counter != null ? counter : counters.computeIfAbsent(productId, id -> new Counter());
+    }
+}
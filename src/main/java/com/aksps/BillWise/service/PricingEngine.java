@@ -0,0 +1,206 @@
+package com.aksps.BillWise.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Fixed-point money engine used to price invoices.
+ * All arithmetic runs on primitive longs: unit prices in ten-thousandths of a rupee
+ * (a price per gram is often a fraction of a paisa), totals in paise, and rates in
+ * basis points (1800 = 18%). Every division rounds with an explicit, configurable
+ * rounding mode, so large baskets never drift the way summed doubles do.
+ * BigDecimal is only used at the boundary, to read prices from and write totals to entities.
+ */
+@Service
+public class PricingEngine {
+
+    // Unit prices carry 4 decimals, money totals carry 2 (paise)
+    public static final int PRICE_SCALE = 4;
+    public static final int MONEY_SCALE = 2;
+
+    private static final long PRICE_UNITS_PER_PAISA = 100;
+    private static final long BASIS_POINTS = 10_000;
+
+    private final RoundingMode lineRounding;
+    private final RoundingMode discountRounding;
+    private final RoundingMode taxRounding;
+    private final long defaultTaxBasisPoints;
+
+    public PricingEngine(@Value("${billwise.pricing.line-rounding:HALF_UP}") RoundingMode lineRounding,
+                         @Value("${billwise.pricing.discount-rounding:HALF_UP}") RoundingMode discountRounding,
+                         @Value("${billwise.pricing.tax-rounding:HALF_UP}") RoundingMode taxRounding,
+                         @Value("${billwise.pricing.default-tax-basis-points:1800}") long defaultTaxBasisPoints) {
+        this.lineRounding = lineRounding;
+        this.discountRounding = discountRounding;
+        this.taxRounding = taxRounding;
+        this.defaultTaxBasisPoints = defaultTaxBasisPoints;
+    }
+
+    /**
+     * Starts pricing a new invoice.
+     *
+     * @param invoiceDiscountBasisPoints Whole-invoice discount, applied to every line before tax.
+     */
+    public InvoiceCalculation newInvoice(long invoiceDiscountBasisPoints) {
+        if (invoiceDiscountBasisPoints < 0 || invoiceDiscountBasisPoints > BASIS_POINTS) {
+            throw new IllegalArgumentException("Discount percentage must be between 0 and 100.");
+        }
+        return new InvoiceCalculation(invoiceDiscountBasisPoints);
+    }
+
+    public long getDefaultTaxBasisPoints() {
+        return defaultTaxBasisPoints;
+    }
+
+    /**
+     * Mutable running totals of a single invoice. Adding a line allocates nothing.
+     * Not thread-safe; one instance per invoice being priced.
+     */
+    public final class InvoiceCalculation {
+        private final long invoiceDiscountBasisPoints;
+
+        private long subTotal;
+        private long totalDiscount;
+        private long totalTax;
+
+        // Results of the most recent addLine call
+        private long lastItemDiscount;
+        private long lastLineDiscount;
+        private long lastLineTax;
+
+        private InvoiceCalculation(long invoiceDiscountBasisPoints) {
+            this.invoiceDiscountBasisPoints = invoiceDiscountBasisPoints;
+        }
+
+        /**
+         * Adds a line at the default tax rate with no item discount.
+         *
+         * @return The gross line total in paise.
+         */
+        public long addLine(long unitPrice, int quantity) {
+            return addLine(unitPrice, quantity, 0, defaultTaxBasisPoints);
+        }
+
+        /**
+         * Adds a line and accumulates its discount and tax. Tax is computed per line on the
+         * amount left after the item discount and the line's share of the invoice discount.
+         *
+         * @param unitPrice Price per base unit in ten-thousandths of a rupee.
+         * @param itemDiscountBasisPoints Line-level discount rate (e.g. from a promotion).
+         * @param taxBasisPoints Tax rate for this line.
+         * @return The gross line total in paise.
+         */
+        public long addLine(long unitPrice, int quantity, long itemDiscountBasisPoints, long taxBasisPoints) {
+            long gross = divide(Math.multiplyExact(unitPrice, (long) quantity), PRICE_UNITS_PER_PAISA, lineRounding);
+            long itemDiscount = divide(Math.multiplyExact(gross, Math.min(itemDiscountBasisPoints, BASIS_POINTS)), BASIS_POINTS, discountRounding);
+            long net = gross - itemDiscount;
+            long invoiceDiscountShare = divide(Math.multiplyExact(net, invoiceDiscountBasisPoints), BASIS_POINTS, discountRounding);
+            long taxable = net - invoiceDiscountShare;
+            long tax = divide(Math.multiplyExact(taxable, taxBasisPoints), BASIS_POINTS, taxRounding);
+
+            lastItemDiscount = itemDiscount;
+            lastLineDiscount = gross - taxable;
+            lastLineTax = tax;
+
+            subTotal = Math.addExact(subTotal, gross);
+            totalDiscount += lastLineDiscount;
+            totalTax += tax;
+            return gross;
+        }
+
+        public long getSubTotal() {
+            return subTotal;
+        }
+
+        public long getTotalDiscount() {
+            return totalDiscount;
+        }
+
+        public long getTotalTax() {
+            return totalTax;
+        }
+
+        public long getGrandTotal() {
+            return subTotal - totalDiscount + totalTax;
+        }
+
+        /**
+         * Item-level discount of the last added line, in paise.
+         */
+        public long getLastItemDiscount() {
+            return lastItemDiscount;
+        }
+
+        /**
+         * Total discount (item discount plus invoice discount share) of the last added line, in paise.
+         */
+        public long getLastLineDiscount() {
+            return lastLineDiscount;
+        }
+
+        /**
+         * Tax of the last added line, in paise.
+         */
+        public long getLastLineTax() {
+            return lastLineTax;
+        }
+    }
+
+    // --- Conversions at the entity/DTO boundary ---
+
+    /**
+     * Converts a price per base unit to ten-thousandths of a rupee.
+     * Requests are validated to 4 decimals; HALF_UP only matters for values stored before the column was exact.
+     */
+    public static long toPriceUnits(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromPriceUnits(long priceUnits) {
+        return BigDecimal.valueOf(priceUnits, PRICE_SCALE);
+    }
+
+    public static long toPaise(BigDecimal amount) {
+        return amount.setScale(MONEY_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+
+    public static BigDecimal fromPaise(long paise) {
+        return BigDecimal.valueOf(paise, MONEY_SCALE);
+    }
+
+    /**
+     * Converts a percentage such as 12.5 into basis points (1250), rounding beyond two decimals half-up.
+     */
+    public static long toBasisPoints(Double percentage) {
+        return percentage == null ? 0 : toBasisPoints(BigDecimal.valueOf(percentage));
+    }
+
+    public static long toBasisPoints(BigDecimal percentage) {
+        return percentage.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    }
+
+    /**
+     * Divides two non-negative longs, rounding the quotient with the given mode.
+     */
+    static long divide(long numerator, long denominator, RoundingMode mode) {
+        long quotient = numerator / denominator;
+        long remainder = numerator % denominator;
+        if (remainder == 0) {
+            return quotient;
+        }
+
+        long twiceRemainder = remainder * 2;
+        return switch (mode) {
+            case DOWN, FLOOR -> quotient;
+            case UP, CEILING -> quotient + 1;
+            case HALF_UP -> twiceRemainder >= denominator ? quotient + 1 : quotient;
+            case HALF_DOWN -> twiceRemainder > denominator ? quotient + 1 : quotient;
+            case HALF_EVEN -> twiceRemainder > denominator || (twiceRemainder == denominator && (quotient & 1) == 1)
+                    ? quotient + 1 : quotient;
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary for " + numerator + "/" + denominator);
+        };
+    }
+}
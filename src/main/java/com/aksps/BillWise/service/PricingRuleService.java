@@ -0,0 +1,253 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.PromotionRequest;
+import com.aksps.BillWise.dto.request.TaxRateRequest;
+import com.aksps.BillWise.dto.response.PromotionResponse;
+import com.aksps.BillWise.dto.response.TaxRateResponse;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.Promotion;
+import com.aksps.BillWise.model.TaxRate;
+import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.repository.PromotionRepository;
+import com.aksps.BillWise.repository.TaxRateRepository;
+import com.aksps.BillWise.service.PricingRuleTable.PromotionWindows;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Collectors;
+
+/**
+ * Owns the GST slabs and promotions and compiles them into an immutable PricingRuleTable.
+ * The table is rebuilt at startup, after every rule change commits, and periodically
+ * (so promotions expire and changes made on other nodes are picked up).
+ */
+@Service
+public class PricingRuleService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PricingRuleService.class);
+
+    private final TaxRateRepository taxRateRepository;
+    private final PromotionRepository promotionRepository;
+    private final ProductRepository productRepository;
+    private final PricingEngine pricingEngine;
+
+    private final TransactionTemplate compileTransaction;
+
+    // A table with the generation of the compile that produced it; compiles are numbered as they start
+    private record Compiled(PricingRuleTable table, long generation) { }
+
+    private final AtomicLong generations = new AtomicLong();
+    private final AtomicReference<Compiled> current;
+
+    public PricingRuleService(TaxRateRepository taxRateRepository, PromotionRepository promotionRepository,
+                              ProductRepository productRepository, PricingEngine pricingEngine,
+                              PlatformTransactionManager transactionManager) {
+        this.taxRateRepository = taxRateRepository;
+        this.promotionRepository = promotionRepository;
+        this.productRepository = productRepository;
+        this.pricingEngine = pricingEngine;
+        this.compileTransaction = new TransactionTemplate(transactionManager);
+        this.compileTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.compileTransaction.setReadOnly(true);
+        this.current = new AtomicReference<>(new Compiled(PricingRuleTable.empty(pricingEngine.getDefaultTaxBasisPoints()), 0));
+    }
+
+    /**
+     * The rule table to price with. Callers should read it once per invoice for a consistent view.
+     */
+    public PricingRuleTable currentTable() {
+        return current.get().table();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void compileOnStartup() {
+        recompile();
+    }
+
+    @Scheduled(fixedRateString = "${billwise.pricing.rules-refresh-ms:300000}")
+    public void refreshPeriodically() {
+        recompile();
+    }
+
+    /**
+     * Loads all rules and atomically replaces the current table.
+     * Runs in its own read-only transaction because it is also triggered from after-commit callbacks.
+     * <p>
+     * Compiles may overlap, e.g. a periodic refresh that started reading before a rule change committed
+     * and the recompile triggered by that commit. A compile that started later read at least as recent
+     * rules, so a table only replaces one from an earlier-started compile; the slower, older one is dropped.
+     */
+    public void recompile() {
+        long generation = generations.incrementAndGet();
+        PricingRuleTable table = compileTransaction.execute(status -> compile());
+        Compiled installed = current.accumulateAndGet(new Compiled(table, generation),
+                (existing, compiled) -> compiled.generation() > existing.generation() ? compiled : existing);
+        if (installed.generation() != generation) {
+            logger.debug("Dropped pricing rules compile {}; compile {} finished first.", generation, installed.generation());
+        }
+    }
+
+    private PricingRuleTable compile() {
+        long defaultTax = pricingEngine.getDefaultTaxBasisPoints();
+
+        Map<String, Long> taxByPrefix = new HashMap<>();
+        for (TaxRate taxRate : taxRateRepository.findAll()) {
+            taxByPrefix.put(taxRate.getHsnPrefix(), taxRate.getRateBasisPoints().longValue());
+        }
+
+        // Resolve the longest matching prefix once per HSN code, not once per invoice line
+        Map<String, Long> taxByHsnCode = new HashMap<>();
+        for (String hsnCode : productRepository.findDistinctHsnCodes()) {
+            taxByHsnCode.put(hsnCode, PricingRuleTable.resolveByPrefix(hsnCode, taxByPrefix, defaultTax));
+        }
+
+        Map<Long, List<Promotion>> promotionsByProduct = promotionRepository.findNotEndedBefore(LocalDateTime.now()).stream()
+                .collect(Collectors.groupingBy(promotion -> promotion.getProduct().getId()));
+
+        Map<Long, PromotionWindows> windowsByProduct = new HashMap<>();
+        promotionsByProduct.forEach((productId, promotions) -> windowsByProduct.put(productId, toWindows(promotions)));
+
+        PricingRuleTable table = new PricingRuleTable(defaultTax, taxByHsnCode, taxByPrefix, windowsByProduct);
+        logger.debug("Compiled pricing rules: {} tax slabs, {} HSN codes, {} promoted products.",
+                taxByPrefix.size(), taxByHsnCode.size(), table.promotedProductCount());
+        return table;
+    }
+
+    private PromotionWindows toWindows(List<Promotion> promotions) {
+        int size = promotions.size();
+        long[] startsAt = new long[size];
+        long[] endsAt = new long[size];
+        long[] discounts = new long[size];
+        for (int i = 0; i < size; i++) {
+            Promotion promotion = promotions.get(i);
+            startsAt[i] = toEpochMillis(promotion.getStartsAt());
+            endsAt[i] = toEpochMillis(promotion.getEndsAt());
+            discounts[i] = promotion.getDiscountBasisPoints();
+        }
+        return new PromotionWindows(startsAt, endsAt, discounts);
+    }
+
+    public static long toEpochMillis(LocalDateTime dateTime) {
+        return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    // --- Rule management ---
+
+    public List<TaxRateResponse> getAllTaxRates() {
+        return taxRateRepository.findAll().stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public TaxRateResponse createTaxRate(TaxRateRequest request) {
+        if (taxRateRepository.existsByHsnPrefix(request.getHsnPrefix())) {
+            throw new IllegalArgumentException("Tax rate for HSN prefix '" + request.getHsnPrefix() + "' already exists.");
+        }
+
+        TaxRate taxRate = new TaxRate();
+        taxRate.setHsnPrefix(request.getHsnPrefix());
+        taxRate.setRateBasisPoints((int) PricingEngine.toBasisPoints(request.getRatePercentage()));
+        taxRate.setDescription(request.getDescription());
+
+        TaxRate saved = taxRateRepository.save(taxRate);
+        recompileAfterCommit();
+        return mapToResponse(saved);
+    }
+
+    @Transactional
+    public void deleteTaxRate(Long id) {
+        if (!taxRateRepository.existsById(id)) {
+            throw new IllegalArgumentException("Tax rate not found with ID: " + id);
+        }
+        taxRateRepository.deleteById(id);
+        recompileAfterCommit();
+    }
+
+    @Transactional(readOnly = true)
+    public List<PromotionResponse> getActivePromotions() {
+        return promotionRepository.findNotEndedBefore(LocalDateTime.now()).stream()
+                .map(this::mapToResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional
+    public PromotionResponse createPromotion(PromotionRequest request) {
+        if (!request.getEndsAt().isAfter(request.getStartsAt())) {
+            throw new IllegalArgumentException("Promotion must end after it starts.");
+        }
+        Product product = productRepository.findBySku(request.getProductSku())
+                .orElseThrow(() -> new IllegalArgumentException("Product not found with SKU: " + request.getProductSku()));
+
+        Promotion promotion = new Promotion();
+        promotion.setName(request.getName());
+        promotion.setProduct(product);
+        promotion.setDiscountBasisPoints((int) PricingEngine.toBasisPoints(request.getDiscountPercentage()));
+        promotion.setStartsAt(request.getStartsAt());
+        promotion.setEndsAt(request.getEndsAt());
+
+        Promotion saved = promotionRepository.save(promotion);
+        recompileAfterCommit();
+        return mapToResponse(saved);
+    }
+
+    @Transactional
+    public void deletePromotion(Long id) {
+        if (!promotionRepository.existsById(id)) {
+            throw new IllegalArgumentException("Promotion not found with ID: " + id);
+        }
+        promotionRepository.deleteById(id);
+        recompileAfterCommit();
+    }
+
+    /**
+     * Swaps in a new table once the rule change is visible to other transactions.
+     */
+    private void recompileAfterCommit() {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                recompile();
+            }
+        });
+    }
+
+    private TaxRateResponse mapToResponse(TaxRate taxRate) {
+        return new TaxRateResponse(
+                taxRate.getId(),
+                taxRate.getHsnPrefix(),
+                BigDecimal.valueOf(taxRate.getRateBasisPoints(), 2),
+                taxRate.getDescription()
+        );
+    }
+
+    private PromotionResponse mapToResponse(Promotion promotion) {
+        return new PromotionResponse(
+                promotion.getId(),
+                promotion.getName(),
+                promotion.getProduct().getSku(),
+                BigDecimal.valueOf(promotion.getDiscountBasisPoints(), 2),
+                promotion.getStartsAt(),
+                promotion.getEndsAt()
+        );
+    }
+}
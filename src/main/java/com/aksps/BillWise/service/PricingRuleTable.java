@@ -0,0 +1,86 @@
+package com.aksps.BillWise.service;
+
+import java.util.Map;
+
+/**
+ * Immutable, precompiled view of all tax slabs and promotions.
+ * Built once by PricingRuleService and swapped atomically when rules change, so pricing a line
+ * is a couple of hash lookups instead of a rules query. Instances are safe to share between threads.
+ */
+public final class PricingRuleTable {
+
+    private final long defaultTaxBasisPoints;
+
+    // Tax slab per HSN code, pre-resolved (longest prefix) for every code in the catalog
+    private final Map<String, Long> taxByHsnCode;
+
+    // Configured slabs by prefix, used for HSN codes added after the table was compiled
+    private final Map<String, Long> taxByHsnPrefix;
+
+    private final Map<Long, PromotionWindows> promotionsByProduct;
+
+    PricingRuleTable(long defaultTaxBasisPoints, Map<String, Long> taxByHsnCode,
+                     Map<String, Long> taxByHsnPrefix, Map<Long, PromotionWindows> promotionsByProduct) {
+        this.defaultTaxBasisPoints = defaultTaxBasisPoints;
+        this.taxByHsnCode = Map.copyOf(taxByHsnCode);
+        this.taxByHsnPrefix = Map.copyOf(taxByHsnPrefix);
+        this.promotionsByProduct = Map.copyOf(promotionsByProduct);
+    }
+
+    static PricingRuleTable empty(long defaultTaxBasisPoints) {
+        return new PricingRuleTable(defaultTaxBasisPoints, Map.of(), Map.of(), Map.of());
+    }
+
+    /**
+     * GST rate for a product's HSN code; the default rate when the product has no code or no slab matches.
+     */
+    public long taxBasisPoints(String hsnCode) {
+        if (hsnCode == null) {
+            return defaultTaxBasisPoints;
+        }
+        Long rate = taxByHsnCode.get(hsnCode);
+        return rate != null ? rate : resolveByPrefix(hsnCode, taxByHsnPrefix, defaultTaxBasisPoints);
+    }
+
+    /**
+     * Item discount of the best promotion running for the product at the given time, or 0.
+     */
+    public long discountBasisPoints(Long productId, long epochMillis) {
+        PromotionWindows windows = promotionsByProduct.get(productId);
+        return windows != null ? windows.discountAt(epochMillis) : 0;
+    }
+
+    int promotedProductCount() {
+        return promotionsByProduct.size();
+    }
+
+    /**
+     * Walks from the full HSN code down to its 2-digit chapter and returns the first configured slab.
+     */
+    static long resolveByPrefix(String hsnCode, Map<String, Long> taxByHsnPrefix, long defaultTaxBasisPoints) {
+        for (int length = Math.min(hsnCode.length(), 8); length >= 2; length--) {
+            Long rate = taxByHsnPrefix.get(hsnCode.substring(0, length));
+            if (rate != null) {
+                return rate;
+            }
+        }
+        return defaultTaxBasisPoints;
+    }
+
+    /**
+     * Promotion windows of one product as parallel primitive arrays.
+     * A product rarely has more than a couple of windows, so a linear scan is effectively constant time.
+     */
+    record PromotionWindows(long[] startsAt, long[] endsAt, long[] discountBasisPoints) {
+
+        long discountAt(long epochMillis) {
+            long best = 0;
+            for (int i = 0; i < startsAt.length; i++) {
+                if (epochMillis >= startsAt[i] && epochMillis < endsAt[i] && discountBasisPoints[i] > best) {
+                    best = discountBasisPoints[i];
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.ProductChangedEvent;
+import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import com.aksps.BillWise.repository.ProductStockRepository.StockDecrement;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Bounded in-process cache of product snapshots, by id and by SKU.
+ * Entries are evicted by size (least recently/frequently used first) and expire after a while, which
+ * bounds staleness from changes made by other nodes. Writes through JPA invalidate entries via
+ * ProductChangedEvent once they commit; so does stock sold at checkout.
+ * <p>
+ * Cached stock is only a hint: the conditional stock update stays authoritative, and callers
+ * re-read a product with {@link #refresh(Long)} before turning a sale away on cached stock.
+ * <p>
+ * Every entry is stamped with the CatalogVersion read before it was loaded. An entry older than the
+ * product's latest change is never served, even if a slow load stored it after the change committed;
+ * that is what lets product ETags, which come from the same versions, be trusted.
+ * Hit, miss and eviction counts are published as the "cache.*" metrics under the names
+ * products.by-id and products.by-sku.
+ */
+@Service
+public class ProductCatalogCache {
+
+    private record Stamped(ProductSnapshot snapshot, long version) { }
+
+    private final ProductRepository productRepository;
+    private final CatalogVersion catalogVersion;
+
+    private final Cache<Long, Stamped> byId;
+
+    // Only an index into byId; a stale entry is detected by comparing the snapshot's SKU
+    private final Cache<String, Long> idBySku;
+
+    public ProductCatalogCache(ProductRepository productRepository, CatalogVersion catalogVersion, MeterRegistry meterRegistry,
+                               @Value("${billwise.cache.products.max-size:100000}") long maxSize,
+                               @Value("${billwise.cache.products.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.productRepository = productRepository;
+        this.catalogVersion = catalogVersion;
+        this.byId = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.idBySku = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, byId, "products.by-id");
+        CaffeineCacheMetrics.monitor(meterRegistry, idBySku, "products.by-sku");
+    }
+
+    public Optional<ProductSnapshot> getById(Long id) {
+        ProductSnapshot cached = current(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long version = catalogVersion.current();
+        return productRepository.findSnapshotById(id).map(snapshot -> remember(snapshot, version));
+    }
+
+    /**
+     * Resolves SKUs to snapshots, loading all misses with a single query. Unknown SKUs are absent from the result.
+     */
+    public Map<String, ProductSnapshot> getBySkus(Collection<String> skus) {
+        Map<String, ProductSnapshot> snapshotsBySku = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String sku : skus) {
+            Long id = idBySku.getIfPresent(sku);
+            ProductSnapshot cached = id != null ? current(id) : null;
+            if (cached != null && cached.sku().equals(sku)) {
+                snapshotsBySku.put(sku, cached);
+            } else {
+                missing.add(sku);
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            long version = catalogVersion.current();
+            for (ProductSnapshot snapshot : productRepository.findSnapshotsBySkuIn(missing)) {
+                snapshotsBySku.put(snapshot.sku(), remember(snapshot, version));
+            }
+        }
+        return snapshotsBySku;
+    }
+
+    /**
+     * Re-reads a product from the database, replacing the cached snapshot.
+     *
+     * @return The fresh snapshot, or null if the product no longer exists.
+     */
+    public ProductSnapshot refresh(Long id) {
+        long version = catalogVersion.current();
+        return productRepository.findSnapshotById(id).map(snapshot -> remember(snapshot, version)).orElseGet(() -> {
+            byId.invalidate(id);
+            return null;
+        });
+    }
+
+    /**
+     * Once the sale has committed, records the stock change in the catalog version and drops the sold
+     * products' snapshots. They are not patched with the sold quantities: a load between the commit and
+     * this callback is stamped like one from before the sale, yet may already have read the new stock.
+     */
+    public void evictSoldProductsAfterCommit(List<StockDecrement> decrements) {
+        afterCommit(() -> {
+            for (StockDecrement decrement : decrements) {
+                catalogVersion.productChanged(decrement.productId());
+                byId.invalidate(decrement.productId());
+            }
+        });
+    }
+
+    // Runs after commit when published inside a transaction, immediately otherwise
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onProductChanged(ProductChangedEvent event) {
+        byId.invalidate(event.productId());
+        idBySku.invalidate(event.sku());
+    }
+
+    // The cached snapshot, unless the product has changed since it was loaded
+    private ProductSnapshot current(Long id) {
+        Stamped stamped = byId.getIfPresent(id);
+        return stamped != null && stamped.version() >= catalogVersion.productVersion(id) ? stamped.snapshot() : null;
+    }
+
+    /**
+     * Caches a snapshot read from the database, stamped with the catalog version read before the load.
+     * Rows read by a read-write transaction are only cached once it commits, so data from a
+     * transaction that rolls back never reaches other threads.
+     */
+    private ProductSnapshot remember(ProductSnapshot snapshot, long version) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()
+                && !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            afterCommit(() -> put(snapshot, version));
+        } else {
+            put(snapshot, version);
+        }
+        return snapshot;
+    }
+
+    private void put(ProductSnapshot snapshot, long version) {
+        byId.put(snapshot.id(), new Stamped(snapshot, version));
+        idBySku.put(snapshot.sku(), snapshot.id());
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,120 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.ProductChangeResponse;
+import com.aksps.BillWise.dto.response.ProductChangesResponse;
+import com.aksps.BillWise.dto.response.ProductResponse;
+import com.aksps.BillWise.model.UnitType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * Log of product changes that lets POS terminals sync the catalog incrementally.
+ * <p>
+ * Every product write and every stock deduction adds an entry in the same transaction, tagged with
+ * the PostgreSQL transaction id. A sync returns each product changed since the terminal's cursor once,
+ * with its current row (an upsert) or, if the row is gone, a tombstone. The cursor only ever advances
+ * past transactions that have ended (the snapshot xmin), so a transaction that commits late is never
+ * skipped, whatever id order the transactions committed in.
+ * <p>
+ * Compaction deletes entries superseded by a later entry for the same product, so the log stays
+ * at about one row per product ever created, tombstones included.
+ */
+@Service
+public class ProductChangeLog {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductChangeLog.class);
+
+    private static final String INSERT_SQL = """
+            INSERT INTO product_changes (product_id, tx_id, changed_at)
+            VALUES (?, pg_current_xact_id()::text::bigint, now())
+            """;
+
+    // Every transaction with a lower id has ended, so no entry can still appear below it
+    private static final String HORIZON_SQL = "SELECT pg_snapshot_xmin(pg_current_snapshot())::text::bigint";
+
+    // One row per changed product, at its latest change in the window, joined with its current state
+    private static final String CHANGES_SQL = """
+            SELECT l.product_id, l.last_tx, p.id, p.name, p.sku, p.selling_price_per_base_unit,
+                   p.unit_type, p.base_unit, p.current_stock, p.hsn_code
+            FROM (SELECT product_id, MAX(tx_id) AS last_tx
+                  FROM product_changes
+                  WHERE tx_id > ? AND tx_id < ?
+                  GROUP BY product_id) l
+            LEFT JOIN products p ON p.id = l.product_id
+            ORDER BY l.last_tx, l.product_id
+            LIMIT ?
+            """;
+
+    private static final String COMPACT_SQL = """
+            DELETE FROM product_changes c
+            WHERE EXISTS (SELECT 1 FROM product_changes n
+                          WHERE n.product_id = c.product_id
+                            AND (n.tx_id > c.tx_id OR (n.tx_id = c.tx_id AND n.id > c.id)))
+            """;
+
+    private static final RowMapper<ProductChangeResponse> CHANGE_MAPPER = (rs, rowNum) -> {
+        long productId = rs.getLong(1);
+        long version = rs.getLong(2);
+        if (rs.getObject(3) == null) {
+            return new ProductChangeResponse(version, productId, true, null);
+        }
+        ProductResponse product = new ProductResponse(productId, rs.getString(4), rs.getString(5),
+                rs.getBigDecimal(6), UnitType.valueOf(rs.getString(7)), rs.getString(8),
+                rs.getInt(9), rs.getString(10));
+        return new ProductChangeResponse(version, productId, false, product);
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ProductChangeLog(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Logs a change to each product. Must run in the transaction that makes the change.
+     */
+    public void record(Collection<Long> productIds) {
+        List<Long> distinctIds = List.copyOf(new LinkedHashSet<>(productIds));
+        jdbcTemplate.batchUpdate(INSERT_SQL, distinctIds, distinctIds.size(), (ps, productId) -> ps.setLong(1, productId));
+    }
+
+    /**
+     * Products changed after the cursor, in version order. A page never splits a transaction's
+     * changes, so it may exceed the limit when a single transaction touched more products.
+     *
+     * @param since The nextSince of the previous sync, or 0 for a first sync.
+     */
+    @Transactional(readOnly = true)
+    public ProductChangesResponse changesSince(long since, int limit) {
+        Long horizon = jdbcTemplate.queryForObject(HORIZON_SQL, Long.class);
+        List<ProductChangeResponse> changes = jdbcTemplate.query(CHANGES_SQL, CHANGE_MAPPER, since, horizon, limit + 1);
+        if (changes.size() <= limit) {
+            return new ProductChangesResponse(changes, Math.max(since, horizon - 1), false);
+        }
+
+        long boundary = changes.get(limit).getVersion();
+        List<ProductChangeResponse> page = changes.stream().filter(change -> change.getVersion() < boundary).toList();
+        if (page.isEmpty()) {
+            // One transaction changed more than a page worth of products; send all of them
+            page = jdbcTemplate.query(CHANGES_SQL, CHANGE_MAPPER, since, boundary + 1, Integer.MAX_VALUE);
+            return new ProductChangesResponse(page, boundary, true);
+        }
+        return new ProductChangesResponse(page, page.get(page.size() - 1).getVersion(), true);
+    }
+
+    @Scheduled(initialDelayString = "${billwise.catalog-sync.compact-interval-ms:600000}",
+            fixedDelayString = "${billwise.catalog-sync.compact-interval-ms:600000}")
+    public void compact() {
+        int removed = jdbcTemplate.update(COMPACT_SQL);
+        logger.debug("Product change log compacted: {} superseded entries removed", removed);
+    }
+}
@@ -0,0 +1,603 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.ProductSuggestion;
+import com.aksps.BillWise.model.ProductChangedEvent;
+import com.aksps.BillWise.model.UnitType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.LongPredicate;
+import java.util.stream.Stream;
+
+/**
+ * In-memory type-ahead index over product names and SKUs, behind the till's search box.
+ * <p>
+ * Prefix matches come from a sorted map of words (name words, SKU parts and the whole SKU), which
+ * serves as the trie: all words starting with a prefix form one contiguous sub-map. When prefixes
+ * alone do not fill the result, a trigram index over the distinct words maps a misspelt or partial
+ * word to the real words it resembles ("basmti" and "smati" both find "basmati"). Matching typos
+ * against the vocabulary rather than against every product keeps that pass cheap at any catalog size.
+ * <p>
+ * The index is loaded from the products table once the application is ready and then follows
+ * ProductChangedEvent as each change commits. Searches take no locks: writers are serialized and
+ * replace posting lists rather than modifying them, so readers only ever see complete lists.
+ */
+@Service
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final String PRODUCTS_SQL = """
+            SELECT id, name, sku, selling_price_per_base_unit, unit_type, base_unit
+            FROM products
+            """;
+
+    // Bounds the work a one- or two-letter query can cause: a pass stops once this many products match.
+    // Completions are visited in word order, so a short prefix keeps the matches of the first words alphabetically
+    private static final int MAX_MATCHES = 100;
+    private static final int MAX_SIMILAR_WORDS = 8;
+    // A query word with at most this many posting lists filters candidates by binary search
+    private static final int MAX_SEARCHED_LISTS = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Postings postings = new Postings();
+
+    // Changes committed while the startup build loads, replayed onto the fresh index; guarded by this
+    private List<ProductChangedEvent> changesDuringBuild;
+
+    public ProductSearchIndex(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildOnStartup() {
+        long startedAt = System.nanoTime();
+        // Requests are already being served, so products can change after the load has read its snapshot
+        synchronized (this) {
+            changesDuringBuild = new ArrayList<>();
+        }
+        List<IndexedProduct> products;
+        try {
+            products = jdbcTemplate.query(PRODUCTS_SQL, (rs, rowNum) -> IndexedProduct.of(
+                    rs.getLong("id"), rs.getString("name"), rs.getString("sku"),
+                    rs.getBigDecimal("selling_price_per_base_unit"),
+                    UnitType.valueOf(rs.getString("unit_type")), rs.getString("base_unit")));
+        } catch (RuntimeException e) {
+            synchronized (this) {
+                changesDuringBuild = null;
+            }
+            throw e;
+        }
+        replaceAll(products);
+        logger.info("Product search index built: {} products in {} ms",
+                products.size(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // Runs after commit when published inside a transaction, immediately otherwise
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onProductChanged(ProductChangedEvent event) {
+        if (changesDuringBuild != null) {
+            changesDuringBuild.add(event);
+        }
+        apply(event);
+    }
+
+    private void apply(ProductChangedEvent event) {
+        if (event.removed()) {
+            remove(event.productId());
+        } else {
+            put(IndexedProduct.of(event.productId(), event.name(), event.sku(), event.sellingPricePerBaseUnit(),
+                    event.unitType(), event.baseUnit()));
+        }
+    }
+
+    /**
+     * Finds products whose name or SKU words start with every word of the query, best matches first:
+     * an exact SKU, then SKU prefixes, then name prefixes. Tops the result up with fuzzy matches.
+     */
+    public List<ProductSuggestion> search(String query, int limit) {
+        Postings current = postings;
+        List<String> queryWords = words(query);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        String compactQuery = String.join("", queryWords);
+        String phraseQuery = String.join(" ", queryWords);
+
+        Set<Long> seen = new HashSet<>();
+        List<Match> matches = new ArrayList<>();
+
+        Long exactSku = current.idBySku.get(compactQuery);
+        IndexedProduct exactProduct = exactSku != null ? current.products.get(exactSku) : null;
+        if (exactProduct != null) {
+            seen.add(exactSku);
+            matches.add(new Match(exactProduct, 0));
+        }
+
+        // Products that fail here stay unseen, so the fuzzy pass can still take them
+        int exactMatches = matches.size();
+        forEachCandidate(current, queryWords, Map.of(), id -> {
+            IndexedProduct product = current.products.get(id);
+            if (product != null && product.matchesAll(queryWords, Map.of()) && seen.add(id)) {
+                int rank = product.compactSku().startsWith(compactQuery) ? 1
+                        : product.normalizedName().startsWith(phraseQuery) ? 2 : 3;
+                matches.add(new Match(product, rank));
+            }
+            return matches.size() - exactMatches < MAX_MATCHES;
+        });
+        sort(matches);
+
+        if (matches.size() < limit) {
+            matches.addAll(fuzzyMatches(current, queryWords, seen, limit - matches.size()));
+        }
+
+        List<ProductSuggestion> suggestions = new ArrayList<>(Math.min(limit, matches.size()));
+        for (Match match : matches.subList(0, Math.min(limit, matches.size()))) {
+            suggestions.add(match.product().toSuggestion());
+        }
+        return suggestions;
+    }
+
+    /**
+     * Second pass for infixes and typos: each query word may also be satisfied by a vocabulary word
+     * that shares at least half of its trigrams. Products are ranked by their most distant stand-in
+     * (Dice coefficient), after every prefix match.
+     */
+    private static List<Match> fuzzyMatches(Postings current, List<String> queryWords, Set<Long> seen, int limit) {
+        Map<String, Map<String, Double>> similarByQueryWord = new HashMap<>();
+        for (String queryWord : queryWords) {
+            similarByQueryWord.put(queryWord, similarWords(current, queryWord));
+        }
+
+        List<Match> matches = new ArrayList<>();
+        forEachCandidate(current, queryWords, similarByQueryWord, id -> {
+            IndexedProduct product = current.products.get(id);
+            if (product != null && !seen.contains(id)) {
+                double closeness = product.closeness(queryWords, similarByQueryWord);
+                if (closeness > 0) {
+                    seen.add(id);
+                    matches.add(new Match(product, 4 + (1 - closeness)));
+                }
+            }
+            return matches.size() < MAX_MATCHES;
+        });
+        sort(matches);
+        return matches.size() > limit ? matches.subList(0, limit) : matches;
+    }
+
+    /**
+     * Intersects the postings of the query words, passing each id found to the visitor until it returns
+     * false. A query word's postings are the lists of the words it is a prefix of, plus those of its
+     * similar words. Ids come from the smallest postings and are binary-searched in the other words'
+     * lists when there are only a few of them; the visitor still checks the words those do not cover.
+     * Longer words usually stand for fewer products, so they are sized first, and gathering a word's
+     * lists stops once it is no smaller than the smallest so far.
+     */
+    private static void forEachCandidate(Postings current, List<String> queryWords,
+                                         Map<String, Map<String, Double>> similarByQueryWord, LongPredicate visitor) {
+        Iterable<long[]> seed;
+        List<List<long[]>> filters = new ArrayList<>();
+        if (queryWords.size() == 1) {
+            String queryWord = queryWords.get(0);
+            seed = postings(current, queryWord, similarByQueryWord.getOrDefault(queryWord, Map.of()));
+        } else {
+            List<String> longestFirst = new ArrayList<>(queryWords);
+            longestFirst.sort(Comparator.comparingInt(String::length).reversed());
+            List<long[]> smallest = null;
+            long smallestSize = Long.MAX_VALUE;
+            for (String queryWord : longestFirst) {
+                List<long[]> lists = new ArrayList<>();
+                long size = 0;
+                boolean complete = true;
+                for (long[] ids : postings(current, queryWord, similarByQueryWord.getOrDefault(queryWord, Map.of()))) {
+                    if (size >= smallestSize) {
+                        complete = false;
+                        break;
+                    }
+                    lists.add(ids);
+                    size += ids.length;
+                }
+                if (!complete || size >= smallestSize) {
+                    addFilter(filters, lists, complete);
+                    continue;
+                }
+                if (smallest != null) {
+                    addFilter(filters, smallest, true);
+                }
+                smallest = lists;
+                smallestSize = size;
+            }
+            seed = smallest;
+        }
+
+        for (long[] ids : seed) {
+            for (long id : ids) {
+                if (inAll(filters, id) && !visitor.test(id)) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private static void addFilter(List<List<long[]>> filters, List<long[]> lists, boolean complete) {
+        if (complete && lists.size() <= MAX_SEARCHED_LISTS) {
+            filters.add(lists);
+        }
+    }
+
+    private static boolean inAll(List<List<long[]>> filters, long id) {
+        for (List<long[]> lists : filters) {
+            boolean found = false;
+            for (long[] ids : lists) {
+                if (Arrays.binarySearch(ids, id) >= 0) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Iterable<long[]> postings(Postings current, String queryWord, Map<String, Double> similar) {
+        Stream<long[]> prefixed = current.idsByWord.subMap(queryWord, true, queryWord + Character.MAX_VALUE, false).values().stream();
+        Stream<long[]> alike = similar.keySet().stream().map(current.idsByWord::get).filter(Objects::nonNull);
+        return Stream.concat(prefixed, alike)::iterator;
+    }
+
+    /**
+     * Vocabulary words sharing at least half of the word's trigrams, with their Dice coefficient.
+     * Only the closest few are kept.
+     */
+    private static Map<String, Double> similarWords(Postings current, String word) {
+        Set<String> wordTrigrams = trigrams(List.of(word));
+        Map<String, Integer> sharedByWord = new HashMap<>();
+        for (String trigram : wordTrigrams) {
+            String[] words = current.wordsByTrigram.get(trigram);
+            if (words != null) {
+                for (String candidate : words) {
+                    sharedByWord.merge(candidate, 1, Integer::sum);
+                }
+            }
+        }
+
+        int needed = (wordTrigrams.size() + 1) / 2;
+        List<Map.Entry<String, Double>> similar = new ArrayList<>();
+        sharedByWord.forEach((candidate, shared) -> {
+            if (shared >= needed) {
+                // A padded word has as many trigrams as characters, give or take repeats
+                double dice = 2.0 * shared / (wordTrigrams.size() + candidate.length());
+                similar.add(Map.entry(candidate, dice));
+            }
+        });
+        similar.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+
+        Map<String, Double> closest = new HashMap<>();
+        for (Map.Entry<String, Double> entry : similar.subList(0, Math.min(MAX_SIMILAR_WORDS, similar.size()))) {
+            closest.put(entry.getKey(), entry.getValue());
+        }
+        return closest;
+    }
+
+    private static void sort(List<Match> matches) {
+        matches.sort(Comparator.comparingDouble(Match::score)
+                .thenComparingInt(match -> match.product().name().length())
+                .thenComparing(match -> match.product().name()));
+    }
+
+    /**
+     * Swaps in a freshly built index; searches keep using the old one until the swap. Changes
+     * received while the startup build was loading are replayed onto it.
+     */
+    synchronized void replaceAll(List<IndexedProduct> products) {
+        Map<String, IdList> words = new HashMap<>();
+        Set<String> vocabulary = new HashSet<>();
+        Postings fresh = new Postings();
+        List<IndexedProduct> byId = new ArrayList<>(products);
+        byId.sort(Comparator.comparingLong(IndexedProduct::id));
+        for (IndexedProduct product : byId) {
+            fresh.products.put(product.id(), product);
+            fresh.idBySku.put(product.compactSku(), product.id());
+            for (String word : product.words()) {
+                words.computeIfAbsent(word, w -> new IdList()).add(product.id());
+            }
+            vocabulary.addAll(product.fuzzyWords());
+        }
+        words.forEach((word, ids) -> fresh.idsByWord.put(word, ids.toArray()));
+
+        Map<String, List<String>> wordsByTrigram = new HashMap<>();
+        for (String word : vocabulary) {
+            for (String trigram : trigrams(List.of(word))) {
+                wordsByTrigram.computeIfAbsent(trigram, t -> new ArrayList<>()).add(word);
+            }
+        }
+        wordsByTrigram.forEach((trigram, list) -> {
+            String[] sorted = list.toArray(String[]::new);
+            Arrays.sort(sorted);
+            fresh.wordsByTrigram.put(trigram, sorted);
+        });
+        postings = fresh;
+
+        if (changesDuringBuild != null) {
+            List<ProductChangedEvent> changes = changesDuringBuild;
+            changesDuringBuild = null;
+            changes.forEach(this::apply);
+        }
+    }
+
+    synchronized void put(IndexedProduct product) {
+        Postings current = postings;
+        IndexedProduct previous = current.products.put(product.id(), product);
+        if (previous != null) {
+            unlink(current, previous);
+        }
+        current.idBySku.put(product.compactSku(), product.id());
+        for (String word : product.words()) {
+            long[] ids = current.idsByWord.get(word);
+            current.idsByWord.put(word, ids == null ? new long[]{product.id()} : withId(ids, product.id()));
+        }
+        for (String word : product.fuzzyWords()) {
+            for (String trigram : trigrams(List.of(word))) {
+                current.wordsByTrigram.merge(trigram, new String[]{word}, (words, single) -> withWord(words, word));
+            }
+        }
+    }
+
+    synchronized void remove(Long productId) {
+        Postings current = postings;
+        IndexedProduct previous = current.products.remove(productId);
+        if (previous != null) {
+            unlink(current, previous);
+        }
+    }
+
+    private static void unlink(Postings current, IndexedProduct product) {
+        current.idBySku.remove(product.compactSku(), product.id());
+        for (String word : product.words()) {
+            long[] ids = current.idsByWord.get(word);
+            if (ids == null) {
+                continue;
+            }
+            long[] remaining = withoutId(ids, product.id());
+            if (remaining.length == 0) {
+                // No product uses the word any more, so typos should no longer lead to it
+                current.idsByWord.remove(word);
+                for (String trigram : trigrams(List.of(word))) {
+                    current.wordsByTrigram.computeIfPresent(trigram, (t, words) -> withoutWord(words, word));
+                }
+            } else {
+                current.idsByWord.put(word, remaining);
+            }
+        }
+    }
+
+    // Posting lists are sorted and never modified in place, so a reader can binary-search any list it holds
+    private static long[] withId(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index >= 0) {
+            return ids;
+        }
+        int insertAt = -index - 1;
+        long[] copy = new long[ids.length + 1];
+        System.arraycopy(ids, 0, copy, 0, insertAt);
+        copy[insertAt] = id;
+        System.arraycopy(ids, insertAt, copy, insertAt + 1, ids.length - insertAt);
+        return copy;
+    }
+
+    private static long[] withoutId(long[] ids, long id) {
+        int index = Arrays.binarySearch(ids, id);
+        if (index < 0) {
+            return ids;
+        }
+        long[] copy = new long[ids.length - 1];
+        System.arraycopy(ids, 0, copy, 0, index);
+        System.arraycopy(ids, index + 1, copy, index, ids.length - index - 1);
+        return copy;
+    }
+
+    private static String[] withWord(String[] words, String word) {
+        int index = Arrays.binarySearch(words, word);
+        if (index >= 0) {
+            return words;
+        }
+        int insertAt = -index - 1;
+        String[] copy = new String[words.length + 1];
+        System.arraycopy(words, 0, copy, 0, insertAt);
+        copy[insertAt] = word;
+        System.arraycopy(words, insertAt, copy, insertAt + 1, words.length - insertAt);
+        return copy;
+    }
+
+    // Returns null for an emptied list, which removes the key
+    private static String[] withoutWord(String[] words, String word) {
+        int index = Arrays.binarySearch(words, word);
+        if (index < 0) {
+            return words;
+        }
+        if (words.length == 1) {
+            return null;
+        }
+        String[] copy = new String[words.length - 1];
+        System.arraycopy(words, 0, copy, 0, index);
+        System.arraycopy(words, index + 1, copy, index, words.length - index - 1);
+        return copy;
+    }
+
+    private static boolean containsLetter(String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (Character.isLetter(word.charAt(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Lower-cased runs of letters and digits; everything else separates words.
+     */
+    static List<String> words(String text) {
+        List<String> words = new ArrayList<>();
+        if (text == null) {
+            return words;
+        }
+        String lower = text.toLowerCase(Locale.ROOT);
+        int start = -1;
+        for (int i = 0; i < lower.length(); i++) {
+            if (Character.isLetterOrDigit(lower.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                words.add(lower.substring(start, i));
+                start = -1;
+            }
+        }
+        if (start >= 0) {
+            words.add(lower.substring(start));
+        }
+        return words;
+    }
+
+    /**
+     * Trigrams of each word padded with a space on both sides, so word starts and ends count too.
+     */
+    static Set<String> trigrams(List<String> words) {
+        Set<String> trigrams = new LinkedHashSet<>();
+        for (String word : words) {
+            String padded = " " + word + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                trigrams.add(padded.substring(i, i + 3));
+            }
+        }
+        return trigrams;
+    }
+
+    private record Match(IndexedProduct product, double score) {
+    }
+
+    /**
+     * The searchable form of a product: its words are name words, SKU parts and the whole SKU
+     * with separators removed, all lower-cased. Only the words containing letters, minus the
+     * compacted SKU, join the vocabulary for typo matching; sizes and serial numbers typo-match
+     * into nonsense.
+     */
+    record IndexedProduct(long id, String name, String sku, BigDecimal sellingPricePerBaseUnit, UnitType unitType,
+                          String baseUnit, String normalizedName, String compactSku, List<String> words,
+                          List<String> fuzzyWords) {
+
+        static IndexedProduct of(long id, String name, String sku, BigDecimal sellingPricePerBaseUnit,
+                                 UnitType unitType, String baseUnit) {
+            List<String> nameWords = ProductSearchIndex.words(name);
+            List<String> skuWords = ProductSearchIndex.words(sku);
+            String compactSku = String.join("", skuWords);
+
+            Set<String> searchable = new LinkedHashSet<>(nameWords);
+            searchable.addAll(skuWords);
+            List<String> fuzzyWords = searchable.stream().filter(ProductSearchIndex::containsLetter).toList();
+            if (!compactSku.isEmpty()) {
+                searchable.add(compactSku);
+            }
+            return new IndexedProduct(id, name, sku, sellingPricePerBaseUnit, unitType, baseUnit,
+                    String.join(" ", nameWords), compactSku, List.copyOf(searchable), fuzzyWords);
+        }
+
+        /**
+         * Whether every query word is a prefix of one of this product's words, or one of its stand-ins is.
+         */
+        boolean matchesAll(List<String> queryWords, Map<String, Map<String, Double>> similarByQueryWord) {
+            for (String queryWord : queryWords) {
+                Map<String, Double> similar = similarByQueryWord.getOrDefault(queryWord, Map.of());
+                boolean found = false;
+                for (String word : words) {
+                    if (word.startsWith(queryWord) || similar.containsKey(word)) {
+                        found = true;
+                        break;
+                    }
+                }
+                if (!found) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        /**
+         * 1 when every query word is a prefix of one of this product's words, otherwise the similarity of
+         * the most distant stand-in needed; 0 when some query word is matched neither way.
+         */
+        double closeness(List<String> queryWords, Map<String, Map<String, Double>> similarByQueryWord) {
+            double closeness = 1;
+            for (String queryWord : queryWords) {
+                Map<String, Double> similar = similarByQueryWord.getOrDefault(queryWord, Map.of());
+                double best = 0;
+                for (String word : words) {
+                    if (word.startsWith(queryWord)) {
+                        best = 1;
+                        break;
+                    }
+                    best = Math.max(best, similar.getOrDefault(word, 0.0));
+                }
+                if (best == 0) {
+                    return 0;
+                }
+                closeness = Math.min(closeness, best);
+            }
+            return closeness;
+        }
+
+        ProductSuggestion toSuggestion() {
+            return new ProductSuggestion(id, name, sku, sellingPricePerBaseUnit, unitType, baseUnit);
+        }
+    }
+
+    private static final class Postings {
+        private final Map<Long, IndexedProduct> products = new ConcurrentHashMap<>();
+        // Compact SKU (letters and digits only) to id, for exact matches
+        private final Map<String, Long> idBySku = new ConcurrentHashMap<>();
+        private final ConcurrentSkipListMap<String, long[]> idsByWord = new ConcurrentSkipListMap<>();
+        // Trigram to the vocabulary words containing it, for typo and infix matching
+        private final Map<String, String[]> wordsByTrigram = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Growable id list used while building; ids arrive in ascending order.
+     */
+    private static final class IdList {
+        private long[] ids = new long[4];
+        private int size;
+
+        void add(long id) {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, size * 2);
+            }
+            ids[size++] = id;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(ids, size);
+        }
+    }
+}
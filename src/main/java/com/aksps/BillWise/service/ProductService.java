@@ -1,15 +1,19 @@
 package com.aksps.BillWise.service;
 
 import com.aksps.BillWise.dto.request.ProductRequest;
+import com.aksps.BillWise.dto.response.KeysetPage;
+import com.aksps.BillWise.dto.response.ProductChangesResponse;
 import com.aksps.BillWise.dto.response.ProductResponse;
+import com.aksps.BillWise.dto.response.ProductSuggestion;
 import com.aksps.BillWise.model.Product;
 import com.aksps.BillWise.model.UnitType; // Correct import assuming UnitType is nested
 import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 import java.util.Optional;
 
 /**
@@ -21,23 +25,52 @@ import java.util.Optional;
 public class ProductService {
 
     private final ProductRepository productRepository;
-
-    public ProductService(ProductRepository productRepository) {
+    private final ProductCatalogCache productCatalogCache;
+    private final ProductSearchIndex productSearchIndex;
+    private final CatalogVersion catalogVersion;
+    private final ProductChangeLog productChangeLog;
+
+    public ProductService(ProductRepository productRepository, ProductCatalogCache productCatalogCache,
+                          ProductSearchIndex productSearchIndex, CatalogVersion catalogVersion,
+                          ProductChangeLog productChangeLog) {
         this.productRepository = productRepository;
+        this.productCatalogCache = productCatalogCache;
+        this.productSearchIndex = productSearchIndex;
+        this.catalogVersion = catalogVersion;
+        this.productChangeLog = productChangeLog;
+    }
+
+    /**
+     * ETag for any product listing. Read it before loading the listing, so the tag is never newer than the data.
+     */
+    public String getCatalogETag() {
+        return catalogVersion.catalogETag();
+    }
+
+    /**
+     * ETag for a single product. Read it before loading the product, so the tag is never newer than the data.
+     */
+    public String getProductETag(Long id) {
+        return catalogVersion.productETag(id);
     }
 
     /**
      * Maps a Product entity to a simplified ProductResponse DTO for API output.
      */
     private ProductResponse mapToResponse(Product product) {
+        return mapToResponse(ProductSnapshot.of(product));
+    }
+
+    private ProductResponse mapToResponse(ProductSnapshot product) {
         return new ProductResponse(
-                product.getId(),
-                product.getName(),
-                product.getSku(),
-                product.getSellingPricePerBaseUnit(),
-                product.getUnitType(),
-                product.getBaseUnit(),
-                product.getCurrentStock()
+                product.id(),
+                product.name(),
+                product.sku(),
+                product.sellingPricePerBaseUnit(),
+                product.unitType(),
+                product.baseUnit(),
+                product.currentStock(),
+                product.hsnCode()
         );
     }
 
@@ -65,20 +98,37 @@ public class ProductService {
 
         product.setCurrentStock(request.getCurrentStock());
         product.setMinStockLevel(request.getMinStockLevel());
+        product.setHsnCode(request.getHsnCode());
 
         Product savedProduct = productRepository.save(product);
+        productChangeLog.record(List.of(savedProduct.getId()));
         return mapToResponse(savedProduct);
     }
 
     /**
-     * Retrieves a product by its ID.
+     * Retrieves a product by its ID, served from the catalog cache when possible.
      */
     public ProductResponse getProductById(Long id) {
-        Product product = productRepository.findById(id)
+        ProductSnapshot product = productCatalogCache.getById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Product not found with ID: " + id));
         return mapToResponse(product);
     }
 
+    /**
+     * Type-ahead search over product names and SKUs, answered from the in-memory index.
+     * Saved and deleted products show up here as soon as their transaction commits.
+     */
+    public List<ProductSuggestion> searchProducts(String query, int limit) {
+        return productSearchIndex.search(query, limit);
+    }
+
+    /**
+     * Products created, updated, deleted or sold since a terminal's last sync.
+     */
+    public ProductChangesResponse getChangesSince(long since, int limit) {
+        return productChangeLog.changesSince(since, limit);
+    }
+
     /**
      * Updates an existing product's details.
      */
@@ -102,18 +152,28 @@ public class ProductService {
         product.setBaseUnit(request.getBaseUnit()); // FIX: Save as String directly
         product.setCurrentStock(request.getCurrentStock());
         product.setMinStockLevel(request.getMinStockLevel());
+        product.setHsnCode(request.getHsnCode());
 
         Product updatedProduct = productRepository.save(product);
+        productChangeLog.record(List.of(id));
         return mapToResponse(updatedProduct);
     }
 
     /**
-     * Fetches all products in the inventory.
+     * Fetches one page of the inventory, ordered by id.
+     * Only limit + 1 rows are ever loaded, so memory per call does not grow with the catalog.
+     *
+     * @param afterId Cursor from the previous page, or null for the first page.
+     * @param unitType Optional unit type filter.
+     * @param lowStockOnly Only products at or below their minimum stock level.
+     * @param namePrefix Optional case-insensitive name prefix.
      */
-    public List<ProductResponse> getAllProducts() {
-        return productRepository.findAll().stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    @Transactional(readOnly = true)
+    public KeysetPage<ProductResponse> getProductsPage(Long afterId, int limit, UnitType unitType,
+                                                       boolean lowStockOnly, String namePrefix) {
+        List<ProductResponse> rows = productRepository.findPageAfter(afterId != null ? afterId : 0L, unitType, lowStockOnly,
+                QueryPatterns.startsWith(namePrefix), Limit.of(limit + 1));
+        return KeysetPage.of(rows, limit, ProductResponse::getId, row -> row);
     }
 
     /**
@@ -125,6 +185,7 @@ public class ProductService {
             throw new IllegalArgumentException("Product not found with ID: " + id);
         }
         productRepository.deleteById(id);
+        productChangeLog.record(List.of(id));
     }
 
     /**
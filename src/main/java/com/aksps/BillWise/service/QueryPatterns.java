@@ -0,0 +1,27 @@
+package com.aksps.BillWise.service;
+
+import java.util.Locale;
+
+/**
+ * Helpers for building JPQL LIKE patterns from user input.
+ */
+final class QueryPatterns {
+
+    private QueryPatterns() {
+    }
+
+    /**
+     * Lower-cased "starts with" pattern with LIKE wildcards escaped (queries use ESCAPE '\'),
+     * or null when no prefix was given so the filter is skipped.
+     */
+    static String startsWith(String prefix) {
+        if (prefix == null || prefix.isBlank()) {
+            return null;
+        }
+        String escaped = prefix.trim().toLowerCase(Locale.ROOT)
+                .replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+        return escaped + "%";
+    }
+}
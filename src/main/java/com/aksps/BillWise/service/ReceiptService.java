@@ -0,0 +1,79 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.service.ReceiptTemplate.Shop;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Renders printable receipts for invoices: fixed-width text, ESC/POS bytes for thermal printers,
+ * or compact HTML. One template per format is compiled from the billwise.receipt.* settings at
+ * startup; rendering writes straight to the given stream.
+ */
+@Service
+public class ReceiptService {
+
+    public enum Format {
+        TEXT, ESCPOS, HTML;
+
+        public static Format parse(String value) {
+            try {
+                return valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unsupported receipt format '" + value + "'. Use text, escpos or html.");
+            }
+        }
+    }
+
+    /**
+     * How tax is broken down under the totals.
+     */
+    public enum GstLines {
+        // CGST and SGST at half the rate each, for sales within the state
+        SPLIT,
+        // IGST at the full rate, for sales to another state
+        IGST,
+        // A single line with the total tax
+        TOTAL
+    }
+
+    private final Map<Format, ReceiptTemplate> templates = new EnumMap<>(Format.class);
+
+    public ReceiptService(@Value("${billwise.receipt.shop-name:BillWise}") String shopName,
+                          @Value("${billwise.receipt.header-lines:}") String headerLines,
+                          @Value("${billwise.receipt.gstin:}") String gstin,
+                          @Value("${billwise.receipt.footer-lines:Thank you! Visit again.}") String footerLines,
+                          @Value("${billwise.receipt.width:48}") int width,
+                          @Value("${billwise.receipt.gst-lines:SPLIT}") GstLines gstLines) {
+        if (width < TextReceiptTemplate.MIN_WIDTH) {
+            throw new IllegalArgumentException("billwise.receipt.width must be at least " + TextReceiptTemplate.MIN_WIDTH + " characters.");
+        }
+        Shop shop = new Shop(shopName, lines(headerLines), gstin, lines(footerLines));
+        templates.put(Format.TEXT, new TextReceiptTemplate(shop, width, gstLines, false));
+        templates.put(Format.ESCPOS, new TextReceiptTemplate(shop, width, gstLines, true));
+        templates.put(Format.HTML, new HtmlReceiptTemplate(shop, gstLines));
+    }
+
+    /**
+     * Writes the receipt for an invoice to the stream, which is flushed but left open.
+     */
+    public void render(InvoiceResponse invoice, Format format, OutputStream out) throws IOException {
+        templates.get(format).render(invoice, out);
+    }
+
+    // Lines are separated by '|', since addresses usually contain commas
+    private static List<String> lines(String value) {
+        return Arrays.stream(value.split("\\|"))
+                .map(String::trim)
+                .filter(line -> !line.isEmpty())
+                .toList();
+    }
+}
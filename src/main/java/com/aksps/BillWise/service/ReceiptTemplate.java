@@ -0,0 +1,122 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.InvoiceItemResponse;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.service.ReceiptService.GstLines;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A receipt layout compiled once at startup. Everything that does not depend on the invoice (shop
+ * header, column titles, footer, markup, printer commands) is encoded to bytes in the constructor;
+ * rendering copies those blocks and writes only the invoice's own fields. Templates are immutable
+ * and shared by all requests.
+ */
+abstract class ReceiptTemplate {
+
+    /**
+     * Shop details printed on every receipt.
+     */
+    record Shop(String name, List<String> headerLines, String gstin, List<String> footerLines) { }
+
+    @FunctionalInterface
+    interface Block {
+        void write(ReceiptWriter out) throws IOException;
+    }
+
+    @FunctionalInterface
+    interface TaxLine {
+        /**
+         * @param rateBasisPoints The GST rate of the line, or -1 for the single total tax line.
+         */
+        void write(byte[] label, int rateBasisPoints, BigDecimal amount) throws IOException;
+    }
+
+    static final byte[] CGST = ascii("CGST");
+    static final byte[] SGST = ascii("SGST");
+    static final byte[] IGST = ascii("IGST");
+    static final byte[] TAX = ascii("Tax");
+
+    private static final BigDecimal TWO = BigDecimal.valueOf(2);
+
+    private final GstLines gstLines;
+    private final ReceiptWriter.Encoding encoding;
+
+    ReceiptTemplate(GstLines gstLines, ReceiptWriter.Encoding encoding) {
+        this.gstLines = gstLines;
+        this.encoding = encoding;
+    }
+
+    /**
+     * Writes the receipt to the stream, which is left open.
+     */
+    final void render(InvoiceResponse invoice, OutputStream out) throws IOException {
+        ReceiptWriter writer = new ReceiptWriter(out, encoding);
+        write(invoice, writer);
+        writer.flush();
+    }
+
+    protected abstract void write(InvoiceResponse invoice, ReceiptWriter out) throws IOException;
+
+    /**
+     * Emits the GST lines shown under the totals: per rate either a CGST and an SGST line splitting the
+     * tax in half (intra-state sale) or one IGST line (inter-state sale), or a single total tax line.
+     */
+    protected final void taxLines(InvoiceResponse invoice, TaxLine line) throws IOException {
+        if (gstLines == GstLines.TOTAL) {
+            line.write(TAX, -1, invoice.getTotalTax());
+            return;
+        }
+
+        Map<Integer, BigDecimal> taxByRate = new TreeMap<>();
+        for (InvoiceItemResponse item : invoice.getItems()) {
+            Integer rate = item.getTaxRateBasisPoints();
+            if (rate != null && rate > 0 && item.getLineTax() != null) {
+                taxByRate.merge(rate, item.getLineTax(), BigDecimal::add);
+            }
+        }
+        for (Map.Entry<Integer, BigDecimal> entry : taxByRate.entrySet()) {
+            BigDecimal tax = entry.getValue();
+            if (gstLines == GstLines.IGST) {
+                line.write(IGST, entry.getKey(), tax);
+            } else {
+                // An odd paisa goes to SGST, so the two lines always add up to the tax charged
+                BigDecimal centralTax = tax.divide(TWO, tax.scale(), RoundingMode.DOWN);
+                line.write(CGST, entry.getKey() / 2, centralTax);
+                line.write(SGST, entry.getKey() - entry.getKey() / 2, tax.subtract(centralTax));
+            }
+        }
+    }
+
+    static boolean isPositive(BigDecimal value) {
+        return value != null && value.signum() > 0;
+    }
+
+    /**
+     * Encodes a fixed part of a template. Runs once per template, at startup.
+     */
+    static byte[] compile(ReceiptWriter.Encoding encoding, Block block) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try {
+            ReceiptWriter writer = new ReceiptWriter(bytes, encoding);
+            block.write(writer);
+            writer.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,227 @@
+package com.aksps.BillWise.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Buffered byte writer for receipts. Text, numbers and dates are encoded straight into the buffer,
+ * so a receipt is written without building strings for its lines or for the whole document.
+ * Text is UTF-8, HTML-escaped in HTML mode, or reduced to printable ASCII for ESC/POS printers,
+ * whose default code page only agrees with ASCII.
+ */
+final class ReceiptWriter {
+
+    enum Encoding { UTF8, HTML, ASCII }
+
+    private static final int BUFFER_SIZE = 2048;
+
+    private final OutputStream out;
+    private final Encoding encoding;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int count;
+
+    ReceiptWriter(OutputStream out, Encoding encoding) {
+        this.out = out;
+        this.encoding = encoding;
+    }
+
+    void raw(byte[] bytes) throws IOException {
+        if (bytes.length > BUFFER_SIZE - count) {
+            flushBuffer();
+            if (bytes.length > BUFFER_SIZE) {
+                out.write(bytes);
+                return;
+            }
+        }
+        System.arraycopy(bytes, 0, buffer, count, bytes.length);
+        count += bytes.length;
+    }
+
+    void raw(int b) throws IOException {
+        if (count == BUFFER_SIZE) {
+            flushBuffer();
+        }
+        buffer[count++] = (byte) b;
+    }
+
+    void repeat(int b, int times) throws IOException {
+        for (int i = 0; i < times; i++) {
+            raw(b);
+        }
+    }
+
+    void newline() throws IOException {
+        raw('\n');
+    }
+
+    /**
+     * Writes at most maxColumns characters of the value, counting one column per code point.
+     *
+     * @return The number of columns written.
+     */
+    int text(String value, int maxColumns) throws IOException {
+        int columns = 0;
+        for (int i = 0; i < value.length() && columns < maxColumns; columns++) {
+            int codePoint = value.codePointAt(i);
+            i += Character.charCount(codePoint);
+            writeCodePoint(codePoint);
+        }
+        return columns;
+    }
+
+    int text(String value) throws IOException {
+        return text(value, Integer.MAX_VALUE);
+    }
+
+    static int columns(String value) {
+        return value.codePointCount(0, value.length());
+    }
+
+    /**
+     * Writes a decimal right-aligned in width columns, with at least minScale fraction digits;
+     * zeros beyond that are dropped, so a price of 0.0450 prints as 0.045.
+     */
+    void decimal(BigDecimal value, int minScale, int width) throws IOException {
+        decimal(value.unscaledValue().longValueExact(), value.scale(), minScale, width);
+    }
+
+    void decimal(long unscaled, int scale, int minScale, int width) throws IOException {
+        // Normalise to the printed scale first, so the width is known before anything is written
+        while (scale > minScale && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        while (scale < minScale) {
+            unscaled *= 10;
+            scale++;
+        }
+        boolean negative = unscaled < 0;
+        long magnitude = Math.abs(unscaled);
+        int digits = Math.max(digitCount(magnitude), scale + 1);
+        int length = digits + (scale > 0 ? 1 : 0) + (negative ? 1 : 0);
+
+        repeat(' ', width - length);
+        if (length > BUFFER_SIZE - count) {
+            flushBuffer();
+        }
+        if (negative) {
+            buffer[count++] = '-';
+        }
+        int position = count + digits + (scale > 0 ? 1 : 0);
+        count = position;
+        for (int i = 0; i < digits; i++) {
+            if (i == scale && scale > 0) {
+                buffer[--position] = '.';
+            }
+            buffer[--position] = (byte) ('0' + magnitude % 10);
+            magnitude /= 10;
+        }
+    }
+
+    /**
+     * Columns that {@link #decimal(long, int, int, int)} needs for the value, without padding.
+     */
+    static int decimalLength(long unscaled, int scale, int minScale) {
+        while (scale > minScale && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+        while (scale < minScale) {
+            unscaled *= 10;
+            scale++;
+        }
+        return Math.max(digitCount(Math.abs(unscaled)), scale + 1) + (scale > 0 ? 1 : 0) + (unscaled < 0 ? 1 : 0);
+    }
+
+    void number(long value, int width) throws IOException {
+        decimal(value, 0, 0, width);
+    }
+
+    // dd-MM-yyyy HH:mm, the way Indian receipts print it
+    void dateTime(LocalDateTime value) throws IOException {
+        twoDigits(value.getDayOfMonth());
+        raw('-');
+        twoDigits(value.getMonthValue());
+        raw('-');
+        number(value.getYear(), 0);
+        raw(' ');
+        twoDigits(value.getHour());
+        raw(':');
+        twoDigits(value.getMinute());
+    }
+
+    /**
+     * Writes the buffered bytes to the stream, which is left open.
+     */
+    void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    private void twoDigits(int value) throws IOException {
+        raw('0' + value / 10);
+        raw('0' + value % 10);
+    }
+
+    private void writeCodePoint(int codePoint) throws IOException {
+        if (codePoint < 0x20 || codePoint == 0x7F) {
+            // Control characters would break the layout or, on a printer, start a command
+            raw(' ');
+        } else if (codePoint < 0x80) {
+            if (encoding == Encoding.HTML) {
+                writeHtmlEscaped(codePoint);
+            } else {
+                raw(codePoint);
+            }
+        } else if (encoding == Encoding.ASCII) {
+            raw('?');
+        } else if (codePoint < 0x800) {
+            raw(0xC0 | (codePoint >> 6));
+            raw(0x80 | (codePoint & 0x3F));
+        } else if (codePoint < 0x10000) {
+            raw(0xE0 | (codePoint >> 12));
+            raw(0x80 | ((codePoint >> 6) & 0x3F));
+            raw(0x80 | (codePoint & 0x3F));
+        } else {
+            raw(0xF0 | (codePoint >> 18));
+            raw(0x80 | ((codePoint >> 12) & 0x3F));
+            raw(0x80 | ((codePoint >> 6) & 0x3F));
+            raw(0x80 | (codePoint & 0x3F));
+        }
+    }
+
+    private void writeHtmlEscaped(int c) throws IOException {
+        switch (c) {
+            case '&' -> ascii("&amp;");
+            case '<' -> ascii("&lt;");
+            case '>' -> ascii("&gt;");
+            case '"' -> ascii("&quot;");
+            case '\'' -> ascii("&#39;");
+            default -> raw(c);
+        }
+    }
+
+    private void ascii(String constant) throws IOException {
+        for (int i = 0; i < constant.length(); i++) {
+            raw(constant.charAt(i));
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        if (count > 0) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+    }
+
+    private static int digitCount(long magnitude) {
+        int digits = 1;
+        while (magnitude >= 10) {
+            magnitude /= 10;
+            digits++;
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.SalesTotalResponse;
+import com.aksps.BillWise.model.Granularity;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.StringJoiner;
+
+/**
+ * Sales totals over a date range, read from the SalesSeries rollups.
+ * <p>
+ * A range is covered with as few rows as possible: whole months inside it come from month rows, whole
+ * weeks in the remaining head and tail from week rows, and only the leftover days from day rows. Two
+ * years for one product are then around 24 month rows plus a handful of weeks and days, instead of 730.
+ * Sales after the aggregation watermark are not included yet.
+ */
+@Service
+public class SalesSeriesService {
+
+    /**
+     * Periods of one granularity starting in [from, to), all lying fully inside the queried range.
+     */
+    record Range(Granularity granularity, LocalDate from, LocalDate to) { }
+
+    private static final RowMapper<SalesTotalResponse> TOTAL_MAPPER = (rs, rowNum) -> new SalesTotalResponse(
+            rs.getLong(1), rs.getLong(2), rs.getBigDecimal(3), rs.getBigDecimal(4), rs.getLong(5));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SalesSeriesService(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Totals per product for the days from to to, both included, in product id order.
+     *
+     * @param productId Restricts the result to one product, or null for every product sold in the range.
+     */
+    public List<SalesTotalResponse> totals(LocalDate from, LocalDate to, Long productId) {
+        if (from == null || to == null || to.isBefore(from)) {
+            throw new IllegalArgumentException("Both from and to are required, and to must not be before from.");
+        }
+        List<Range> ranges = cover(from, to.plusDays(1));
+
+        StringJoiner periods = new StringJoiner(" OR ", "(", ")");
+        List<Object> args = new ArrayList<>();
+        for (Range range : ranges) {
+            periods.add("(granularity = ? AND period_start >= ? AND period_start < ?)");
+            args.add(range.granularity().name());
+            args.add(Date.valueOf(range.from()));
+            args.add(Date.valueOf(range.to()));
+        }
+        String productFilter = "";
+        if (productId != null) {
+            productFilter = "product_id = ? AND ";
+            args.add(0, productId);
+        }
+
+        String sql = """
+                SELECT product_id, SUM(units_sold), SUM(revenue), SUM(discount), SUM(invoice_count)
+                FROM sales_series
+                WHERE %s%s
+                GROUP BY product_id
+                ORDER BY product_id
+                """.formatted(productFilter, periods);
+        return jdbcTemplate.query(sql, TOTAL_MAPPER, args.toArray());
+    }
+
+    /**
+     * The coarsest set of rollup ranges that together cover the days in [from, to) exactly once.
+     */
+    static List<Range> cover(LocalDate from, LocalDate to) {
+        List<Range> ranges = new ArrayList<>();
+        LocalDate firstMonth = from.getDayOfMonth() == 1 ? from : from.withDayOfMonth(1).plusMonths(1);
+        LocalDate endMonth = to.withDayOfMonth(1);
+        if (firstMonth.isBefore(endMonth)) {
+            coverWithWeeks(from, firstMonth, ranges);
+            ranges.add(new Range(Granularity.MONTH, firstMonth, endMonth));
+            coverWithWeeks(endMonth, to, ranges);
+        } else {
+            coverWithWeeks(from, to, ranges);
+        }
+        return ranges;
+    }
+
+    private static void coverWithWeeks(LocalDate from, LocalDate to, List<Range> ranges) {
+        LocalDate firstWeek = from.with(TemporalAdjusters.nextOrSame(DayOfWeek.MONDAY));
+        LocalDate endWeek = to.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        if (firstWeek.isBefore(endWeek)) {
+            addDays(from, firstWeek, ranges);
+            ranges.add(new Range(Granularity.WEEK, firstWeek, endWeek));
+            addDays(endWeek, to, ranges);
+        } else {
+            addDays(from, to, ranges);
+        }
+    }
+
+    private static void addDays(LocalDate from, LocalDate to, List<Range> ranges) {
+        if (from.isBefore(to)) {
+            ranges.add(new Range(Granularity.DAY, from, to));
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.repository.ProductSnapshot;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory reservation layer in front of the stock columns.
+ * Keeps a lock-free counter per product of the quantity held by sales that are still in progress,
+ * so a till can tell that a hot SKU is sold out without queuing behind the other tills' row locks.
+ * <p>
+ * Reservations are bound to the current transaction and are released when it completes, whether
+ * it commits (the database row then carries the deduction) or rolls back. Nothing is persisted:
+ * after a restart the products table alone is the source of truth, and the conditional stock
+ * update in ProductStockRepository always makes the final decision.
+ */
+@Service
+public class StockReservationService {
+
+    private final ConcurrentHashMap<Long, AtomicLong> inFlightByProduct = new ConcurrentHashMap<>();
+
+    /**
+     * Reserves a quantity against the stock the caller read, minus what other open sales hold.
+     * Must run inside a transaction.
+     *
+     * @param product The product as read by the current transaction (or a fresh cached snapshot).
+     * @throws IllegalStateException if the remaining unreserved stock cannot cover the quantity.
+     */
+    public void reserve(ProductSnapshot product, int quantity) {
+        if (!tryReserve(product, quantity)) {
+            long heldByOthers = inFlightQuantity(product.id());
+            throw new IllegalStateException("Insufficient stock for product '" + product.name() + "'. Available: "
+                    + Math.max(0, product.currentStock() - heldByOthers) + " (" + heldByOthers + " held by sales in progress)");
+        }
+    }
+
+    /**
+     * Same as {@link #reserve}, but reports a shortfall by returning false.
+     */
+    public boolean tryReserve(ProductSnapshot product, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new IllegalStateException("Stock can only be reserved inside a transaction.");
+        }
+
+        AtomicLong inFlight = inFlightByProduct.computeIfAbsent(product.id(), id -> new AtomicLong());
+        if (inFlight.addAndGet(quantity) > product.currentStock()) {
+            inFlight.addAndGet(-quantity);
+            return false;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            // Released just before the commit rather than after it: for a moment the counters then
+            // under-report what is held, which the conditional update catches, instead of
+            // over-reporting it and turning away a sale that would have succeeded.
+            @Override
+            public void beforeCompletion() {
+                inFlight.addAndGet(-quantity);
+            }
+        });
+        return true;
+    }
+
+    /**
+     * Quantity of a product currently held by open transactions.
+     */
+    public long inFlightQuantity(Long productId) {
+        AtomicLong inFlight = inFlightByProduct.get(productId);
+        return inFlight != null ? inFlight.get() : 0;
+    }
+}
@@ -0,0 +1,175 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.InvoiceItemResponse;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.service.ReceiptService.GstLines;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+
+/**
+ * Fixed-width receipt for thermal printers, as plain UTF-8 text or as ESC/POS bytes. The ESC/POS
+ * variant resets the printer, prints the shop name and grand total in bold and cuts the paper.
+ * An item fits on one line when its name is short enough; otherwise the name gets a line of its own.
+ */
+final class TextReceiptTemplate extends ReceiptTemplate {
+
+    // Narrowest supported paper: 58 mm rolls print 32 characters per line
+    static final int MIN_WIDTH = 32;
+
+    private static final int QTY_WIDTH = 6;
+    private static final int RATE_WIDTH = 10;
+    private static final int AMOUNT_WIDTH = 11;
+    private static final int NUMBER_COLUMNS = QTY_WIDTH + RATE_WIDTH + AMOUNT_WIDTH;
+
+    private static final byte[] INITIALIZE = {0x1B, '@'};
+    private static final byte[] BOLD_ON = {0x1B, 'E', 1};
+    private static final byte[] BOLD_OFF = {0x1B, 'E', 0};
+    private static final byte[] FEED_AND_CUT = {0x1D, 'V', 66, 3};
+
+    private static final byte[] INVOICE_LABEL = ascii("Invoice: ");
+    private static final byte[] DATE_LABEL = ascii("Date: ");
+    private static final byte[] CUSTOMER_LABEL = ascii("Customer: ");
+    private static final byte[] ITEM_DISCOUNT_LABEL = ascii("  Discount");
+    private static final byte[] SUBTOTAL_LABEL = ascii("Subtotal");
+    private static final byte[] DISCOUNT_LABEL = ascii("Discount");
+    private static final byte[] TOTAL_LABEL = ascii("TOTAL");
+    private static final byte[] RATE_SEPARATOR = ascii(" @ ");
+
+    private final int width;
+    private final boolean escPos;
+    private final byte[] header;
+    private final byte[] itemsHeader;
+    private final byte[] rule;
+    private final byte[] footer;
+
+    TextReceiptTemplate(Shop shop, int width, GstLines gstLines, boolean escPos) {
+        super(gstLines, escPos ? ReceiptWriter.Encoding.ASCII : ReceiptWriter.Encoding.UTF8);
+        this.width = width;
+        this.escPos = escPos;
+
+        ReceiptWriter.Encoding encoding = escPos ? ReceiptWriter.Encoding.ASCII : ReceiptWriter.Encoding.UTF8;
+        byte[] dashes = compile(encoding, out -> {
+            out.repeat('-', width);
+            out.newline();
+        });
+        this.rule = dashes;
+        this.header = compile(encoding, out -> {
+            if (escPos) {
+                out.raw(INITIALIZE);
+                out.raw(BOLD_ON);
+            }
+            centered(out, shop.name(), width);
+            if (escPos) {
+                out.raw(BOLD_OFF);
+            }
+            for (String line : shop.headerLines()) {
+                centered(out, line, width);
+            }
+            if (!shop.gstin().isBlank()) {
+                centered(out, "GSTIN: " + shop.gstin(), width);
+            }
+            out.raw(dashes);
+        });
+        this.itemsHeader = compile(encoding, out -> {
+            out.raw(dashes);
+            out.repeat(' ', width - NUMBER_COLUMNS - out.text("Item"));
+            out.repeat(' ', QTY_WIDTH - 3);
+            out.text("Qty");
+            out.repeat(' ', RATE_WIDTH - 4);
+            out.text("Rate");
+            out.repeat(' ', AMOUNT_WIDTH - 6);
+            out.text("Amount");
+            out.newline();
+            out.raw(dashes);
+        });
+        this.footer = compile(encoding, out -> {
+            out.raw(dashes);
+            for (String line : shop.footerLines()) {
+                centered(out, line, width);
+            }
+            if (escPos) {
+                out.raw(FEED_AND_CUT);
+            }
+        });
+    }
+
+    @Override
+    protected void write(InvoiceResponse invoice, ReceiptWriter out) throws IOException {
+        out.raw(header);
+        out.raw(INVOICE_LABEL);
+        out.text(invoice.getInvoiceNumber(), width - INVOICE_LABEL.length);
+        out.newline();
+        out.raw(DATE_LABEL);
+        out.dateTime(invoice.getInvoiceDate());
+        out.newline();
+        if (invoice.getCustomerContactNumber() != null) {
+            out.raw(CUSTOMER_LABEL);
+            int used = CUSTOMER_LABEL.length + out.text(invoice.getCustomerName(), width - CUSTOMER_LABEL.length);
+            if (used + 1 < width) {
+                out.raw(' ');
+                out.text(invoice.getCustomerContactNumber(), width - used - 1);
+            }
+            out.newline();
+        }
+
+        out.raw(itemsHeader);
+        int nameWidth = width - NUMBER_COLUMNS;
+        for (InvoiceItemResponse item : invoice.getItems()) {
+            String name = item.getProductName();
+            if (ReceiptWriter.columns(name) < nameWidth) {
+                out.repeat(' ', nameWidth - out.text(name));
+            } else {
+                out.text(name, width);
+                out.newline();
+                out.repeat(' ', nameWidth);
+            }
+            out.number(item.getQuantitySold(), QTY_WIDTH);
+            out.decimal(item.getUnitPriceAtSale(), 2, RATE_WIDTH);
+            out.decimal(item.getLineTotal(), 2, AMOUNT_WIDTH);
+            out.newline();
+            if (isPositive(item.getItemDiscount())) {
+                amountLine(out, ITEM_DISCOUNT_LABEL, item.getItemDiscount().negate());
+            }
+        }
+
+        out.raw(rule);
+        amountLine(out, SUBTOTAL_LABEL, invoice.getSubTotal());
+        if (isPositive(invoice.getTotalDiscount())) {
+            amountLine(out, DISCOUNT_LABEL, invoice.getTotalDiscount().negate());
+        }
+        taxLines(invoice, (label, rateBasisPoints, amount) -> {
+            out.raw(label);
+            int used = label.length;
+            if (rateBasisPoints >= 0) {
+                out.raw(RATE_SEPARATOR);
+                out.decimal(rateBasisPoints, 2, 0, 0);
+                out.raw('%');
+                used += RATE_SEPARATOR.length + ReceiptWriter.decimalLength(rateBasisPoints, 2, 0) + 1;
+            }
+            out.decimal(amount, 2, width - used);
+            out.newline();
+        });
+        if (escPos) {
+            out.raw(BOLD_ON);
+        }
+        amountLine(out, TOTAL_LABEL, invoice.getGrandTotal());
+        if (escPos) {
+            out.raw(BOLD_OFF);
+        }
+        out.raw(footer);
+    }
+
+    // Label on the left, amount right-aligned to the edge of the paper
+    private void amountLine(ReceiptWriter out, byte[] label, BigDecimal amount) throws IOException {
+        out.raw(label);
+        out.decimal(amount, 2, width - label.length);
+        out.newline();
+    }
+
+    private static void centered(ReceiptWriter out, String text, int width) throws IOException {
+        out.repeat(' ', (width - Math.min(ReceiptWriter.columns(text), width)) / 2);
+        out.text(text, width);
+        out.newline();
+    }
+}
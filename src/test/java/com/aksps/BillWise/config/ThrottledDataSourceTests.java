@@ -0,0 +1,78 @@
+package com.aksps.BillWise.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.ConnectionProxy;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Permit accounting of ThrottledDataSource with a single permit, against a mocked pool.
+ * Whether a permit is free shows in whether the next getConnection succeeds or times out.
+ */
+class ThrottledDataSourceTests {
+
+    private final DataSource pool = mock(DataSource.class);
+    private final ThrottledDataSource dataSource = new ThrottledDataSource(pool, 1, 50);
+
+    @Test
+    void closingTheConnectionReleasesItsPermit() throws SQLException {
+        Connection target = mock(Connection.class);
+        when(pool.getConnection()).thenReturn(target);
+
+        Connection first = dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+
+        first.close();
+        verify(target).close();
+        dataSource.getConnection();
+    }
+
+    @Test
+    void closingTwiceReleasesOnlyOnePermit() throws SQLException {
+        when(pool.getConnection()).thenReturn(mock(Connection.class));
+
+        Connection first = dataSource.getConnection();
+        first.close();
+        first.close();
+
+        dataSource.getConnection();
+        assertThrows(SQLTransientConnectionException.class, dataSource::getConnection);
+    }
+
+    @Test
+    void aFailedCloseStillReleasesThePermit() throws SQLException {
+        Connection target = mock(Connection.class);
+        doThrow(new SQLException("Connection reset")).when(target).close();
+        when(pool.getConnection()).thenReturn(target);
+
+        Connection first = dataSource.getConnection();
+        assertThrows(SQLException.class, first::close);
+
+        dataSource.getConnection();
+    }
+
+    @Test
+    void aFailedGetConnectionReleasesThePermit() throws SQLException {
+        Connection target = mock(Connection.class);
+        when(pool.getConnection())
+                .thenThrow(new SQLException("Pool exhausted"))
+                .thenThrow(new IllegalStateException("Pool closed"))
+                .thenReturn(target);
+
+        assertThrows(SQLException.class, dataSource::getConnection);
+        assertThrows(IllegalStateException.class, dataSource::getConnection);
+
+        Connection connection = dataSource.getConnection();
+        assertSame(target, ((ConnectionProxy) connection).getTargetConnection());
+    }
+}
@@ -0,0 +1,52 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.Customer;
+import com.aksps.BillWise.repository.CustomerRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Positive and negative caching of contact number lookups, outside a transaction.
+ */
+class CustomerLookupCacheTests {
+
+    private static final String NUMBER = "9876543210";
+
+    private final CustomerRepository customerRepository = mock(CustomerRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CustomerLookupCache cache = new CustomerLookupCache(customerRepository, meterRegistry,
+            1_000, Duration.ofMinutes(30), Duration.ofSeconds(30));
+
+    @Test
+    void unknownNumbersAreOnlyQueriedOnce() {
+        when(customerRepository.findByContactNumber(NUMBER)).thenReturn(Optional.empty());
+
+        for (int keystroke = 0; keystroke < 5; keystroke++) {
+            assertTrue(cache.findByContactNumber(NUMBER).isEmpty());
+        }
+
+        verify(customerRepository, times(1)).findByContactNumber(NUMBER);
+        assertEquals(4.0, meterRegistry.get("cache.gets").tag("cache", "customers.by-contact").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void creatingACustomerReplacesTheNegativeEntry() {
+        when(customerRepository.findByContactNumber(NUMBER)).thenReturn(Optional.empty());
+        cache.findByContactNumber(NUMBER);
+
+        cache.customerCreated(new Customer(7L, "Asha", NUMBER, null, null));
+
+        assertEquals(7L, cache.findByContactNumber(NUMBER).orElseThrow().id());
+        verify(customerRepository, times(1)).findByContactNumber(NUMBER);
+    }
+}
@@ -0,0 +1,159 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.dto.response.SalesTotalResponse;
+import com.aksps.BillWise.model.AggregationWatermark;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.SalesData;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.AggregationWatermarkRepository;
+import com.aksps.BillWise.repository.InvoiceRepository;
+import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.repository.SalesDataRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Incremental aggregation against the real database. The job's transactions join the test
+ * transaction, so everything, the watermark included, is rolled back afterwards. The job writes
+ * with plain SQL, so the test flushes its own changes first and clears the persistence context
+ * before reading the totals back.
+ */
+@SpringBootTest
+@Transactional
+class DataAggregationSchedulerTests {
+
+    private static final String SKU = "AGGREGATION-TEST-SKU";
+
+    @Autowired
+    private DataAggregationScheduler scheduler;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private SalesDataRepository salesDataRepository;
+
+    @Autowired
+    private AggregationWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private SalesSeriesService salesSeriesService;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    void addsOnlyNewSalesToTheMonthlyTotalsOnce() {
+        LocalDateTime now = LocalDateTime.now();
+        Product product = productRepository.save(new Product("Aggregation Test", SKU, new BigDecimal("10.00"), UnitType.COUNT, "pc", 1_000, 0));
+        watermarkRepository.save(new AggregationWatermark(DataAggregationScheduler.WATERMARK, now.minusDays(3)));
+
+        YearMonth month = YearMonth.from(now.minusDays(2));
+        salesDataRepository.save(new SalesData(null, product, month, 5));
+        sell(3, now.minusDays(2));
+        sell(4, now.minusDays(2).plusHours(1));
+        // Dated before the watermark, so already counted in the existing total
+        sell(100, now.minusDays(4));
+
+        entityManager.flush();
+
+        scheduler.aggregateSalesData();
+        assertEquals(12, unitsSold(product, month));
+
+        scheduler.aggregateSalesData();
+        assertEquals(12, unitsSold(product, month));
+    }
+
+    @Test
+    void createsTheMonthWhenItHasNoTotalYet() {
+        LocalDateTime now = LocalDateTime.now();
+        Product product = productRepository.save(new Product("Aggregation Test", SKU, new BigDecimal("10.00"), UnitType.COUNT, "pc", 1_000, 0));
+        watermarkRepository.save(new AggregationWatermark(DataAggregationScheduler.WATERMARK, now.minusDays(3)));
+        sell(2, now.minusDays(1));
+        sell(6, now.minusDays(1));
+        entityManager.flush();
+
+        scheduler.aggregateSalesData();
+
+        assertEquals(8, unitsSold(product, YearMonth.from(now.minusDays(1))));
+    }
+
+    @Test
+    void addsSalesToTheDaysAndTheirWeekAndMonthRollups() {
+        LocalDateTime now = LocalDateTime.now();
+        Product product = productRepository.save(new Product("Aggregation Test", SKU, new BigDecimal("10.00"), UnitType.COUNT, "pc", 1_000, 0));
+        watermarkRepository.save(new AggregationWatermark(DataAggregationScheduler.SERIES_WATERMARK, now.minusDays(3)));
+        sell(2, now.minusDays(2));
+        sell(5, now.minusDays(1));
+        entityManager.flush();
+
+        scheduler.aggregateSalesData();
+        scheduler.aggregateSalesData();
+
+        // The same sales read back through day rows only and through the rollups of a wider range
+        LocalDate yesterday = now.minusDays(1).toLocalDate();
+        SalesTotalResponse days = salesSeriesService.totals(yesterday.minusDays(1), yesterday, product.getId()).get(0);
+        SalesTotalResponse rollups = salesSeriesService.totals(yesterday.minusMonths(2).withDayOfMonth(1),
+                yesterday.plusMonths(1).withDayOfMonth(1).minusDays(1), product.getId()).get(0);
+        assertEquals(7, days.getUnitsSold());
+        assertEquals(2, days.getInvoiceCount());
+        assertEquals(new BigDecimal("70.00"), days.getRevenue());
+        assertEquals(days, rollups);
+    }
+
+    @Test
+    void seriesRevenueIsNetOfTheInvoiceDiscount() {
+        LocalDateTime now = LocalDateTime.now();
+        Product product = productRepository.save(new Product("Aggregation Test", SKU, new BigDecimal("10.00"), UnitType.COUNT, "pc", 1_000, 0));
+        watermarkRepository.save(new AggregationWatermark(DataAggregationScheduler.SERIES_WATERMARK, now.minusDays(3)));
+        sell(4, now.minusDays(1), 10.0);
+        entityManager.flush();
+
+        scheduler.aggregateSalesData();
+
+        LocalDate yesterday = now.minusDays(1).toLocalDate();
+        SalesTotalResponse total = salesSeriesService.totals(yesterday, yesterday, product.getId()).get(0);
+        assertEquals(new BigDecimal("36.00"), total.getRevenue());
+        assertEquals(new BigDecimal("4.00"), total.getDiscount());
+    }
+
+    private int unitsSold(Product product, YearMonth month) {
+        entityManager.clear();
+        return salesDataRepository.findByProductIdAndMonth(product.getId(), month).orElseThrow().getTotalUnitsSold();
+    }
+
+    private void sell(int quantity, LocalDateTime date) {
+        sell(quantity, date, null);
+    }
+
+    private void sell(int quantity, LocalDateTime date, Double invoiceDiscountPercentage) {
+        InvoiceItemRequest item = new InvoiceItemRequest();
+        item.setProductSku(SKU);
+        item.setQuantitySold(quantity);
+        InvoiceRequest request = new InvoiceRequest();
+        request.setItems(List.of(item));
+        request.setTotalDiscountPercentage(invoiceDiscountPercentage);
+
+        Long invoiceId = invoiceService.createInvoice(request).getId();
+        invoiceRepository.findById(invoiceId).orElseThrow().setInvoiceDate(date);
+    }
+}
@@ -0,0 +1,121 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.ForecastMethod;
+import com.aksps.BillWise.service.DemandForecaster.Forecast;
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Model choice, forecast sanity and batch throughput of the forecasting engine, on synthetic weekly sales.
+ */
+class DemandForecasterTests {
+
+    private static final int SEASON = 52;
+    private static final int HISTORY = 156;
+    private static final int HORIZON = 8;
+
+    private final DemandForecaster forecaster = new DemandForecaster(SEASON);
+
+    @Test
+    void seasonalSalesFollowTheSeason() {
+        double[] history = new double[HISTORY];
+        Random random = new Random(7);
+        for (int t = 0; t < HISTORY; t++) {
+            history[t] = seasonal(t) + random.nextGaussian() * 5;
+        }
+
+        Forecast forecast = forecaster.forecast(history, HORIZON);
+
+        assertEquals(ForecastMethod.HOLT_WINTERS, forecast.method());
+        for (int k = 0; k < HORIZON; k++) {
+            double expected = seasonal(HISTORY + k);
+            assertEquals(expected, forecast.values()[k], expected * 0.15, "Week " + (k + 1));
+        }
+    }
+
+    @Test
+    void aShortTrendIsExtendedWithoutRunningAway() {
+        double[] history = new double[HISTORY];
+        for (int t = HISTORY - 20; t < HISTORY; t++) {
+            history[t] = 10 + 2 * (t - (HISTORY - 20));
+        }
+
+        Forecast forecast = forecaster.forecast(history, HORIZON);
+
+        assertEquals(ForecastMethod.HOLT, forecast.method(), "Weeks before the first sale are ignored");
+        assertTrue(forecast.values()[0] > 48 && forecast.values()[0] < 52, "Next week: " + forecast.values()[0]);
+        assertTrue(forecast.values()[HORIZON - 1] > forecast.values()[0]);
+        assertTrue(forecast.values()[HORIZON - 1] < 50 + 2 * HORIZON);
+    }
+
+    @Test
+    void intermittentSalesUseCrostonsAverageRate() {
+        double[] history = new double[HISTORY];
+        for (int t = 0; t < HISTORY; t += 4) {
+            history[t] = 8;
+        }
+
+        Forecast forecast = forecaster.forecast(history, HORIZON);
+
+        assertEquals(ForecastMethod.CROSTON, forecast.method());
+        assertEquals(2.0, forecast.values()[0], 0.2, "Eight units every four weeks");
+    }
+
+    @Test
+    void productsNeverSoldForecastZero() {
+        Forecast forecast = forecaster.forecast(new double[HISTORY], HORIZON);
+
+        assertEquals(ForecastMethod.NO_SALES, forecast.method());
+        assertArrayEquals(new double[HORIZON], forecast.values());
+    }
+
+    /**
+     * The nightly batch's compute step for 50,000 products with three years of weekly history.
+     * Run on a pool as large as the machine; the target is a minute on eight cores.
+     */
+    @Test
+    void fiftyThousandProductsForecastWellWithinAMinute() {
+        int products = 50_000;
+        double[][] histories = new double[products][HISTORY];
+        Random random = new Random(42);
+        for (int p = 0; p < products; p++) {
+            double scale = 1 + random.nextInt(50);
+            boolean intermittent = p % 4 == 0;
+            int firstWeek = p % 5 == 0 ? random.nextInt(HISTORY) : 0;
+            for (int t = firstWeek; t < HISTORY; t++) {
+                if (intermittent) {
+                    histories[p][t] = random.nextInt(5) == 0 ? scale * random.nextDouble() : 0;
+                } else {
+                    histories[p][t] = Math.max(0, scale * seasonal(t) / 100 + random.nextGaussian() * scale * 0.1);
+                }
+            }
+        }
+        Forecast[] forecasts = new Forecast[products];
+        ForkJoinPool pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        try {
+            forecaster.forecastAll(histories, HORIZON, new Forecast[products], pool);
+
+            long start = System.nanoTime();
+            forecaster.forecastAll(histories, HORIZON, forecasts, pool);
+            double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+
+            for (Forecast forecast : forecasts) {
+                assertEquals(HORIZON, forecast.values().length);
+            }
+            assertTrue(seconds < 60, "Batch took " + seconds + " s");
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    // Yearly cycle around 100 units a week with a slight upward trend
+    private static double seasonal(int week) {
+        return 100 + 0.1 * week + 40 * Math.sin(2 * Math.PI * week / SEASON);
+    }
+}
@@ -0,0 +1,162 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.model.Invoice;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.InvoiceRepository;
+import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.service.ExportService.Format;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * NDJSON and CSV exports read back from a seeded invoice with two lines and an invoice without any.
+ * The export's read-only transaction joins the test transaction, so it sees the seeded rows and
+ * everything is rolled back afterwards.
+ */
+@SpringBootTest
+@Transactional
+class ExportServiceTests {
+
+    private static final String TEA_SKU = "EXPORT-TEA-SKU";
+    private static final String TEA_NAME = "Export, \"Special\" Tea";
+    private static final String BISCUIT_SKU = "EXPORT-BISCUIT-SKU";
+    private static final String EMPTY_INVOICE_NUMBER = "EXPORT-EMPTY-000001";
+
+    @Autowired
+    private ExportService exportService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private String invoiceNumber;
+
+    @BeforeEach
+    void setUp() {
+        productRepository.save(new Product(TEA_NAME, TEA_SKU, new BigDecimal("25.00"), UnitType.COUNT, "pc", 100, 0));
+        productRepository.save(new Product("Export Biscuit", BISCUIT_SKU, new BigDecimal("10.00"), UnitType.COUNT, "pc", 100, 0));
+
+        InvoiceRequest request = new InvoiceRequest();
+        request.setCustomerContactNumber("9876500001");
+        request.setCustomerName("Sharma, Traders");
+        request.setItems(List.of(item(TEA_SKU, 2), item(BISCUIT_SKU, 3)));
+        invoiceNumber = invoiceService.createInvoice(request).getInvoiceNumber();
+
+        Invoice empty = new Invoice();
+        empty.setInvoiceNumber(EMPTY_INVOICE_NUMBER);
+        empty.setSubTotal(BigDecimal.ZERO);
+        empty.setTotalDiscount(BigDecimal.ZERO);
+        empty.setTotalTax(BigDecimal.ZERO);
+        empty.setGrandTotal(BigDecimal.ZERO);
+        invoiceRepository.save(empty);
+
+        // The export reads with plain JDBC
+        entityManager.flush();
+    }
+
+    @Test
+    void ndjsonWritesOneLinePerInvoiceWithItsItems() throws Exception {
+        List<JsonNode> invoices = new ArrayList<>();
+        for (String line : export(Format.NDJSON).split("\n")) {
+            invoices.add(objectMapper.readTree(line));
+        }
+
+        JsonNode invoice = only(invoices, invoiceNumber);
+        assertEquals("Sharma, Traders", invoice.get("customerName").asText());
+        assertEquals(2, invoice.get("items").size());
+        assertEquals(TEA_SKU, invoice.get("items").get(0).get("productSku").asText());
+        assertEquals(TEA_NAME, invoice.get("items").get(0).get("productName").asText());
+        assertEquals(2, invoice.get("items").get(0).get("quantitySold").asInt());
+        assertEquals(BISCUIT_SKU, invoice.get("items").get(1).get("productSku").asText());
+
+        JsonNode empty = only(invoices, EMPTY_INVOICE_NUMBER);
+        assertEquals(0, empty.get("items").size());
+        assertTrue(empty.get("customerName").isNull());
+    }
+
+    @Test
+    void csvWritesAHeaderAndOneEscapedRowPerItem() {
+        List<String> lines = Arrays.asList(export(Format.CSV).split("\r\n"));
+
+        assertEquals("id,invoiceNumber,invoiceDate,customerName,customerContactNumber,subTotal,totalDiscount,totalTax,grandTotal,"
+                + "productSku,productName,quantitySold,unitPriceAtSale,itemDiscount,lineTax,lineTotal", lines.get(0));
+
+        List<String> rows = lines.stream().filter(line -> line.contains("," + invoiceNumber + ",")).toList();
+        assertEquals(2, rows.size());
+        assertTrue(rows.get(0).contains(",\"Sharma, Traders\",9876500001,"), rows.get(0));
+        assertTrue(rows.get(0).contains("," + TEA_SKU + ",\"Export, \"\"Special\"\" Tea\",2,"), rows.get(0));
+        assertTrue(rows.get(1).contains("," + BISCUIT_SKU + ",Export Biscuit,3,"), rows.get(1));
+
+        List<String> emptyRows = lines.stream().filter(line -> line.contains("," + EMPTY_INVOICE_NUMBER + ",")).toList();
+        assertEquals(1, emptyRows.size());
+        assertTrue(emptyRows.get(0).endsWith(",0.00,0.00,0.00,0.00,,,,,,,"), emptyRows.get(0));
+    }
+
+    @Test
+    void flatCsvExportEscapesFields() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportProducts(Format.CSV, out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertTrue(csv.startsWith("id,sku,name,unitType,baseUnit,sellingPricePerBaseUnit,currentStock,minStockLevel,hsnCode\r\n"));
+        assertTrue(csv.contains("," + TEA_SKU + ",\"Export, \"\"Special\"\" Tea\",COUNT,pc,"), csv);
+    }
+
+    @Test
+    void rejectsUnknownFormats() {
+        assertEquals(Format.CSV, Format.parse(" csv "));
+        assertThrows(IllegalArgumentException.class, () -> Format.parse("xml"));
+    }
+
+    private String export(Format format) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exportService.exportInvoices(format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    private static JsonNode only(List<JsonNode> invoices, String number) {
+        List<JsonNode> matching = invoices.stream()
+                .filter(invoice -> invoice.get("invoiceNumber").asText().equals(number))
+                .toList();
+        assertEquals(1, matching.size(), "Lines for invoice " + number);
+        return matching.get(0);
+    }
+
+    private static InvoiceItemRequest item(String sku, int quantity) {
+        InvoiceItemRequest item = new InvoiceItemRequest();
+        item.setProductSku(sku);
+        item.setQuantitySold(quantity);
+        return item;
+    }
+}
@@ -0,0 +1,111 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.ForecastResponse;
+import com.aksps.BillWise.model.AggregationWatermark;
+import com.aksps.BillWise.repository.AggregationWatermarkRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Date;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.TemporalAdjusters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Forecasts read from seeded weekly sales_series rows. Seeded with plain SQL and rolled back afterwards,
+ * the nightly batch's replacement of sales_forecasts included.
+ */
+@SpringBootTest
+@Transactional
+class ForecastServiceTests {
+
+    private static final int HORIZON_WEEKS = 8;
+
+    // Each test uses its own SKUs, since the product catalog cache outlives the rolled back rows
+    private static final String SEED_PRODUCTS_SQL = """
+            INSERT INTO products (name, sku, selling_price_per_base_unit, unit_type, base_unit, current_stock, min_stock_level)
+            SELECT 'Forecast Test ' || g, ? || '-' || g, 10, 'COUNT', 'pc', 0, 0
+            FROM generate_series(1, ?) g
+            """;
+
+    // Ten units a week for the given number of weeks before the given Monday
+    private static final String SEED_SERIES_SQL = """
+            INSERT INTO sales_series (id, product_id, granularity, period_start, units_sold, revenue, discount, invoice_count)
+            SELECT nextval('sales_series_seq'), p.id, 'WEEK', ?::date - w * 7, 10, 100, 0, 10
+            FROM products p CROSS JOIN generate_series(1, ?) w
+            WHERE p.sku LIKE ? || '-%'
+            """;
+
+    @Autowired
+    private ForecastService forecastService;
+
+    @Autowired
+    private AggregationWatermarkRepository watermarkRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final LocalDate currentWeek = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+
+    @Test
+    void forecastsTheWeeksFollowingTheHistory() {
+        seed("FORECAST-NEXT", 1, currentWeek);
+        aggregatedUntil(currentWeek.atTime(6, 0));
+
+        ForecastResponse forecast = forecastService.forecast("FORECAST-NEXT-1", 4);
+
+        assertEquals("FORECAST-NEXT-1", forecast.getSku());
+        assertEquals(4, forecast.getWeeks().size());
+        assertEquals(currentWeek, forecast.getWeeks().get(0).getWeekStart());
+        assertEquals(currentWeek.plusWeeks(3), forecast.getWeeks().get(3).getWeekStart());
+        assertEquals(10.0, forecast.getWeeks().get(0).getUnits(), 0.5);
+    }
+
+    @Test
+    void historyStopsBeforeTheWeekTheAggregationIsStillIn() {
+        LocalDate aggregatedWeek = currentWeek.minusWeeks(2);
+        seed("FORECAST-LAGGING", 1, aggregatedWeek);
+        // Only Monday of that week is aggregated so far; its one unit must not read as a slump
+        jdbcTemplate.update("""
+                INSERT INTO sales_series (id, product_id, granularity, period_start, units_sold, revenue, discount, invoice_count)
+                SELECT nextval('sales_series_seq'), id, 'WEEK', ?, 1, 10, 0, 1 FROM products WHERE sku = 'FORECAST-LAGGING-1'
+                """, Date.valueOf(aggregatedWeek));
+        aggregatedUntil(aggregatedWeek.atTime(23, 0));
+
+        ForecastResponse forecast = forecastService.forecast("FORECAST-LAGGING-1", 2);
+
+        assertEquals(aggregatedWeek, forecast.getWeeks().get(0).getWeekStart());
+        assertEquals(10.0, forecast.getWeeks().get(0).getUnits(), 0.5);
+    }
+
+    @Test
+    void nightlyBatchStoresTheHorizonForEveryProductSold() {
+        // 150 products over 8 weeks need more than one insert batch
+        int products = 150;
+        seed("FORECAST-NIGHTLY", products, currentWeek);
+        aggregatedUntil(currentWeek.atTime(6, 0));
+
+        forecastService.forecastAllProducts();
+
+        Integer rows = jdbcTemplate.queryForObject("""
+                SELECT COUNT(*) FROM sales_forecasts f JOIN products p ON p.id = f.product_id
+                WHERE p.sku LIKE 'FORECAST-NIGHTLY-%' AND f.period_start >= ? AND f.units BETWEEN 9.5 AND 10.5
+                """, Integer.class, Date.valueOf(currentWeek));
+        assertEquals(products * HORIZON_WEEKS, rows);
+    }
+
+    private void seed(String skuPrefix, int products, LocalDate historyEnd) {
+        jdbcTemplate.update(SEED_PRODUCTS_SQL, skuPrefix, products);
+        jdbcTemplate.update(SEED_SERIES_SQL, Date.valueOf(historyEnd), 30, skuPrefix);
+    }
+
+    private void aggregatedUntil(LocalDateTime processedUntil) {
+        watermarkRepository.save(new AggregationWatermark(DataAggregationScheduler.SERIES_WATERMARK, processedUntil));
+    }
+}
@@ -0,0 +1,144 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.dto.response.InvoiceBatchResult;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.CustomerRepository;
+import com.aksps.BillWise.repository.InvoiceRepository;
+import com.aksps.BillWise.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Bulk ingestion behind POST /api/invoices/batch. Every invoice commits on its own, so the test
+ * commits real transactions and cleans up its own invoices and products afterwards.
+ */
+@SpringBootTest(properties = "billwise.invoice.batch.chunk-size=2")
+class InvoiceBatchServiceTests {
+
+    private static final String MILK_SKU = "BATCH-MILK-SKU";
+    private static final String BREAD_SKU = "BATCH-BREAD-SKU";
+
+    @Autowired
+    private InvoiceBatchService invoiceBatchService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private LiveSalesCounters liveSalesCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<Long> createdInvoiceIds = new ArrayList<>();
+    private final List<Product> createdProducts = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        invoiceRepository.deleteAllById(createdInvoiceIds);
+        // The live counters have written today's sales of these products by now or will on this flush
+        liveSalesCounters.flush();
+        for (Product product : createdProducts) {
+            jdbcTemplate.update("DELETE FROM daily_sales WHERE product_id = ?", product.getId());
+        }
+        productRepository.deleteAll(createdProducts);
+    }
+
+    @Test
+    void reportsEachInvoiceAndRollsBackOnlyTheFailedOnes() {
+        Product milk = createProduct("Batch Milk", MILK_SKU, 10);
+        Product bread = createProduct("Batch Bread", BREAD_SKU, 1);
+
+        List<InvoiceBatchResult> results = invoiceBatchService.createInvoices(List.of(
+                basket(Map.of(MILK_SKU, 2)),
+                // Bread runs out, so the milk on the same invoice must not be taken either
+                basket(Map.of(MILK_SKU, 4, BREAD_SKU, 5)),
+                basket(Map.of("BATCH-UNKNOWN-SKU", 1)),
+                basket(Map.of(MILK_SKU, 3)),
+                basket(Map.of(BREAD_SKU, 1))));
+        results.stream().filter(result -> result.getInvoice() != null)
+                .forEach(result -> createdInvoiceIds.add(result.getInvoice().getId()));
+
+        assertEquals(List.of(0, 1, 2, 3, 4), results.stream().map(InvoiceBatchResult::getIndex).toList());
+        assertEquals(List.of(201, 409, 400, 201, 201), results.stream().map(InvoiceBatchResult::getStatus).toList());
+        assertNotNull(results.get(0).getInvoice());
+        assertNull(results.get(1).getInvoice());
+        assertNotNull(results.get(1).getError());
+        assertEquals(3, createdInvoiceIds.size());
+
+        // Only the three successful invoices took stock, across chunk boundaries
+        assertEquals(5, productRepository.findById(milk.getId()).orElseThrow().getCurrentStock());
+        assertEquals(0, productRepository.findById(bread.getId()).orElseThrow().getCurrentStock());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void resolvesProductsOncePerChunk() {
+        InvoiceService invoiceService = mock(InvoiceService.class);
+        when(invoiceService.resolveProducts(anyCollection())).thenReturn(Map.of());
+        PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        InvoiceBatchService chunked = new InvoiceBatchService(invoiceService, mock(CustomerRepository.class), transactionManager, 2);
+
+        List<InvoiceRequest> requests = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            requests.add(basket(Map.of("BATCH-SKU-" + i, 1)));
+        }
+        List<InvoiceBatchResult> results = chunked.createInvoices(requests);
+
+        assertEquals(5, results.size());
+        verify(invoiceService, times(2)).resolveProducts(argThat((Collection<String> skus) -> skus.size() == 2));
+        verify(invoiceService, times(1)).resolveProducts(argThat((Collection<String> skus) -> skus.equals(Set.of("BATCH-SKU-4"))));
+        verify(invoiceService, times(5)).createInvoice(any(), any(), any());
+    }
+
+    private Product createProduct(String name, String sku, int stock) {
+        productRepository.findBySku(sku).ifPresent(productRepository::delete);
+        Product product = productRepository.save(new Product(name, sku, new BigDecimal("25.00"), UnitType.COUNT, "pc", stock, 0));
+        createdProducts.add(product);
+        return product;
+    }
+
+    private static InvoiceRequest basket(Map<String, Integer> quantitiesBySku) {
+        List<InvoiceItemRequest> items = new ArrayList<>();
+        quantitiesBySku.forEach((sku, quantity) -> {
+            InvoiceItemRequest item = new InvoiceItemRequest();
+            item.setProductSku(sku);
+            item.setQuantitySold(quantity);
+            items.add(item);
+        });
+
+        InvoiceRequest request = new InvoiceRequest();
+        request.setItems(items);
+        return request;
+    }
+}
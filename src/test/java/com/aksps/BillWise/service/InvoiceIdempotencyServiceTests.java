@@ -0,0 +1,224 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.model.IdempotencyKey;
+import com.aksps.BillWise.model.IdempotencyKeyId;
+import com.aksps.BillWise.repository.IdempotencyKeyRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Replay, key scoping and concurrency of idempotent invoice creation. InvoiceService, the only
+ * path to products and stock, is mocked, and the idempotency_keys table is a map that rejects
+ * duplicate keys like the primary key would.
+ */
+class InvoiceIdempotencyServiceTests {
+
+    private final InvoiceService invoiceService = mock(InvoiceService.class);
+    private final IdempotencyKeyRepository repository = mock(IdempotencyKeyRepository.class);
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final Map<IdempotencyKeyId, IdempotencyKey> table = new ConcurrentHashMap<>();
+    private final AtomicLong invoiceIds = new AtomicLong();
+
+    private InvoiceIdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(repository.findById(any())).thenAnswer(invocation -> Optional.ofNullable(table.get(invocation.getArgument(0))));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            IdempotencyKey key = invocation.getArgument(0);
+            if (table.putIfAbsent(key.getKey(), key) != null) {
+                throw new DataIntegrityViolationException("duplicate key value violates unique constraint");
+            }
+            return key;
+        });
+        when(invoiceService.createInvoice(any())).thenAnswer(invocation -> invoice(invoiceIds.incrementAndGet()));
+        service = newService();
+    }
+
+    @Test
+    void retriesReplayTheOriginalInvoiceWithoutCreatingAnother() {
+        InvoiceResponse first = service.createInvoice("cashier1", "till-7-0001", request("MILK", 2));
+        InvoiceResponse cached = service.createInvoice("cashier1", "till-7-0001", request("MILK", 2));
+        // A restarted node has an empty cache and replays from the table
+        InvoiceResponse stored = newService().createInvoice("cashier1", "till-7-0001", request("MILK", 2));
+
+        assertEquals(first, cached);
+        assertEquals(first, stored);
+        verify(invoiceService, times(1)).createInvoice(any());
+    }
+
+    @Test
+    void aKeyReusedForADifferentRequestIsRefused() {
+        service.createInvoice("cashier1", "till-7-0001", request("MILK", 2));
+
+        assertThrows(IllegalStateException.class, () -> service.createInvoice("cashier1", "till-7-0001", request("MILK", 3)));
+        assertThrows(IllegalStateException.class, () -> newService().createInvoice("cashier1", "till-7-0001", request("BREAD", 2)));
+        verify(invoiceService, times(1)).createInvoice(any());
+    }
+
+    @Test
+    void keysAreScopedToTheUser() {
+        InvoiceResponse first = service.createInvoice("cashier1", "0001", request("MILK", 2));
+        InvoiceResponse second = service.createInvoice("cashier2", "0001", request("MILK", 2));
+
+        assertEquals(1L, first.getId());
+        assertEquals(2L, second.getId());
+        verify(invoiceService, times(2)).createInvoice(any());
+    }
+
+    @Test
+    void concurrentRetriesShareOneExecution() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(invoiceService.createInvoice(any())).thenAnswer(invocation -> {
+            started.countDown();
+            assertTrue(release.await(10, TimeUnit.SECONDS));
+            return invoice(invoiceIds.incrementAndGet());
+        });
+
+        int retries = 8;
+        List<Thread> waiting = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(retries + 1);
+        try {
+            Future<InvoiceResponse> first = executor.submit(() -> service.createInvoice("cashier1", "0001", request("MILK", 2)));
+            assertTrue(started.await(10, TimeUnit.SECONDS));
+
+            List<Future<InvoiceResponse>> others = new ArrayList<>();
+            for (int i = 0; i < retries; i++) {
+                others.add(executor.submit(() -> {
+                    synchronized (waiting) {
+                        waiting.add(Thread.currentThread());
+                    }
+                    return service.createInvoice("cashier1", "0001", request("MILK", 2));
+                }));
+            }
+            // Hold the first execution until every retry is parked on it
+            awaitParked(waiting, retries);
+            release.countDown();
+
+            InvoiceResponse response = first.get(10, TimeUnit.SECONDS);
+            for (Future<InvoiceResponse> other : others) {
+                assertEquals(response, other.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        verify(invoiceService, times(1)).createInvoice(any());
+    }
+
+    @Test
+    void aKeyCommittedFirstOnAnotherNodeIsReplayed() {
+        IdempotencyKeyId id = new IdempotencyKeyId("cashier1", "0001");
+        InvoiceResponse winner = invoice(99L);
+        IdempotencyKey committed = stored(id, request("MILK", 2), winner);
+        // The other node commits between our lookup and our insert
+        when(invoiceService.createInvoice(any())).thenAnswer(invocation -> {
+            table.put(id, committed);
+            return invoice(invoiceIds.incrementAndGet());
+        });
+
+        InvoiceResponse response = service.createInvoice("cashier1", "0001", request("MILK", 2));
+
+        assertEquals(winner, response);
+        verify(transactionManager).rollback(any());
+        verify(transactionManager, never()).commit(any());
+    }
+
+    @Test
+    void aKeyCommittedFirstOnAnotherNodeForADifferentRequestIsRefused() {
+        IdempotencyKeyId id = new IdempotencyKeyId("cashier1", "0001");
+        IdempotencyKey committed = stored(id, request("BREAD", 1), invoice(99L));
+        when(invoiceService.createInvoice(any())).thenAnswer(invocation -> {
+            table.put(id, committed);
+            return invoice(invoiceIds.incrementAndGet());
+        });
+
+        assertThrows(IllegalStateException.class, () -> service.createInvoice("cashier1", "0001", request("MILK", 2)));
+        verify(transactionManager).rollback(any());
+    }
+
+    private InvoiceIdempotencyService newService() {
+        return new InvoiceIdempotencyService(invoiceService, repository, objectMapper, transactionManager, 100, 72);
+    }
+
+    // Stores the key as the other node would have: hashed and serialised by a service of its own
+    private IdempotencyKey stored(IdempotencyKeyId id, InvoiceRequest request, InvoiceResponse response) {
+        InvoiceService otherInvoiceService = mock(InvoiceService.class);
+        when(otherInvoiceService.createInvoice(any())).thenReturn(response);
+        IdempotencyKeyRepository otherRepository = mock(IdempotencyKeyRepository.class);
+        when(otherRepository.findById(any())).thenReturn(Optional.empty());
+        List<IdempotencyKey> saved = new ArrayList<>();
+        when(otherRepository.saveAndFlush(any())).thenAnswer(invocation -> {
+            saved.add(invocation.getArgument(0));
+            return invocation.getArgument(0);
+        });
+        PlatformTransactionManager otherTransactionManager = mock(PlatformTransactionManager.class);
+        when(otherTransactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        new InvoiceIdempotencyService(otherInvoiceService, otherRepository, objectMapper, otherTransactionManager, 100, 72)
+                .createInvoice(id.getPrincipal(), id.getKey(), request);
+        return saved.get(0);
+    }
+
+    private static void awaitParked(List<Thread> threads, int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            synchronized (threads) {
+                if (threads.size() == count && threads.stream().allMatch(t -> t.getState() == Thread.State.WAITING)) {
+                    return;
+                }
+            }
+            Thread.sleep(5);
+        }
+        throw new AssertionError("Retries did not wait on the running request");
+    }
+
+    private static InvoiceRequest request(String sku, int quantity) {
+        InvoiceItemRequest item = new InvoiceItemRequest();
+        item.setProductSku(sku);
+        item.setQuantitySold(quantity);
+        InvoiceRequest request = new InvoiceRequest();
+        request.setItems(List.of(item));
+        return request;
+    }
+
+    private static InvoiceResponse invoice(long id) {
+        InvoiceResponse response = new InvoiceResponse();
+        response.setId(id);
+        response.setInvoiceNumber("INV-MAIN-2627-" + String.format("%06d", id));
+        response.setInvoiceDate(LocalDateTime.of(2026, 10, 17, 12, 0));
+        return response;
+    }
+}
@@ -0,0 +1,138 @@
+package com.aksps.BillWise.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Verifies that InvoiceNumberAllocator stays unique under concurrency while only
+ * touching the database sequence once per block, and creating it only once.
+ */
+class InvoiceNumberAllocatorTests {
+
+    private static final int BLOCK_SIZE = 50;
+
+    // Stands in for a PostgreSQL sequence; it keeps the increment it was first created with
+    private final AtomicLong sequence = new AtomicLong(1);
+    private final AtomicInteger sequenceCalls = new AtomicInteger();
+    private final AtomicInteger incrementLookups = new AtomicInteger();
+    private volatile long sequenceIncrement = BLOCK_SIZE;
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private InvoiceNumberAllocator allocator;
+
+    @BeforeEach
+    void setUp() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class))).thenAnswer(invocation -> {
+            String sql = invocation.getArgument(0);
+            if (sql.contains("pg_sequences")) {
+                incrementLookups.incrementAndGet();
+                return sequenceIncrement;
+            }
+            sequenceCalls.incrementAndGet();
+            return sequence.getAndAdd(sequenceIncrement);
+        });
+        allocator = allocator(BLOCK_SIZE);
+    }
+
+    private InvoiceNumberAllocator allocator(int blockSize) {
+        return new InvoiceNumberAllocator(jdbcTemplate, "blr01", blockSize, 4);
+    }
+
+    @Test
+    void numbersAreUniqueAcrossConcurrentTills() throws Exception {
+        int tills = 16;
+        int invoicesPerTill = 20_000;
+        Set<Long> allocated = ConcurrentHashMap.newKeySet();
+
+        ExecutorService executor = Executors.newFixedThreadPool(tills);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < tills; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < invoicesPerTill; i++) {
+                        assertTrue(allocated.add(allocator.nextNumber("2526")), "Duplicate invoice number allocated");
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        int total = tills * invoicesPerTill;
+        assertEquals(total, allocated.size());
+        assertEquals(total / BLOCK_SIZE, sequenceCalls.get());
+    }
+
+    @Test
+    void allocatesOneMillionNumbersFromMemory() {
+        for (int i = 0; i < 1_000_000; i++) {
+            allocator.nextInvoiceNumber();
+        }
+
+        assertEquals(1_000_000 / BLOCK_SIZE, sequenceCalls.get());
+        // Refills after the first only call nextval
+        verify(jdbcTemplate, times(1)).execute(anyString());
+        assertEquals(1, incrementLookups.get());
+    }
+
+    @Test
+    void createsEachFinancialYearsSequenceOnce() {
+        for (int i = 0; i < 3 * BLOCK_SIZE; i++) {
+            allocator.nextNumber("2526");
+        }
+        allocator.nextNumber("2627");
+
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE SEQUENCE IF NOT EXISTS invoice_number_seq_blr01_2526 "));
+        verify(jdbcTemplate, times(1)).execute(startsWith("CREATE SEQUENCE IF NOT EXISTS invoice_number_seq_blr01_2627 "));
+        assertEquals(4, sequenceCalls.get());
+    }
+
+    @Test
+    void blocksFollowTheSequenceIncrementRatherThanTheConfiguredSize() {
+        // The sequence was created by a node configured with blocks of 50; this one is configured with 200
+        InvoiceNumberAllocator other = allocator(200);
+        Set<Long> allocated = ConcurrentHashMap.newKeySet();
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(allocated.add(allocator.nextNumber("2526")), "Duplicate invoice number allocated");
+            assertTrue(allocated.add(other.nextNumber("2526")), "Duplicate invoice number allocated");
+        }
+
+        assertEquals(2_000, allocated.size());
+        assertEquals(2_000 / BLOCK_SIZE, sequenceCalls.get());
+    }
+
+    @Test
+    void invoiceNumberCarriesStoreAndFinancialYear() {
+        String number = allocator.nextInvoiceNumber();
+
+        assertTrue(number.matches("INV-BLR01-\\d{4}-000001"), number);
+        assertEquals("2526", allocator.financialYearLabel(LocalDate.of(2025, 4, 1)));
+        assertEquals("2425", allocator.financialYearLabel(LocalDate.of(2025, 3, 31)));
+    }
+}
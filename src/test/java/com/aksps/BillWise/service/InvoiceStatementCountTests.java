@@ -0,0 +1,160 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Counts the statements issued by InvoiceService for baskets of different sizes.
+ * Product lookups must stay at a single query no matter how many lines the basket has, and so
+ * must reading an invoice back.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class InvoiceStatementCountTests {
+
+    private static final String SKU_PREFIX = "STMT-COUNT-";
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        for (int i = 0; i < 100; i++) {
+            productRepository.save(new Product("Statement Test " + i, SKU_PREFIX + i, new BigDecimal("10.00"), UnitType.COUNT, "pc", 1_000, 0));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void productLookupIsOneQueryRegardlessOfBasketSize() {
+        long singleLineQueries = countQueriesFor(basket(1, 1));
+        long sixtyLineQueries = countQueriesFor(basket(60, 1));
+
+        assertEquals(singleLineQueries, sixtyLineQueries);
+    }
+
+    @Test
+    void duplicateSkusAreMergedIntoOneLine() {
+        var response = invoiceService.createInvoice(basket(3, 4));
+
+        assertEquals(3, response.getItems().size());
+        assertEquals(4, response.getItems().get(0).getQuantitySold());
+    }
+
+    @Test
+    void readingAnInvoiceBackIsOneStatementRegardlessOfLineCount() {
+        var created = invoiceService.createInvoice(basket(40, 1));
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        var byId = invoiceService.getInvoiceResponseById(created.getId());
+        assertEquals(40, byId.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+
+        entityManager.clear();
+        statistics.clear();
+        var byNumber = invoiceService.getInvoiceResponseByNumber(created.getInvoiceNumber());
+        assertEquals(created.getId(), byNumber.getId());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void invoiceListingIsOneStatementPerPage() {
+        for (int i = 0; i < 5; i++) {
+            invoiceService.createInvoice(basket(3, 1));
+        }
+        entityManager.flush();
+        entityManager.clear();
+
+        statistics.clear();
+        var page = invoiceService.getInvoicesPage(null, 3, LocalDate.now(), LocalDate.now(), null);
+        assertEquals(3, page.getItems().size());
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    /**
+     * Repeatable measurement of statements per invoice size. With pooled sequence ids and
+     * JDBC batching the number of prepared statements must not grow with the number of lines.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {1, 10, 100})
+    void statementsPerInvoiceSize(int lines) {
+        // Warm up id blocks and statement caches so the measured run is representative
+        invoiceService.createInvoice(basket(lines, 1));
+        entityManager.flush();
+
+        statistics.clear();
+        invoiceService.createInvoice(basket(lines, 1));
+        entityManager.flush();
+
+        long statements = statistics.getPrepareStatementCount();
+
+        // product lookup, invoice insert, one item insert per JDBC batch and a few sequence calls
+        assertTrue(statements <= 10, "Expected a constant number of statements, got " + statements);
+        assertTrue(statistics.getEntityInsertCount() >= lines + 1, "Invoice and every line are inserted");
+    }
+
+    private long countQueriesFor(InvoiceRequest request) {
+        statistics.clear();
+        invoiceService.createInvoice(request);
+        entityManager.flush();
+
+        return statistics.getQueryExecutionCount();
+    }
+
+    /**
+     * Builds a basket of {@code distinctSkus} products, each scanned {@code repeats} times as separate lines.
+     */
+    private InvoiceRequest basket(int distinctSkus, int repeats) {
+        List<InvoiceItemRequest> items = new ArrayList<>();
+        for (int r = 0; r < repeats; r++) {
+            for (int i = 0; i < distinctSkus; i++) {
+                InvoiceItemRequest item = new InvoiceItemRequest();
+                item.setProductSku(SKU_PREFIX + i);
+                item.setQuantitySold(1);
+                items.add(item);
+            }
+        }
+
+        InvoiceRequest request = new InvoiceRequest();
+        request.setItems(items);
+        return request;
+    }
+}
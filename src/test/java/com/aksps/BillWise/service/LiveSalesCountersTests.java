@@ -0,0 +1,138 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.LiveProductSalesResponse;
+import com.aksps.BillWise.dto.response.LiveSalesResponse;
+import com.aksps.BillWise.model.Invoice;
+import com.aksps.BillWise.model.InvoiceCreatedEvent;
+import com.aksps.BillWise.model.InvoiceItem;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.service.PricingEngine.InvoiceCalculation;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * In-memory sales counting and flushing, with the database mocked out.
+ */
+class LiveSalesCountersTests {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+    private final ProductCatalogCache productCatalogCache = mock(ProductCatalogCache.class);
+    private final LiveSalesCounters counters = new LiveSalesCounters(jdbcTemplate, mock(PlatformTransactionManager.class),
+            productCatalogCache);
+
+    @Test
+    void concurrentSalesAreCountedExactlyOnceAcrossFlushes() throws Exception {
+        when(productCatalogCache.getById(anyLong())).thenReturn(Optional.empty());
+        int threads = 8;
+        int invoicesPerThread = 5_000;
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        List<Future<?>> tills = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            tills.add(executor.submit(() -> {
+                for (int i = 0; i < invoicesPerThread; i++) {
+                    counters.onInvoiceCreated(sale());
+                }
+            }));
+        }
+        // Flush while the tills are busy, as the scheduler would
+        while (!tills.stream().allMatch(Future::isDone)) {
+            counters.flush();
+        }
+        for (Future<?> till : tills) {
+            till.get();
+        }
+        executor.shutdown();
+        counters.flush();
+
+        int invoices = threads * invoicesPerThread;
+        LiveSalesResponse live = counters.today(10);
+        assertEquals(3L * invoices, live.getUnitsSold());
+        assertEquals(new BigDecimal("13.75").multiply(BigDecimal.valueOf(invoices)).setScale(2), live.getRevenue());
+        assertEquals(2, live.getProductCount());
+        LiveProductSalesResponse top = live.getProducts().get(0);
+        assertEquals(1L, top.getProductId());
+        assertEquals(2L * invoices, top.getUnitsSold());
+        assertEquals(invoices, top.getInvoiceCount());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void salesFromAFailedFlushGoOutWithTheNextOne() {
+        when(jdbcTemplate.batchUpdate(anyString(), anyCollection(), anyInt(), any()))
+                .thenThrow(new QueryTimeoutException("Database unavailable"));
+        counters.onInvoiceCreated(sale());
+        counters.flush();
+
+        assertEquals(3L, counters.today(10).getUnitsSold());
+
+        reset(jdbcTemplate);
+        counters.onInvoiceCreated(sale());
+        counters.flush();
+
+        // Both products, with both sales, in a single batch
+        verify(jdbcTemplate, times(1)).batchUpdate(anyString(), argThat((Collection<Object> batch) -> batch.size() == 2),
+                eq(500), any());
+        assertEquals(6L, counters.today(10).getUnitsSold());
+    }
+
+    @Test
+    void revenueIsNetOfTheInvoiceDiscountShare() {
+        when(productCatalogCache.getById(anyLong())).thenReturn(Optional.empty());
+        // 100.00 gross, 20% promotion, then 10% off the whole invoice: 72.00 taxable
+        PricingEngine engine = new PricingEngine(RoundingMode.HALF_UP, RoundingMode.HALF_UP, RoundingMode.HALF_UP, 500);
+        InvoiceCalculation calculation = engine.newInvoice(PricingEngine.toBasisPoints(10.0));
+        long lineTotal = calculation.addLine(PricingEngine.toPriceUnits(new BigDecimal("25.00")), 4, 2000, 500);
+
+        Product product = new Product();
+        product.setId(1L);
+        InvoiceItem item = new InvoiceItem();
+        item.setProduct(product);
+        item.setQuantitySold(4);
+        item.setLineTotal(PricingEngine.fromPaise(lineTotal));
+        item.setItemDiscount(PricingEngine.fromPaise(calculation.getLastItemDiscount()));
+        item.setLineDiscount(PricingEngine.fromPaise(calculation.getLastLineDiscount()));
+        Invoice invoice = new Invoice();
+        invoice.getItems().add(item);
+
+        counters.onInvoiceCreated(InvoiceCreatedEvent.of(invoice));
+
+        LiveSalesResponse live = counters.today(10);
+        assertEquals(new BigDecimal("72.00"), live.getRevenue());
+        assertEquals(new BigDecimal("72.00"), live.getProducts().get(0).getRevenue());
+    }
+
+    // Two units of product 1 for 10.50 and one of product 2 for 3.25
+    private static InvoiceCreatedEvent sale() {
+        return new InvoiceCreatedEvent(LocalDateTime.now(), List.of(
+                new InvoiceCreatedEvent.Line(1L, 2, new BigDecimal("10.50")),
+                new InvoiceCreatedEvent.Line(2L, 1, new BigDecimal("3.25"))));
+    }
+}
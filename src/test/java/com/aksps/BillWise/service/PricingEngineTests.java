@@ -0,0 +1,86 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.service.PricingEngine.InvoiceCalculation;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Checks the fixed-point pricing engine against a BigDecimal reference implementation.
+ */
+class PricingEngineTests {
+
+    private final PricingEngine engine = new PricingEngine(RoundingMode.HALF_UP, RoundingMode.HALF_UP, RoundingMode.HALF_UP, 1800);
+
+    @Test
+    void pricesAFractionalPaisaUnitPrice() {
+        // 45 rupees per kg sold by the gram: 750 g at 0.045/g
+        InvoiceCalculation calculation = engine.newInvoice(0);
+        long lineTotal = calculation.addLine(PricingEngine.toPriceUnits(new BigDecimal("0.045")), 750);
+
+        assertEquals(3375, lineTotal);                 // 33.75
+        assertEquals(608, calculation.getTotalTax());   // 6.075 rounded half-up
+        assertEquals(3983, calculation.getGrandTotal());
+    }
+
+    @Test
+    void appliesInvoiceDiscountBeforeTax() {
+        InvoiceCalculation calculation = engine.newInvoice(PricingEngine.toBasisPoints(10.0));
+        calculation.addLine(PricingEngine.toPriceUnits(new BigDecimal("99.99")), 3);
+
+        assertEquals(29997, calculation.getSubTotal());
+        assertEquals(3000, calculation.getTotalDiscount());
+        assertEquals(4859, calculation.getTotalTax());
+        assertEquals(29997 - 3000 + 4859, calculation.getGrandTotal());
+    }
+
+    @Test
+    void appliesItemDiscountBeforeInvoiceDiscountAndLineTax() {
+        InvoiceCalculation calculation = engine.newInvoice(PricingEngine.toBasisPoints(10.0));
+        // 100.00 gross, 20% promotion, then 10% invoice discount, taxed at 5%
+        calculation.addLine(PricingEngine.toPriceUnits(new BigDecimal("25.00")), 4, 2000, 500);
+
+        assertEquals(2000, calculation.getLastItemDiscount());
+        assertEquals(2800, calculation.getLastLineDiscount());
+        assertEquals(360, calculation.getLastLineTax());
+        assertEquals(10000 - 2800 + 360, calculation.getGrandTotal());
+    }
+
+    @Test
+    void roundsWithTheConfiguredMode() {
+        assertEquals(2, PricingEngine.divide(25, 10, RoundingMode.HALF_EVEN));
+        assertEquals(3, PricingEngine.divide(25, 10, RoundingMode.HALF_UP));
+        assertEquals(2, PricingEngine.divide(25, 10, RoundingMode.HALF_DOWN));
+        assertEquals(3, PricingEngine.divide(21, 10, RoundingMode.UP));
+        assertEquals(2, PricingEngine.divide(29, 10, RoundingMode.DOWN));
+    }
+
+    /**
+     * Large baskets must match an exact BigDecimal computation to the paisa,
+     * which the previous summed-double arithmetic did not guarantee.
+     */
+    @ParameterizedTest
+    @ValueSource(ints = {10, 100, 1000})
+    void matchesBigDecimalReferenceOnLargeBaskets(int lines) {
+        InvoiceCalculation calculation = engine.newInvoice(PricingEngine.toBasisPoints(7.5));
+
+        BigDecimal referenceTotal = BigDecimal.ZERO;
+        for (int i = 0; i < lines; i++) {
+            BigDecimal unitPrice = new BigDecimal("0.1").add(new BigDecimal(i).movePointLeft(3));
+            int quantity = 1 + i % 7;
+            calculation.addLine(PricingEngine.toPriceUnits(unitPrice), quantity);
+
+            BigDecimal gross = unitPrice.multiply(BigDecimal.valueOf(quantity)).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal discount = gross.multiply(new BigDecimal("0.075")).setScale(2, RoundingMode.HALF_UP);
+            BigDecimal tax = gross.subtract(discount).multiply(new BigDecimal("0.18")).setScale(2, RoundingMode.HALF_UP);
+            referenceTotal = referenceTotal.add(gross).subtract(discount).add(tax);
+        }
+
+        assertEquals(referenceTotal, PricingEngine.fromPaise(calculation.getGrandTotal()));
+    }
+}
@@ -0,0 +1,65 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.TaxRate;
+import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.repository.PromotionRepository;
+import com.aksps.BillWise.repository.TaxRateRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.math.RoundingMode;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Recompiling the rule table while another compile is still reading, with the repositories mocked.
+ */
+class PricingRuleServiceTests {
+
+    private final TaxRateRepository taxRateRepository = mock(TaxRateRepository.class);
+    private final PromotionRepository promotionRepository = mock(PromotionRepository.class);
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+
+    private final PricingRuleService service = new PricingRuleService(taxRateRepository, promotionRepository, productRepository,
+            new PricingEngine(RoundingMode.HALF_UP, RoundingMode.HALF_UP, RoundingMode.HALF_UP, 1800), transactionManager);
+
+    @Test
+    void aSlowRefreshDoesNotOverwriteTheRulesOfALaterChange() throws Exception {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        when(productRepository.findDistinctHsnCodes()).thenReturn(List.of());
+        when(promotionRepository.findNotEndedBefore(any())).thenReturn(List.of());
+
+        CountDownLatch refreshReading = new CountDownLatch(1);
+        CountDownLatch changeCompiled = new CountDownLatch(1);
+        // The refresh reads the 5% slab, then stalls until the recompile after the change to 12% has finished
+        when(taxRateRepository.findAll()).thenAnswer(invocation -> {
+            refreshReading.countDown();
+            assertTrue(changeCompiled.await(10, TimeUnit.SECONDS));
+            return List.of(slab("04", 500));
+        }).thenReturn(List.of(slab("04", 1200)));
+
+        CompletableFuture<Void> refresh = CompletableFuture.runAsync(service::refreshPeriodically);
+        assertTrue(refreshReading.await(10, TimeUnit.SECONDS));
+        service.recompile();
+        assertEquals(1200, service.currentTable().taxBasisPoints("0401"));
+
+        changeCompiled.countDown();
+        refresh.get(10, TimeUnit.SECONDS);
+
+        assertEquals(1200, service.currentTable().taxBasisPoints("0401"));
+    }
+
+    private static TaxRate slab(String hsnPrefix, int rateBasisPoints) {
+        return new TaxRate(null, hsnPrefix, rateBasisPoints, null);
+    }
+}
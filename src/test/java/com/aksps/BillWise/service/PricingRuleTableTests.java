@@ -0,0 +1,41 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.service.PricingRuleTable.PromotionWindows;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Lookups on the precompiled tax and promotion table.
+ */
+class PricingRuleTableTests {
+
+    private final Map<String, Long> slabs = Map.of("04", 500L, "0402", 1200L, "8517", 1800L);
+
+    private final PricingRuleTable table = new PricingRuleTable(
+            1800,
+            Map.of("04021010", PricingRuleTable.resolveByPrefix("04021010", slabs, 1800)),
+            slabs,
+            Map.of(7L, new PromotionWindows(new long[]{1_000, 1_500}, new long[]{2_000, 3_000}, new long[]{500, 1000})));
+
+    @Test
+    void resolvesTheLongestMatchingHsnPrefix() {
+        assertEquals(1200, table.taxBasisPoints("04021010"));
+        // Not pre-resolved (added after compilation): falls back to a prefix walk
+        assertEquals(500, table.taxBasisPoints("04011000"));
+        assertEquals(1800, table.taxBasisPoints("9999"));
+        assertEquals(1800, table.taxBasisPoints(null));
+    }
+
+    @Test
+    void picksTheBestPromotionRunningAtSaleTime() {
+        assertEquals(0, table.discountBasisPoints(7L, 999));
+        assertEquals(500, table.discountBasisPoints(7L, 1_200));
+        assertEquals(1000, table.discountBasisPoints(7L, 1_800));
+        assertEquals(1000, table.discountBasisPoints(7L, 2_500));
+        assertEquals(0, table.discountBasisPoints(7L, 3_000));
+        assertEquals(0, table.discountBasisPoints(8L, 1_800));
+    }
+}
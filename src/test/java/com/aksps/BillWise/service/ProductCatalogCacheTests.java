@@ -0,0 +1,115 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.ProductChangedEvent;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.ProductRepository;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import com.aksps.BillWise.repository.ProductStockRepository.StockDecrement;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Cache behaviour outside a transaction, with the repository mocked.
+ */
+class ProductCatalogCacheTests {
+
+    private final ProductRepository productRepository = mock(ProductRepository.class);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final CatalogVersion catalogVersion = new CatalogVersion(Duration.ofMinutes(10));
+    private final ProductCatalogCache cache = new ProductCatalogCache(productRepository, catalogVersion, meterRegistry, 1_000, Duration.ofMinutes(10));
+
+    @Test
+    void servesRepeatedSkuLookupsFromMemory() {
+        Product sugar = product(1L, "SUGAR-1KG");
+        when(productRepository.findSnapshotsBySkuIn(List.of("SUGAR-1KG"))).thenReturn(List.of(ProductSnapshot.of(sugar)));
+
+        cache.getBySkus(List.of("SUGAR-1KG"));
+        Map<String, ProductSnapshot> second = cache.getBySkus(List.of("SUGAR-1KG"));
+
+        assertEquals(1L, second.get("SUGAR-1KG").id());
+        verify(productRepository, times(1)).findSnapshotsBySkuIn(List.of("SUGAR-1KG"));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "products.by-id").tag("result", "hit").functionCounter().count());
+    }
+
+    @Test
+    void reloadsAfterAProductChange() {
+        Product sugar = product(1L, "SUGAR-1KG");
+        when(productRepository.findSnapshotById(1L)).thenReturn(Optional.of(ProductSnapshot.of(sugar)));
+
+        cache.getById(1L);
+        cache.onProductChanged(ProductChangedEvent.of(sugar, false));
+        cache.getById(1L);
+
+        verify(productRepository, times(2)).findSnapshotById(1L);
+    }
+
+    @Test
+    void aSkuReusedByANewProductIsNotServedFromTheOldEntry() {
+        Product milk = product(1L, "MILK-1L");
+        when(productRepository.findSnapshotsBySkuIn(List.of("MILK-1L"))).thenReturn(List.of(ProductSnapshot.of(milk)));
+        cache.getBySkus(List.of("MILK-1L"));
+
+        // The product is deleted and the SKU re-created under a new id
+        cache.onProductChanged(ProductChangedEvent.of(milk, true));
+        when(productRepository.findSnapshotsBySkuIn(List.of("MILK-1L"))).thenReturn(List.of(ProductSnapshot.of(product(2L, "MILK-1L"))));
+
+        assertEquals(2L, cache.getBySkus(List.of("MILK-1L")).get("MILK-1L").id());
+    }
+
+    @Test
+    void anEntryLoadedBeforeAChangeIsNotServedAfterIt() {
+        // The row is read, then another transaction commits a change before the slow load stores it
+        when(productRepository.findSnapshotById(1L)).thenAnswer(invocation -> {
+            Product stale = product(1L, "TEA-250G");
+            catalogVersion.productChanged(1L);
+            return Optional.of(ProductSnapshot.of(stale));
+        });
+        String eTagBeforeChange = catalogVersion.productETag(1L);
+        cache.getById(1L);
+        assertNotEquals(eTagBeforeChange, catalogVersion.productETag(1L));
+
+        cache.getById(1L);
+
+        verify(productRepository, times(2)).findSnapshotById(1L);
+    }
+
+    @Test
+    void reloadsSoldProductsAfterTheSaleCommits() {
+        Product rice = product(1L, "RICE-5KG");
+        when(productRepository.findSnapshotById(1L)).thenReturn(Optional.of(ProductSnapshot.of(rice)));
+        cache.getById(1L);
+
+        // Another thread's load lands between the commit and the callback: new stock, stamped before the sale
+        rice.setCurrentStock(97);
+        when(productRepository.findSnapshotById(1L)).thenReturn(Optional.of(ProductSnapshot.of(rice)));
+        cache.refresh(1L);
+        cache.evictSoldProductsAfterCommit(List.of(new StockDecrement(1L, 3)));
+
+        Optional<ProductSnapshot> snapshot = cache.getById(1L);
+        assertTrue(snapshot.isPresent());
+        assertEquals(97, snapshot.get().currentStock());
+        verify(productRepository, times(3)).findSnapshotById(1L);
+        assertEquals(1, catalogVersion.productVersion(1L));
+    }
+
+    private static Product product(Long id, String sku) {
+        Product product = new Product("Product " + id, sku, new BigDecimal("1.0000"), UnitType.COUNT, "pc", 100, 5);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,94 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.ProductRequest;
+import com.aksps.BillWise.dto.response.ProductChangeResponse;
+import com.aksps.BillWise.dto.response.ProductChangesResponse;
+import com.aksps.BillWise.dto.response.ProductResponse;
+import com.aksps.BillWise.model.UnitType;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Delta sync against the real database. The cursor is a transaction id horizon, so the changes
+ * under test have to commit; the test deletes the product it creates.
+ */
+@SpringBootTest
+class ProductChangeLogTests {
+
+    private static final String SKU = "SYNC-TEST-SKU";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductChangeLog productChangeLog;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void syncsUpsertsAndTombstonesSinceTheCursor() {
+        long cursor = currentCursor();
+
+        ProductResponse created = productService.createProduct(request(new BigDecimal("42.0000")));
+        productService.updateProduct(created.getId(), request(new BigDecimal("45.5000")));
+
+        // Two changes, one upsert carrying the latest state
+        ProductChangesResponse delta = productChangeLog.changesSince(cursor, 100);
+        ProductChangeResponse change = only(delta, created.getId());
+        assertFalse(change.isDeleted());
+        assertEquals(0, new BigDecimal("45.5000").compareTo(change.getProduct().getSellingPricePerBaseUnit()));
+
+        // Nothing new since the returned cursor
+        assertTrue(productChangeLog.changesSince(delta.getNextSince(), 100).getChanges().stream()
+                .noneMatch(c -> c.getProductId().equals(created.getId())));
+
+        productService.deleteProduct(created.getId());
+        ProductChangeResponse tombstone = only(productChangeLog.changesSince(delta.getNextSince(), 100), created.getId());
+        assertTrue(tombstone.isDeleted());
+
+        productChangeLog.compact();
+        Integer entries = jdbcTemplate.queryForObject("SELECT COUNT(*) FROM product_changes WHERE product_id = ?",
+                Integer.class, created.getId());
+        assertEquals(1, entries);
+    }
+
+    private long currentCursor() {
+        long since = 0;
+        ProductChangesResponse page;
+        do {
+            page = productChangeLog.changesSince(since, 5000);
+            since = page.getNextSince();
+        } while (page.isHasMore());
+        return since;
+    }
+
+    private static ProductChangeResponse only(ProductChangesResponse delta, Long productId) {
+        List<ProductChangeResponse> changes = delta.getChanges().stream()
+                .filter(change -> change.getProductId().equals(productId))
+                .toList();
+        assertEquals(1, changes.size());
+        return changes.get(0);
+    }
+
+    private static ProductRequest request(BigDecimal price) {
+        ProductRequest request = new ProductRequest();
+        request.setName("Sync Test Product");
+        request.setSku(SKU);
+        request.setSellingPricePerBaseUnit(price);
+        request.setUnitType(UnitType.COUNT);
+        request.setBaseUnit("pc");
+        request.setCurrentStock(10);
+        request.setMinStockLevel(0);
+        return request;
+    }
+}
@@ -0,0 +1,169 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.ProductSuggestion;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.ProductChangedEvent;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.service.ProductSearchIndex.IndexedProduct;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Ranking, typo tolerance and incremental maintenance of the search index, and complete results at 100k SKUs.
+ * The latency at that size is a benchmark, run with {@code ./gradlew benchmark}.
+ */
+class ProductSearchIndexTests {
+
+    private final ProductSearchIndex index = new ProductSearchIndex(mock(JdbcTemplate.class));
+
+    @Test
+    void ranksExactSkuThenSkuPrefixThenNamePrefix() {
+        index.onProductChanged(ProductChangedEvent.of(product(1L, "Sugar Cubes", "CUBE-500G"), false));
+        index.onProductChanged(ProductChangedEvent.of(product(2L, "Brown Sugar", "SUGAR-BRN"), false));
+        index.onProductChanged(ProductChangedEvent.of(product(3L, "Sugar", "SUGAR"), false));
+        index.onProductChanged(ProductChangedEvent.of(product(4L, "Salt", "SALT-1KG"), false));
+
+        assertEquals(List.of(3L, 2L, 1L), ids(index.search("sugar", 10)));
+        assertEquals(List.of(4L), ids(index.search("salt-1kg", 10)));
+        assertEquals(List.of(2L), ids(index.search("sug brown", 10)));
+    }
+
+    @Test
+    void findsInfixAndMisspeltNames() {
+        index.onProductChanged(ProductChangedEvent.of(product(1L, "Basmati Rice", "RICE-BAS-5KG"), false));
+        index.onProductChanged(ProductChangedEvent.of(product(2L, "Toor Dal", "DAL-TOOR-1KG"), false));
+
+        assertEquals(List.of(1L), ids(index.search("basmti", 10)));
+        assertEquals(List.of(1L), ids(index.search("smat", 10)));
+    }
+
+    @Test
+    void followsRenamesAndDeletes() {
+        Product product = product(1L, "Green Tea", "TEA-GRN");
+        index.onProductChanged(ProductChangedEvent.of(product, false));
+
+        product.setName("Masala Chai");
+        index.onProductChanged(ProductChangedEvent.of(product, false));
+        assertTrue(index.search("green", 10).isEmpty());
+        assertEquals(List.of(1L), ids(index.search("chai", 10)));
+
+        index.onProductChanged(ProductChangedEvent.of(product, true));
+        assertTrue(index.search("chai", 10).isEmpty());
+        assertTrue(index.search("tea-grn", 10).isEmpty());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void keepsChangesCommittedWhileTheStartupBuildLoads() {
+        JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+        ProductSearchIndex building = new ProductSearchIndex(jdbcTemplate);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class))).thenAnswer(invocation -> {
+            // Both changes commit after the load has read its snapshot
+            building.onProductChanged(ProductChangedEvent.of(product(2L, "Green Tea", "TEA-GRN"), false));
+            building.onProductChanged(ProductChangedEvent.of(product(1L, "Masala Chai", "TEA-CHAI"), true));
+            return List.of(IndexedProduct.of(1L, "Masala Chai", "TEA-CHAI", new BigDecimal("1.0000"), UnitType.COUNT, "pc"));
+        });
+
+        building.buildOnStartup();
+
+        assertTrue(building.search("chai", 10).isEmpty());
+        assertEquals(List.of(2L), ids(building.search("green", 10)));
+    }
+
+    @Test
+    void findsEveryPrefixMatchOfMultiWordQueriesAtOneHundredThousandSkus() {
+        List<IndexedProduct> products = catalog();
+        index.replaceAll(products);
+
+        // Each first word matches about 10,000 products; only a handful match all of the query
+        for (String query : new String[]{"tata ghee 50", "hald namk 45", "amul but", "fortune oil", "jagg 1"}) {
+            List<String> queryWords = ProductSearchIndex.words(query);
+            List<Long> expected = products.stream()
+                    .filter(product -> product.matchesAll(queryWords, Map.of()))
+                    .map(IndexedProduct::id)
+                    .toList();
+            assertFalse(expected.isEmpty(), query);
+
+            List<Long> found = ids(index.search(query, 10));
+            assertEquals(Math.min(10, expected.size()), found.size(), query);
+            assertTrue(expected.containsAll(found), query);
+            if (expected.size() < 100) {
+                List<Long> all = ids(index.search(query, 100));
+                assertEquals(new HashSet<>(expected), new HashSet<>(all.subList(0, Math.min(all.size(), expected.size()))), query);
+            }
+        }
+        // Nothing matches every word, so the typo pass has to find the misspelt one
+        assertEquals(10, index.search("tata gheee", 10).size());
+        assertEquals(4217L, index.search(products.get(4216).sku(), 10).get(0).getId());
+    }
+
+    @Test
+    @Tag("benchmark")
+    void answersTypeAheadQueriesAtOneHundredThousandSkus(TestReporter reporter) {
+        index.replaceAll(catalog());
+
+        String[] queries = {"t", "ta", "tat", "tata at", "basm", "basmti", "sunflwer", "amul but", "TAT-4217", "ghee 50",
+                "hald namk", "jagery", "corn", "pickel", "fortune oil", "green t"};
+        for (int warmup = 0; warmup < 20_000; warmup++) {
+            index.search(queries[warmup % queries.length], 10);
+        }
+
+        long[] latencies = new long[50_000];
+        for (int i = 0; i < latencies.length; i++) {
+            long startedAt = System.nanoTime();
+            List<ProductSuggestion> result = index.search(queries[i % queries.length], 10);
+            latencies[i] = System.nanoTime() - startedAt;
+            assertTrue(result.size() <= 10);
+        }
+        Arrays.sort(latencies);
+        double p99Millis = latencies[latencies.length * 99 / 100] / 1_000_000.0;
+        reporter.publishEntry("p99Millis", String.format("%.3f", p99Millis));
+        assertTrue(p99Millis < 1.0, "Search p99 over 100,000 SKUs was " + p99Millis + " ms");
+    }
+
+    // 100,000 products over 10 brands and 20 items in 100 pack sizes
+    private static List<IndexedProduct> catalog() {
+        String[] brands = {"Tata", "Aashirvaad", "Fortune", "Amul", "Britannia", "Parle", "Haldiram", "Saffola", "Dabur", "Patanjali"};
+        String[] items = {"Atta", "Basmati Rice", "Sunflower Oil", "Butter", "Biscuits", "Namkeen", "Honey", "Toor Dal", "Salt", "Sugar",
+                "Green Tea", "Cheese", "Ghee", "Poha", "Besan", "Jaggery", "Cornflakes", "Noodles", "Ketchup", "Pickle"};
+        Random random = new Random(42);
+        List<IndexedProduct> products = new ArrayList<>();
+        for (long id = 1; id <= 100_000; id++) {
+            String brand = brands[random.nextInt(brands.length)];
+            String item = items[random.nextInt(items.length)];
+            int size = 50 * (1 + random.nextInt(100));
+            products.add(IndexedProduct.of(id, brand + " " + item + " " + size + "g",
+                    brand.substring(0, 3).toUpperCase() + "-" + id, new BigDecimal("0.1000"), UnitType.WEIGHT, "g"));
+        }
+        return products;
+    }
+
+    private static List<Long> ids(List<ProductSuggestion> suggestions) {
+        return suggestions.stream().map(ProductSuggestion::getId).toList();
+    }
+
+    private static Product product(Long id, String name, String sku) {
+        Product product = new Product(name, sku, new BigDecimal("1.0000"), UnitType.COUNT, "pc", 100, 5);
+        product.setId(id);
+        return product;
+    }
+}
@@ -0,0 +1,161 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.dto.response.InvoiceItemResponse;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.dto.response.ProductResponse;
+import com.aksps.BillWise.model.Invoice;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.ProductRepository;
+import jakarta.persistence.EntityManager;
+import org.hibernate.FlushMode;
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Heap allocated per read request, loading entities and mapping them (the way the read endpoints used
+ * to work) against selecting straight into the response DTOs. The session is switched to read-only,
+ * manual-flush mode as in the services' read-only transactions, and cleared after every request like a
+ * request-scoped persistence context. Measured with the JVM's per-thread allocation counter.
+ */
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Transactional
+class ReadProjectionAllocationBenchmarkTests {
+
+    private static final String SKU_PREFIX = "ALLOC-BENCH-";
+    private static final int PAGE_SIZE = 50;
+    private static final int INVOICE_LINES = 20;
+    private static final int WARMUP = 500;
+    private static final int REQUESTS = 2_000;
+
+    private static final String ENTITY_PAGE_JPQL = """
+            SELECT p FROM Product p
+            WHERE p.id > :afterId
+              AND (:unitType IS NULL OR p.unitType = :unitType)
+              AND (:lowStockOnly = false OR p.currentStock <= p.minStockLevel)
+              AND (:namePattern IS NULL OR LOWER(p.name) LIKE :namePattern ESCAPE '\\')
+            ORDER BY p.id
+            """;
+
+    private static final String ENTITY_INVOICE_JPQL = """
+            SELECT DISTINCT i FROM Invoice i
+            LEFT JOIN FETCH i.customer LEFT JOIN FETCH i.items ii LEFT JOIN FETCH ii.product
+            WHERE i.id = :id
+            """;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    private Long invoiceId;
+
+    @BeforeEach
+    void setUp() {
+        List<InvoiceItemRequest> items = new ArrayList<>();
+        for (int i = 0; i < PAGE_SIZE + 1; i++) {
+            productRepository.save(new Product("Allocation Bench " + i, SKU_PREFIX + i, new BigDecimal("12.50"), UnitType.COUNT, "pc", 1_000, 0));
+            if (i < INVOICE_LINES) {
+                InvoiceItemRequest item = new InvoiceItemRequest();
+                item.setProductSku(SKU_PREFIX + i);
+                item.setQuantitySold(1);
+                items.add(item);
+            }
+        }
+        InvoiceRequest request = new InvoiceRequest();
+        request.setItems(items);
+        invoiceId = invoiceService.createInvoice(request).getId();
+        entityManager.flush();
+        entityManager.clear();
+
+        Session session = entityManager.unwrap(Session.class);
+        session.setDefaultReadOnly(true);
+        session.setHibernateFlushMode(FlushMode.MANUAL);
+    }
+
+    @Test
+    void productPageAllocatesLessAsAProjection() {
+        long before = bytesPerRequest(this::productPageFromEntities);
+        long after = bytesPerRequest(() -> productService.getProductsPage(null, PAGE_SIZE, null, false, null));
+
+        assertEquals(productPageFromEntities(), productService.getProductsPage(null, PAGE_SIZE, null, false, null).getItems());
+        assertTrue(after < before, "Projection allocated " + after + " bytes, entity loading " + before);
+    }
+
+    @Test
+    void invoiceReadAllocatesLessAsAProjection() {
+        long before = bytesPerRequest(this::invoiceFromEntities);
+        long after = bytesPerRequest(() -> invoiceService.getInvoiceResponseById(invoiceId));
+
+        // Same content; the entity path does not order the lines, so compare the line count
+        InvoiceResponse projected = invoiceService.getInvoiceResponseById(invoiceId);
+        assertEquals(INVOICE_LINES, projected.getItems().size());
+        assertEquals(invoiceFromEntities().getGrandTotal(), projected.getGrandTotal());
+        assertTrue(after < before, "Projection allocated " + after + " bytes, entity loading " + before);
+    }
+
+    private long bytesPerRequest(Supplier<?> request) {
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        for (int i = 0; i < WARMUP; i++) {
+            request.get();
+            entityManager.clear();
+        }
+        long start = threads.getCurrentThreadAllocatedBytes();
+        for (int i = 0; i < REQUESTS; i++) {
+            request.get();
+            entityManager.clear();
+        }
+        return (threads.getCurrentThreadAllocatedBytes() - start) / REQUESTS;
+    }
+
+    private List<ProductResponse> productPageFromEntities() {
+        return entityManager.createQuery(ENTITY_PAGE_JPQL, Product.class)
+                .setParameter("afterId", 0L)
+                .setParameter("unitType", null)
+                .setParameter("lowStockOnly", false)
+                .setParameter("namePattern", null)
+                .setMaxResults(PAGE_SIZE + 1)
+                .getResultStream()
+                .limit(PAGE_SIZE)
+                .map(p -> new ProductResponse(p.getId(), p.getName(), p.getSku(), p.getSellingPricePerBaseUnit(),
+                        p.getUnitType(), p.getBaseUnit(), p.getCurrentStock(), p.getHsnCode()))
+                .toList();
+    }
+
+    private InvoiceResponse invoiceFromEntities() {
+        Invoice invoice = entityManager.createQuery(ENTITY_INVOICE_JPQL, Invoice.class)
+                .setParameter("id", invoiceId)
+                .getSingleResult();
+        List<InvoiceItemResponse> items = invoice.getItems().stream()
+                .map(item -> new InvoiceItemResponse(item.getProduct().getName(), item.getProduct().getSku(),
+                        item.getQuantitySold(), item.getUnitPriceAtSale(), item.getLineTotal(),
+                        item.getItemDiscount(), item.getLineTax(), item.getTaxRateBasisPoints()))
+                .toList();
+        return new InvoiceResponse(invoice.getId(), invoice.getInvoiceNumber(), invoice.getInvoiceDate(),
+                invoice.getCustomer() != null ? invoice.getCustomer().getName() : "Anonymous",
+                invoice.getCustomer() != null ? invoice.getCustomer().getContactNumber() : null,
+                items, invoice.getSubTotal(), invoice.getTotalDiscount(), invoice.getTotalTax(), invoice.getGrandTotal());
+    }
+}
@@ -0,0 +1,121 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.InvoiceItemResponse;
+import com.aksps.BillWise.dto.response.InvoiceResponse;
+import com.aksps.BillWise.service.ReceiptService.Format;
+import com.aksps.BillWise.service.ReceiptService.GstLines;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Receipt layout and rendering throughput, without Spring or a database.
+ */
+class ReceiptServiceTests {
+
+    private final ReceiptService receiptService = new ReceiptService("Sharma General Store",
+            "12, MG Road, Pune|Ph: 98220 00000", "27ABCDE1234F1Z5", "Thank you! Visit again.", 32, GstLines.SPLIT);
+
+    @Test
+    void textReceiptFitsThePaperAndSplitsGst() throws IOException {
+        String receipt = render(invoice(2), Format.TEXT);
+
+        for (String line : receipt.split("\n")) {
+            assertTrue(line.length() <= 32, "Line wider than the paper: '" + line + "'");
+        }
+        assertTrue(receipt.contains("GSTIN: 27ABCDE1234F1Z5"));
+        assertTrue(receipt.contains("Date: 05-04-2025 09:07"));
+        assertTrue(receipt.contains("Customer: Asha 9876543210"));
+        assertTrue(receipt.contains("Loose Sugar"));
+        assertTrue(receipt.contains("0.045"), "Prices keep their significant decimals");
+        assertTrue(receipt.contains("CGST @ 2.5%"));
+        assertTrue(receipt.contains("SGST @ 9%"));
+        assertTrue(receipt.lines().anyMatch(line -> line.startsWith("TOTAL") && line.endsWith("188.85")));
+    }
+
+    @Test
+    void escPosReceiptIsAsciiWithPrinterCommands() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        InvoiceResponse invoice = invoice(1);
+        invoice.getItems().get(0).setProductName("चीनी Sugar");
+        receiptService.render(invoice, Format.ESCPOS, out);
+        byte[] bytes = out.toByteArray();
+
+        assertEquals(0x1B, bytes[0]);
+        assertEquals('@', bytes[1]);
+        assertEquals(0x1D, bytes[bytes.length - 4], "Ends with a paper cut");
+        for (byte b : bytes) {
+            assertTrue(b >= 0, "Only ASCII goes to the printer");
+        }
+        assertTrue(new String(bytes, StandardCharsets.US_ASCII).contains("???? Sugar"));
+    }
+
+    @Test
+    void htmlReceiptEscapesText() throws IOException {
+        InvoiceResponse invoice = invoice(1);
+        invoice.getItems().get(0).setProductName("Salt & <Pepper>");
+
+        String receipt = render(invoice, Format.HTML);
+
+        assertTrue(receipt.startsWith("<!DOCTYPE html>"));
+        assertTrue(receipt.contains("<td>Salt &amp; &lt;Pepper&gt;</td>"));
+        assertFalse(receipt.contains("<Pepper>"));
+        assertTrue(receipt.endsWith("</body></html>"));
+    }
+
+    /**
+     * Single-threaded throughput for a typical 20-line invoice, per format.
+     */
+    @Test
+    void rendersThousandsOfReceiptsPerSecondOnOneCore() throws IOException {
+        InvoiceResponse invoice = invoice(20);
+        OutputStream sink = OutputStream.nullOutputStream();
+
+        for (Format format : Format.values()) {
+            for (int i = 0; i < 20_000; i++) {
+                receiptService.render(invoice, format, sink);
+            }
+            int receipts = 50_000;
+            long start = System.nanoTime();
+            for (int i = 0; i < receipts; i++) {
+                receiptService.render(invoice, format, sink);
+            }
+            double perSecond = receipts / ((System.nanoTime() - start) / 1_000_000_000.0);
+            assertTrue(perSecond > 5_000, format + " rendered only " + perSecond + " receipts/sec");
+        }
+    }
+
+    private String render(InvoiceResponse invoice, Format format) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        receiptService.render(invoice, format, out);
+        return out.toString(StandardCharsets.UTF_8);
+    }
+
+    // Alternates a weighed product at 5% GST with a counted one at 18%
+    private static InvoiceResponse invoice(int lines) {
+        List<InvoiceItemResponse> items = new ArrayList<>();
+        for (int i = 0; i < lines; i++) {
+            items.add(i % 2 == 0
+                    ? new InvoiceItemResponse("Loose Sugar", "SUGAR-LOOSE", 1000, new BigDecimal("0.0450"), new BigDecimal("45.00"),
+                            new BigDecimal("0.00"), new BigDecimal("2.25"), 500)
+                    : new InvoiceItemResponse("Premium Basmati Rice Extra Long Grain 5kg", "RICE-5KG", 1, new BigDecimal("130.0000"),
+                            new BigDecimal("130.00"), new BigDecimal("10.00"), new BigDecimal("21.60"), 1800));
+        }
+        BigDecimal subTotal = items.stream().map(InvoiceItemResponse::getLineTotal).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal discount = items.stream().map(InvoiceItemResponse::getItemDiscount).reduce(BigDecimal.ZERO, BigDecimal::add);
+        BigDecimal tax = items.stream().map(InvoiceItemResponse::getLineTax).reduce(BigDecimal.ZERO, BigDecimal::add);
+        return new InvoiceResponse(1L, "INV-MAIN-2526-000042", LocalDateTime.of(2025, 4, 5, 9, 7), "Asha", "9876543210",
+                items, subTotal, discount, tax, subTotal.subtract(discount).add(tax));
+    }
+}
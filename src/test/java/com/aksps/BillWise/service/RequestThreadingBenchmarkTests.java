@@ -0,0 +1,159 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.BillWiseApplication;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.ProductRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Compares platform-thread and virtual-thread request handling under 2,000 concurrent clients.
+ * Boots the application once per mode on a random port, so it needs the same PostgreSQL database
+ * as the other Spring tests. Each request is an authenticated product lookup: a JWT check that
+ * loads the user plus a JPA read, i.e. two blocking round trips to the database.
+ * <p>
+ * Run with {@code ./gradlew benchmark}; throughput and latency of both modes are published as report entries.
+ */
+@Tag("benchmark")
+class RequestThreadingBenchmarkTests {
+
+    private static final int CLIENTS = 2000;
+    private static final int REQUESTS_PER_CLIENT = 5;
+
+    private static final String SKU = "BENCH-THREADING-SKU";
+    private static final String USERNAME = "bench-threading";
+    private static final String PASSWORD = "bench-threading-pw";
+
+    private record Result(double requestsPerSecond, double p50Millis, double p99Millis) { }
+
+    @Test
+    void virtualThreadsKeepUpWithPlatformThreadsAtTwoThousandClients(TestReporter reporter) throws Exception {
+        Result platform = run(false);
+        Result virtual = run(true);
+
+        reporter.publishEntry(Map.of(
+                "platform.requestsPerSecond", String.format("%.0f", platform.requestsPerSecond()),
+                "platform.p50Millis", String.format("%.1f", platform.p50Millis()),
+                "platform.p99Millis", String.format("%.1f", platform.p99Millis()),
+                "virtual.requestsPerSecond", String.format("%.0f", virtual.requestsPerSecond()),
+                "virtual.p50Millis", String.format("%.1f", virtual.p50Millis()),
+                "virtual.p99Millis", String.format("%.1f", virtual.p99Millis())));
+
+        // Switching the mode on must not cost throughput; 10% leeway for run-to-run noise
+        assertTrue(virtual.requestsPerSecond() >= platform.requestsPerSecond() * 0.9,
+                "Virtual threads served " + virtual + ", platform threads " + platform);
+    }
+
+    private Result run(boolean virtualThreads) throws Exception {
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(BillWiseApplication.class)
+                .properties("server.port=0",
+                        "spring.threads.virtual.enabled=" + virtualThreads,
+                        "spring.jpa.show-sql=false")
+                .run()) {
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            ProductRepository productRepository = context.getBean(ProductRepository.class);
+            Product product = productRepository.findBySku(SKU).orElseGet(() -> productRepository.save(
+                    new Product("Benchmark Sugar", SKU, new BigDecimal("0.0450"), UnitType.WEIGHT, "g", 1000, 0)));
+
+            try (ExecutorService clients = Executors.newVirtualThreadPerTaskExecutor()) {
+                HttpClient http = HttpClient.newBuilder().executor(clients).build();
+                String token = login(http, baseUrl, context.getBean(ObjectMapper.class));
+                HttpRequest lookup = HttpRequest.newBuilder(URI.create(baseUrl + "/api/products/" + product.getId()))
+                        .header("Authorization", "Bearer " + token)
+                        .GET()
+                        .build();
+
+                long[] latencies = new long[CLIENTS * REQUESTS_PER_CLIENT];
+                AtomicInteger next = new AtomicInteger();
+                AtomicInteger failures = new AtomicInteger();
+                CountDownLatch start = new CountDownLatch(1);
+
+                List<Future<?>> futures = new ArrayList<>(CLIENTS);
+                for (int c = 0; c < CLIENTS; c++) {
+                    futures.add(clients.submit(() -> {
+                        start.await();
+                        for (int i = 0; i < REQUESTS_PER_CLIENT; i++) {
+                            long sentAt = System.nanoTime();
+                            HttpResponse<Void> response = http.send(lookup, HttpResponse.BodyHandlers.discarding());
+                            latencies[next.getAndIncrement()] = System.nanoTime() - sentAt;
+                            if (response.statusCode() != 200) {
+                                failures.incrementAndGet();
+                            }
+                        }
+                        return null;
+                    }));
+                }
+
+                long startedAt = System.nanoTime();
+                start.countDown();
+                for (Future<?> future : futures) {
+                    future.get();
+                }
+                double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+                assertEquals(0, failures.get(), (virtualThreads ? "Virtual" : "Platform") + " threads failed requests");
+                Arrays.sort(latencies);
+                return new Result(latencies.length / seconds, percentileMillis(latencies, 0.50), percentileMillis(latencies, 0.99));
+            } finally {
+                cleanUp(context, productRepository);
+            }
+        }
+    }
+
+    // Users are removed with plain SQL: deleting the entity would cascade to the shared roles
+    private static void cleanUp(ConfigurableApplicationContext context, ProductRepository productRepository) {
+        productRepository.findBySku(SKU).ifPresent(productRepository::delete);
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM user_roles WHERE user_id IN (SELECT id FROM users WHERE username = ?)", USERNAME);
+        jdbcTemplate.update("DELETE FROM users WHERE username = ?", USERNAME);
+    }
+
+    private String login(HttpClient http, String baseUrl, ObjectMapper objectMapper) throws Exception {
+        // Registration fails harmlessly when the user is left over from an interrupted run
+        http.send(jsonPost(baseUrl + "/api/auth/register", objectMapper.writeValueAsString(Map.of(
+                "username", USERNAME, "email", USERNAME + "@billwise.local", "password", PASSWORD))),
+                HttpResponse.BodyHandlers.discarding());
+
+        HttpResponse<String> response = http.send(jsonPost(baseUrl + "/api/auth/login", objectMapper.writeValueAsString(Map.of(
+                "username", USERNAME, "password", PASSWORD))), HttpResponse.BodyHandlers.ofString());
+        assertEquals(200, response.statusCode());
+        return objectMapper.readTree(response.body()).get("token").asText();
+    }
+
+    private static HttpRequest jsonPost(String url, String body) {
+        return HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        int index = Math.min(sortedNanos.length - 1, (int) Math.ceil(percentile * sortedNanos.length) - 1);
+        return sortedNanos[index] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,107 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.response.SalesTotalResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * A two-year range query over 50,000 products. Every product sells one unit a day; the series holds
+ * the month rows for the whole range and the week and day rows around both ends, which is all a
+ * correct cover may read. Seeded with plain SQL and rolled back afterwards.
+ * <p>
+ * Seeding takes minutes, so this runs with {@code ./gradlew benchmark}; the cover itself is unit tested
+ * in SalesSeriesServiceTests.
+ */
+@Tag("benchmark")
+@SpringBootTest(properties = "spring.jpa.show-sql=false")
+@Transactional
+class SalesSeriesRangeBenchmarkTests {
+
+    private static final int PRODUCTS = 50_000;
+    private static final LocalDate FROM = LocalDate.of(2023, 12, 20);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 10);
+
+    private static final String SEED_PRODUCTS_SQL = """
+            INSERT INTO products (name, sku, selling_price_per_base_unit, unit_type, base_unit, current_stock, min_stock_level)
+            SELECT 'Series Bench ' || g, 'SERIES-BENCH-' || g, 10, 'COUNT', 'pc', 0, 0
+            FROM generate_series(1, ?) g
+            """;
+
+    // One unit a day at 10.00 with 0.50 discount: a period's row holds its number of days
+    private static final String SEED_SERIES_SQL = """
+            INSERT INTO sales_series (id, product_id, granularity, period_start, units_sold, revenue, discount, invoice_count)
+            SELECT nextval('sales_series_seq'), p.id, s.granularity, s.period_start, s.days, s.days * 10, s.days * 0.5, s.days
+            FROM products p
+            CROSS JOIN (
+                SELECT 'MONTH' AS granularity, m::date AS period_start, (m + interval '1 month')::date - m::date AS days
+                FROM generate_series(timestamp '2023-11-01', timestamp '2025-12-01', interval '1 month') m
+                UNION ALL
+                SELECT 'WEEK', w::date, 7
+                FROM generate_series(timestamp '2023-11-27', timestamp '2024-01-08', interval '1 week') w
+                UNION ALL
+                SELECT 'WEEK', w::date, 7
+                FROM generate_series(timestamp '2025-11-24', timestamp '2025-12-15', interval '1 week') w
+                UNION ALL
+                SELECT 'DAY', d::date, 1
+                FROM generate_series(timestamp '2023-12-10', timestamp '2024-01-05', interval '1 day') d
+                UNION ALL
+                SELECT 'DAY', d::date, 1
+                FROM generate_series(timestamp '2025-11-25', timestamp '2025-12-20', interval '1 day') d
+            ) s
+            WHERE p.sku LIKE 'SERIES-BENCH-%'
+            """;
+
+    @Autowired
+    private SalesSeriesService salesSeriesService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update(SEED_PRODUCTS_SQL, PRODUCTS);
+        jdbcTemplate.update(SEED_SERIES_SQL);
+        jdbcTemplate.execute("ANALYZE sales_series");
+    }
+
+    @Test
+    void twoYearRangeOverFiftyThousandProducts(TestReporter reporter) {
+        long days = ChronoUnit.DAYS.between(FROM, TO) + 1;
+
+        for (int i = 0; i < 3; i++) {
+            salesSeriesService.totals(FROM, TO, null);
+        }
+        int runs = 5;
+        long start = System.nanoTime();
+        List<SalesTotalResponse> totals = null;
+        for (int i = 0; i < runs; i++) {
+            totals = salesSeriesService.totals(FROM, TO, null);
+        }
+        double millis = (System.nanoTime() - start) / 1_000_000.0 / runs;
+        reporter.publishEntry("millisPerQuery", String.format("%.1f", millis));
+        List<SalesTotalResponse> seeded = totals.stream().filter(total -> total.getUnitsSold() == days).toList();
+        assertEquals(PRODUCTS, seeded.size(), "Every product's range adds up to one unit per day");
+        SalesTotalResponse first = seeded.get(0);
+        assertEquals(new BigDecimal(days * 10).setScale(2), first.getRevenue().setScale(2));
+        assertEquals(new BigDecimal(days).multiply(new BigDecimal("0.5")).setScale(2), first.getDiscount().setScale(2));
+        assertEquals(days, first.getInvoiceCount());
+
+        List<SalesTotalResponse> single = salesSeriesService.totals(FROM, TO, first.getProductId());
+        assertEquals(List.of(first), single);
+        assertTrue(millis < 15_000, "Range query took " + millis + " ms");
+    }
+}
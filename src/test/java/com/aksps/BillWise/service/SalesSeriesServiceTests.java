@@ -0,0 +1,127 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.Granularity;
+import com.aksps.BillWise.service.SalesSeriesService.Range;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+/**
+ * How a date range is split into month, week and day rollup ranges. No database involved.
+ */
+class SalesSeriesServiceTests {
+
+    @Test
+    void wholeMonthsComeFromMonthRows() {
+        assertEquals(List.of(month("2024-01-01", "2024-04-01")),
+                SalesSeriesService.cover(date("2024-01-01"), date("2024-04-01")));
+    }
+
+    @Test
+    void headAndTailAroundTheMonthsComeFromWeeksThenDays() {
+        assertEquals(List.of(
+                        day("2024-04-03", "2024-04-08"),
+                        week("2024-04-08", "2024-04-29"),
+                        day("2024-04-29", "2024-05-01"),
+                        month("2024-05-01", "2024-06-01"),
+                        day("2024-06-01", "2024-06-05")),
+                SalesSeriesService.cover(date("2024-04-03"), date("2024-06-05")));
+
+        // Weeks run up to a month start when it falls on a Monday
+        assertEquals(List.of(
+                        day("2023-12-20", "2023-12-25"),
+                        week("2023-12-25", "2024-01-01"),
+                        month("2024-01-01", "2025-12-01"),
+                        week("2025-12-01", "2025-12-08"),
+                        day("2025-12-08", "2025-12-11")),
+                SalesSeriesService.cover(date("2023-12-20"), date("2025-12-11")));
+    }
+
+    @Test
+    void wholeWeeksOutsideMonthsComeFromWeekRows() {
+        assertEquals(List.of(week("2024-05-06", "2024-05-20")),
+                SalesSeriesService.cover(date("2024-05-06"), date("2024-05-20")));
+        // Without a whole month in the range, a week may cross the start of one
+        assertEquals(List.of(day("2024-02-23", "2024-02-26"), week("2024-02-26", "2024-03-04")),
+                SalesSeriesService.cover(date("2024-02-23"), date("2024-03-04")));
+    }
+
+    @Test
+    void rangesShorterThanAWeekComeFromDayRows() {
+        assertEquals(List.of(day("2024-05-08", "2024-05-11")),
+                SalesSeriesService.cover(date("2024-05-08"), date("2024-05-11")));
+        // Crosses a Monday without containing a whole week
+        assertEquals(List.of(day("2024-05-10", "2024-05-15")),
+                SalesSeriesService.cover(date("2024-05-10"), date("2024-05-15")));
+    }
+
+    @Test
+    void aSingleDayIsOneDayRow() {
+        // totals(d, d) covers [d, d + 1)
+        assertEquals(List.of(day("2024-03-01", "2024-03-02")),
+                SalesSeriesService.cover(date("2024-03-01"), date("2024-03-02")));
+        assertEquals(List.of(day("2024-05-13", "2024-05-14")),
+                SalesSeriesService.cover(date("2024-05-13"), date("2024-05-14")));
+        assertTrue(SalesSeriesService.cover(date("2024-05-13"), date("2024-05-13")).isEmpty());
+    }
+
+    @Test
+    void everyCoverIsContiguousAndAlignedToItsGranularity() {
+        Random random = new Random(7);
+        LocalDate origin = date("2023-01-01");
+        for (int i = 0; i < 5_000; i++) {
+            LocalDate from = origin.plusDays(random.nextInt(1_000));
+            LocalDate to = from.plusDays(1 + random.nextInt(800));
+
+            List<Range> ranges = SalesSeriesService.cover(from, to);
+
+            LocalDate next = from;
+            for (Range range : ranges) {
+                assertEquals(next, range.from(), from + " to " + to);
+                assertTrue(range.from().isBefore(range.to()), from + " to " + to);
+                if (range.granularity() == Granularity.MONTH) {
+                    assertEquals(1, range.from().getDayOfMonth());
+                    assertEquals(1, range.to().getDayOfMonth());
+                } else if (range.granularity() == Granularity.WEEK) {
+                    assertEquals(DayOfWeek.MONDAY, range.from().getDayOfWeek());
+                    assertEquals(DayOfWeek.MONDAY, range.to().getDayOfWeek());
+                }
+                next = range.to();
+            }
+            assertEquals(to, next, from + " to " + to);
+            assertTrue(ranges.size() <= 7, from + " to " + to + " took " + ranges.size() + " ranges");
+        }
+    }
+
+    @Test
+    void rejectsAnInvertedRange() {
+        SalesSeriesService service = new SalesSeriesService(mock(JdbcTemplate.class));
+
+        assertThrows(IllegalArgumentException.class, () -> service.totals(date("2024-05-02"), date("2024-05-01"), null));
+    }
+
+    private static LocalDate date(String value) {
+        return LocalDate.parse(value);
+    }
+
+    private static Range month(String from, String to) {
+        return new Range(Granularity.MONTH, date(from), date(to));
+    }
+
+    private static Range week(String from, String to) {
+        return new Range(Granularity.WEEK, date(from), date(to));
+    }
+
+    private static Range day(String from, String to) {
+        return new Range(Granularity.DAY, date(from), date(to));
+    }
+}
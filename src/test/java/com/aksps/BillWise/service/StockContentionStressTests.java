@@ -0,0 +1,187 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.dto.request.InvoiceItemRequest;
+import com.aksps.BillWise.dto.request.InvoiceRequest;
+import com.aksps.BillWise.model.Product;
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.InvoiceRepository;
+import com.aksps.BillWise.repository.ProductRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hammers hot SKUs from many tills at once and checks that stock is never oversold.
+ * Commits real transactions, so it cleans up its own invoices and products afterwards.
+ */
+@SpringBootTest
+class StockContentionStressTests {
+
+    private static final String HOT_SKU = "STRESS-HOT-SKU";
+    private static final int INITIAL_STOCK = 500;
+    private static final int TILLS = 16;
+    private static final int ATTEMPTS_PER_TILL = 50;
+
+    // Festival rush: every basket contains the same handful of staples
+    private static final String RUSH_SKU_PREFIX = "STRESS-RUSH-SKU-";
+    private static final int RUSH_SKUS = 5;
+    private static final int RUSH_TILLS = 64;
+    private static final int RUSH_BASKETS_PER_TILL = 20;
+    private static final int RUSH_INITIAL_STOCK = 2000;
+
+    @Autowired
+    private InvoiceService invoiceService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private InvoiceRepository invoiceRepository;
+
+    @Autowired
+    private LiveSalesCounters liveSalesCounters;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final ConcurrentLinkedQueue<Long> createdInvoiceIds = new ConcurrentLinkedQueue<>();
+    private final List<Product> createdProducts = new ArrayList<>();
+    private Product hotProduct;
+
+    @BeforeEach
+    void setUp() {
+        hotProduct = createProduct("Stress Milk", HOT_SKU, INITIAL_STOCK);
+    }
+
+    @AfterEach
+    void tearDown() {
+        invoiceRepository.deleteAllById(createdInvoiceIds);
+        // The live counters have written today's sales of these products by now or will on this flush
+        liveSalesCounters.flush();
+        for (Product product : createdProducts) {
+            jdbcTemplate.update("DELETE FROM daily_sales WHERE product_id = ?", product.getId());
+        }
+        productRepository.deleteAll(createdProducts);
+    }
+
+    @Test
+    void parallelTillsNeverOversellAHotSku() throws Exception {
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService tills = Executors.newFixedThreadPool(TILLS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < TILLS; t++) {
+            futures.add(tills.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS_PER_TILL; i++) {
+                    try {
+                        createdInvoiceIds.add(invoiceService.createInvoice(singleUnitBasket()).getId());
+                        sold.incrementAndGet();
+                    } catch (IllegalStateException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        tills.shutdown();
+
+        assertEquals(INITIAL_STOCK, sold.get());
+        assertEquals(TILLS * ATTEMPTS_PER_TILL - INITIAL_STOCK, rejected.get());
+        assertEquals(0, productRepository.findById(hotProduct.getId()).orElseThrow().getCurrentStock());
+    }
+
+    /**
+     * 64 tills selling baskets that each contain one unit of all 5 hot SKUs.
+     * Stock outlasts demand, so every basket must go through. Baskets per second are published
+     * as a report entry; run with {@code ./gradlew benchmark}.
+     */
+    @Test
+    @Tag("benchmark")
+    void sixtyFourTillsOnFiveHotSkus(TestReporter reporter) throws Exception {
+        List<String> rushSkus = new ArrayList<>();
+        for (int i = 0; i < RUSH_SKUS; i++) {
+            rushSkus.add(createProduct("Rush Staple " + i, RUSH_SKU_PREFIX + i, RUSH_INITIAL_STOCK).getSku());
+        }
+        InvoiceRequest basket = basketOf(rushSkus);
+
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService tills = Executors.newFixedThreadPool(RUSH_TILLS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < RUSH_TILLS; t++) {
+            futures.add(tills.submit(() -> {
+                start.await();
+                for (int i = 0; i < RUSH_BASKETS_PER_TILL; i++) {
+                    createdInvoiceIds.add(invoiceService.createInvoice(basket).getId());
+                    sold.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) {
+            future.get();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+        tills.shutdown();
+
+        int basketsSold = RUSH_TILLS * RUSH_BASKETS_PER_TILL;
+        assertEquals(basketsSold, sold.get());
+        reporter.publishEntry("basketsPerSecond", String.format("%.0f", sold.get() / seconds));
+        for (String sku : rushSkus) {
+            assertEquals(RUSH_INITIAL_STOCK - basketsSold, productRepository.findBySku(sku).orElseThrow().getCurrentStock());
+        }
+    }
+
+    private Product createProduct(String name, String sku, int stock) {
+        productRepository.findBySku(sku).ifPresent(productRepository::delete);
+        Product product = productRepository.save(new Product(name, sku, new BigDecimal("0.0300"), UnitType.LIQUID, "ml", stock, 0));
+        createdProducts.add(product);
+        return product;
+    }
+
+    private InvoiceRequest singleUnitBasket() {
+        return basketOf(List.of(HOT_SKU));
+    }
+
+    private InvoiceRequest basketOf(List<String> skus) {
+        List<InvoiceItemRequest> items = new ArrayList<>();
+        for (String sku : skus) {
+            InvoiceItemRequest item = new InvoiceItemRequest();
+            item.setProductSku(sku);
+            item.setQuantitySold(1);
+            items.add(item);
+        }
+
+        InvoiceRequest request = new InvoiceRequest();
+        request.setItems(items);
+        return request;
+    }
+}
@@ -0,0 +1,66 @@
+package com.aksps.BillWise.service;
+
+import com.aksps.BillWise.model.UnitType;
+import com.aksps.BillWise.repository.ProductSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Reservation bookkeeping, with transaction completion driven by hand.
+ */
+class StockReservationServiceTests {
+
+    private final StockReservationService reservations = new StockReservationService();
+
+    private final ProductSnapshot milk = product(1L, 10);
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void stockHeldByAnOpenSaleIsNotAvailableToOthers() {
+        TransactionSynchronizationManager.initSynchronization();
+        reservations.reserve(milk, 7);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> reservations.reserve(milk, 4));
+        assertEquals("Insufficient stock for product 'Milk'. Available: 3 (7 held by sales in progress)", e.getMessage());
+        assertEquals(7, reservations.inFlightQuantity(1L));
+
+        assertFalse(reservations.tryReserve(milk, 4));
+        reservations.reserve(milk, 3);
+        assertEquals(10, reservations.inFlightQuantity(1L));
+    }
+
+    @Test
+    void completingTheTransactionReleasesItsReservations() {
+        TransactionSynchronizationManager.initSynchronization();
+        reservations.reserve(milk, 6);
+        reservations.reserve(product(2L, 5), 5);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::beforeCompletion);
+
+        assertEquals(0, reservations.inFlightQuantity(1L));
+        assertEquals(0, reservations.inFlightQuantity(2L));
+    }
+
+    @Test
+    void refusesToReserveOutsideATransaction() {
+        assertThrows(IllegalStateException.class, () -> reservations.reserve(milk, 1));
+    }
+
+    private static ProductSnapshot product(Long id, int stock) {
+        return new ProductSnapshot(id, "Milk", "MILK-" + id, new BigDecimal("0.0300"), UnitType.LIQUID, "ml", stock, 0, null);
+    }
+}